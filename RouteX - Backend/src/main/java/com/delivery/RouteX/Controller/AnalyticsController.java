@@ -1,16 +1,43 @@
 package com.delivery.RouteX.Controller;
 
+import com.delivery.RouteX.analytics.ColumnarQueryEngine;
+import com.delivery.RouteX.dto.analytics.ColumnarQueryRequest;
+import com.delivery.RouteX.dto.analytics.ColumnarQueryResult;
 import com.delivery.RouteX.dto.analytics.DashboardMetrics;
+import com.delivery.RouteX.dto.analytics.DeliveryTimePercentiles;
+import com.delivery.RouteX.dto.analytics.DistinctCountReport;
 import com.delivery.RouteX.dto.analytics.OrderStatistics;
 import com.delivery.RouteX.dto.analytics.RevenueReport;
+import com.delivery.RouteX.model.ActivitySketch;
+import com.delivery.RouteX.model.DeliveryTimeSketch;
+import com.delivery.RouteX.model.Order;
 import com.delivery.RouteX.service.AnalyticsService;
+import com.delivery.RouteX.service.OrderExportService;
+import com.delivery.RouteX.service.OrderRollupService;
+import com.delivery.RouteX.websocket.DashboardMetricsPublisher;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 @RestController
 @RequestMapping("/api/analytics")
@@ -20,6 +47,13 @@ import java.time.LocalDateTime;
 public class AnalyticsController {
 
     private final AnalyticsService analyticsService;
+    private final OrderRollupService orderRollupService;
+    private final ColumnarQueryEngine columnarQueryEngine;
+    private final OrderExportService orderExportService;
+    private final DashboardMetricsPublisher dashboardMetricsPublisher;
+
+    @Value("${app.export.request-timeout-ms:1800000}")
+    private long exportTimeoutMs;
 
     @GetMapping("/dashboard")
     public ResponseEntity<DashboardMetrics> getDashboardMetrics() {
@@ -27,6 +61,20 @@ public class AnalyticsController {
         return ResponseEntity.ok(metrics);
     }
 
+    /**
+     * Live dashboard (Server-Sent Events)
+     * Emits one "snapshot" event, then "delta" events with the fields that changed
+     */
+    @GetMapping(value = "/dashboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDashboardMetrics() {
+        return dashboardMetricsPublisher.subscribe();
+    }
+
+    /**
+     * Revenue of orders delivered in the range, counted in whole hours
+     * startDate rounds down and endDate up to the hour; the report's startDate
+     * and endDate give the range actually covered, end exclusive.
+     */
     @GetMapping("/revenue")
     public ResponseEntity<RevenueReport> getRevenueReport(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
@@ -36,6 +84,10 @@ public class AnalyticsController {
         return ResponseEntity.ok(report);
     }
 
+    /**
+     * Outcomes of orders created in the range
+     * Widened to whole hours the same way as /revenue, with the covered range in the response.
+     */
     @GetMapping("/orders")
     public ResponseEntity<OrderStatistics> getOrderStatistics(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
@@ -44,4 +96,109 @@ public class AnalyticsController {
         OrderStatistics stats = analyticsService.getOrderStatistics(startDate, endDate);
         return ResponseEntity.ok(stats);
     }
+
+    @GetMapping("/delivery-times")
+    public ResponseEntity<DeliveryTimePercentiles> getDeliveryTimePercentiles(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "CREATED_TO_DELIVERED") DeliveryTimeSketch.Metric metric,
+            @RequestParam(required = false) String zone
+    ) {
+        DeliveryTimePercentiles percentiles =
+                analyticsService.getDeliveryTimePercentiles(metric, startDate, endDate, zone);
+        return ResponseEntity.ok(percentiles);
+    }
+
+    /**
+     * Approximate distinct active customers or delivering drivers, both dates inclusive
+     */
+    @GetMapping("/distinct")
+    public ResponseEntity<DistinctCountReport> getDistinctCounts(
+            @RequestParam ActivitySketch.Kind kind,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "DAY") DistinctCountReport.Interval interval
+    ) {
+        DistinctCountReport report = analyticsService.getDistinctCounts(kind, startDate, endDate, interval);
+        return ResponseEntity.ok(report);
+    }
+
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Integer>> rebuildRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate
+    ) {
+        int days = orderRollupService.rebuild(startDate, endDate);
+        return ResponseEntity.ok(Map.of("daysRebuilt", days));
+    }
+
+    @PostMapping("/query")
+    public ResponseEntity<ColumnarQueryResult> query(@Valid @RequestBody ColumnarQueryRequest request) {
+        return ResponseEntity.ok(columnarQueryEngine.execute(request));
+    }
+
+    @GetMapping("/query/snapshot")
+    public ResponseEntity<Map<String, Object>> getSnapshotInfo() {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("snapshotAt", columnarQueryEngine.getSnapshotAt());
+        info.put("rows", columnarQueryEngine.getRowCount());
+        info.put("chunks", columnarQueryEngine.getChunkCount());
+        info.put("estimatedBytes", columnarQueryEngine.getEstimatedBytes());
+        return ResponseEntity.ok(info);
+    }
+
+    /**
+     * Stream orders created in the range as gzipped CSV
+     */
+    @GetMapping("/export/orders")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) Order.OrderStatus status,
+            HttpServletRequest request
+    ) {
+        orderExportService.validateRange(startDate, endDate);
+        StreamingResponseBody body = out -> orderExportService.exportOrders(startDate, endDate, status, out);
+        return gzippedCsv("orders-" + startDate.toLocalDate() + "-" + endDate.toLocalDate(), body, request);
+    }
+
+    /**
+     * Stream hourly delivered revenue in the range as gzipped CSV
+     */
+    @GetMapping("/export/revenue")
+    public ResponseEntity<StreamingResponseBody> exportRevenue(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            HttpServletRequest request
+    ) {
+        orderExportService.validateRange(startDate, endDate);
+        StreamingResponseBody body = out -> orderExportService.exportRevenue(startDate, endDate, out);
+        return gzippedCsv("revenue-" + startDate.toLocalDate() + "-" + endDate.toLocalDate(), body, request);
+    }
+
+    private ResponseEntity<StreamingResponseBody> gzippedCsv(String name, StreamingResponseBody body,
+                                                             HttpServletRequest request) {
+        useExportTimeout(request);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(name + ".csv.gz").build().toString())
+                .body(body);
+    }
+
+    /**
+     * Give this request the export timeout instead of the default async request timeout
+     * Exports can stream for minutes; the default stays short for every other async endpoint.
+     */
+    private void useExportTimeout(HttpServletRequest request) {
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor("exportTimeout",
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest webRequest, Callable<T> task) {
+                        // Runs on the async request itself, after the default timeout was set and before it starts
+                        ((AsyncWebRequest) webRequest).setTimeout(exportTimeoutMs);
+                    }
+                });
+    }
 }
@@ -130,6 +130,20 @@ public class DriverController {
         return ResponseEntity.ok(stats);
     }
 
+    @GetMapping("/me/rank")
+    @PreAuthorize("hasRole('DRIVER')")
+    public ResponseEntity<DriverRankResponse> getMyRank(@AuthenticationPrincipal User user) {
+        DriverRankResponse rank = driverService.getDriverRank(user.getDriver().getId());
+        return ResponseEntity.ok(rank);
+    }
+
+    @GetMapping("/{id}/rank")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DISPATCHER')")
+    public ResponseEntity<DriverRankResponse> getDriverRank(@PathVariable Long id) {
+        DriverRankResponse rank = driverService.getDriverRank(id);
+        return ResponseEntity.ok(rank);
+    }
+
     @GetMapping("/top")
     @PreAuthorize("hasAnyRole('ADMIN', 'DISPATCHER')")
     public ResponseEntity<List<DriverResponse>> getTopDrivers(
@@ -0,0 +1,37 @@
+package com.delivery.RouteX.Controller;
+
+import com.delivery.RouteX.dto.websocket.FleetDeltaMessage;
+import com.delivery.RouteX.dto.websocket.FleetSnapshotResponse;
+import com.delivery.RouteX.websocket.FleetStateService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Fleet map resync for dispatcher consoles
+ * Served from the in-memory fleet state, so reconnect storms never reach the database.
+ */
+@RestController
+@RequestMapping("/api/dispatcher/fleet")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173"})
+public class FleetController {
+
+    private final FleetStateService fleetStateService;
+
+    @GetMapping("/snapshot")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DISPATCHER')")
+    public ResponseEntity<FleetSnapshotResponse> getSnapshot() {
+        return ResponseEntity.ok(fleetStateService.snapshot());
+    }
+
+    @GetMapping("/deltas")
+    @PreAuthorize("hasAnyRole('ADMIN', 'DISPATCHER')")
+    public ResponseEntity<FleetDeltaMessage> getDeltas(
+            @RequestParam String epoch,
+            @RequestParam Long since
+    ) {
+        return ResponseEntity.ok(fleetStateService.deltasSince(epoch, since));
+    }
+}
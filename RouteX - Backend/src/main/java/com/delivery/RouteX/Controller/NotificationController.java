@@ -3,11 +3,13 @@ package com.delivery.RouteX.Controller;
 import com.delivery.RouteX.dto.notification.NotificationResponse;
 import com.delivery.RouteX.model.Notification;
 import com.delivery.RouteX.model.User;
+import com.delivery.RouteX.service.NotificationPushService;
 import com.delivery.RouteX.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.List;
 import java.util.Map;
@@ -20,12 +22,15 @@ import java.util.stream.Collectors;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final NotificationPushService notificationPushService;
 
     @GetMapping
     public ResponseEntity<List<NotificationResponse>> getMyNotifications(
-            @AuthenticationPrincipal User user
+            @AuthenticationPrincipal User user,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
     ) {
-        List<Notification> notifications = notificationService.getUserNotifications(user.getId());
+        List<Notification> notifications = notificationService.getUserNotifications(user.getId(), page, size);
         List<NotificationResponse> response = notifications.stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
@@ -43,6 +48,20 @@ public class NotificationController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Long-poll for new notifications (fallback for clients without WebSocket)
+     * Returns notifications with id > since as soon as any exist,
+     * or an empty list after the timeout.
+     */
+    @GetMapping("/poll")
+    public DeferredResult<List<NotificationResponse>> pollNotifications(
+            @AuthenticationPrincipal User user,
+            @RequestParam(defaultValue = "0") Long since,
+            @RequestParam(defaultValue = "30000") Long timeoutMs
+    ) {
+        return notificationPushService.poll(user.getId(), since, timeoutMs);
+    }
+
     @GetMapping("/unread/count")
     public ResponseEntity<Map<String, Long>> getUnreadCount(@AuthenticationPrincipal User user) {
         Long count = notificationService.getUnreadCount(user.getId());
@@ -4,6 +4,7 @@ package com.delivery.RouteX.Controller;
 import com.delivery.RouteX.dto.order.*;
 import com.delivery.RouteX.model.User;
 import com.delivery.RouteX.service.OrderService;
+import com.delivery.RouteX.util.ETagGenerator;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.*;
@@ -12,6 +13,7 @@ import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.*;
 
@@ -34,13 +36,33 @@ public class OrderController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Get order details
+     * Supports If-None-Match (304 without loading the order graph)
+     * and ?since=<trackingId> to return only newer tracking entries
+     */
     @GetMapping("/{id}")
     public ResponseEntity<OrderResponse> getOrderById(
             @PathVariable Long id,
-            @AuthenticationPrincipal User user
+            @RequestParam(required = false) Long since,
+            @AuthenticationPrincipal User user,
+            WebRequest webRequest
     ) {
-        OrderResponse response = orderService.getOrderById(id, user.getId(), user.getRole());
-        return ResponseEntity.ok(response);
+        OrderVersion orderVersion = orderService.getOrderVersion(id, user.getId(), user.getRole());
+        String etag = ETagGenerator.forOrder(id, orderVersion.getVersion(), orderVersion.getPartiesStamp(), since);
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+
+        // Tagged with the pre-load marker: if the order moved on meanwhile, the next request gets a 200, never a stale 304
+        OrderResponse response = orderService.getOrderById(id, since, user.getId(), user.getRole());
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(response);
     }
 
     @GetMapping("/number/{orderNumber}")
@@ -1,10 +1,18 @@
 package com.delivery.RouteX.Controller;
 
+import com.delivery.RouteX.dto.order.OrderVersion;
 import com.delivery.RouteX.dto.order.TrackingResponse;
 import com.delivery.RouteX.service.OrderService;
+import com.delivery.RouteX.util.ETagGenerator;
+import com.delivery.RouteX.websocket.TrackingStreamService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -15,10 +23,47 @@ import java.util.List;
 public class TrackingController {
 
     private final OrderService orderService;
+    private final TrackingStreamService trackingStreamService;
 
+    /**
+     * Public order tracking
+     * Supports If-None-Match (304 when nothing changed)
+     * and ?since=<trackingId> to return only newer tracking entries
+     */
     @GetMapping("/{orderNumber}")
-    public ResponseEntity<List<TrackingResponse>> trackOrder(@PathVariable String orderNumber) {
-        List<TrackingResponse> tracking = orderService.getOrderTracking(orderNumber);
-        return ResponseEntity.ok(tracking);
+    public ResponseEntity<List<TrackingResponse>> trackOrder(
+            @PathVariable String orderNumber,
+            @RequestParam(required = false) Long since,
+            WebRequest webRequest
+    ) {
+        OrderVersion orderVersion = orderService.getTrackingVersion(orderNumber);
+        String etag = ETagGenerator.forOrder(orderVersion.getOrderId(), orderVersion.getVersion(), since);
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+
+        List<TrackingResponse> tracking = orderService.getOrderTracking(orderNumber, since);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(tracking);
+    }
+
+    /**
+     * Live tracking stream (Server-Sent Events)
+     * Emits "tracking" (initial history), "status" and "location" events.
+     * Reconnecting browsers resume from the Last-Event-ID header automatically.
+     */
+    @GetMapping(value = "/{orderNumber}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrder(
+            @PathVariable String orderNumber,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        Long orderId = orderService.getTrackingVersion(orderNumber).getOrderId();
+        return trackingStreamService.subscribe(
+                orderId, lastEventId, () -> orderService.getOrderTracking(orderNumber));
     }
 }
@@ -0,0 +1,23 @@
+package com.delivery.RouteX.Repository;
+
+import com.delivery.RouteX.model.ActivitySketch;
+import com.delivery.RouteX.model.ActivitySketchId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ActivitySketchRepository extends JpaRepository<ActivitySketch, ActivitySketchId> {
+
+    @Query("SELECT s FROM ActivitySketch s WHERE s.id.kind = :kind " +
+            "AND s.id.day >= :from AND s.id.day <= :to")
+    List<ActivitySketch> findSketches(
+            @Param("kind") ActivitySketch.Kind kind,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to
+    );
+}
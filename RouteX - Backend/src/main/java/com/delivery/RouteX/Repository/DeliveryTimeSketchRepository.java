@@ -0,0 +1,32 @@
+package com.delivery.RouteX.Repository;
+
+import com.delivery.RouteX.model.DeliveryTimeSketch;
+import com.delivery.RouteX.model.DeliveryTimeSketchId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DeliveryTimeSketchRepository extends JpaRepository<DeliveryTimeSketch, DeliveryTimeSketchId> {
+
+    @Query("SELECT s FROM DeliveryTimeSketch s WHERE s.id.metric = :metric " +
+            "AND s.id.bucketStart >= :from AND s.id.bucketStart < :to")
+    List<DeliveryTimeSketch> findSketches(
+            @Param("metric") DeliveryTimeSketch.Metric metric,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
+
+    @Query("SELECT s FROM DeliveryTimeSketch s WHERE s.id.metric = :metric AND s.id.zone = :zone " +
+            "AND s.id.bucketStart >= :from AND s.id.bucketStart < :to")
+    List<DeliveryTimeSketch> findZoneSketches(
+            @Param("metric") DeliveryTimeSketch.Metric metric,
+            @Param("zone") String zone,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
+}
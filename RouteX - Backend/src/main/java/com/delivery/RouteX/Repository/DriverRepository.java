@@ -1,12 +1,13 @@
 package com.delivery.RouteX.Repository;
 
 import com.delivery.RouteX.model.Driver;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +18,9 @@ public interface DriverRepository extends JpaRepository<Driver, Long> {
 
     List<Driver> findByAvailabilityStatus(Driver.AvailabilityStatus status);
 
+    @Query("SELECT d.availabilityStatus, COUNT(d) FROM Driver d GROUP BY d.availabilityStatus")
+    List<Object[]> countGroupedByAvailabilityStatus();
+
     @Query("SELECT d FROM Driver d WHERE d.availabilityStatus = 'ONLINE' " +
             "AND d.currentLatitude BETWEEN :minLat AND :maxLat " +
             "AND d.currentLongitude BETWEEN :minLon AND :maxLon")
@@ -27,10 +31,23 @@ public interface DriverRepository extends JpaRepository<Driver, Long> {
             @Param("maxLon") Double maxLon
     );
 
-    @Query("SELECT d FROM Driver d WHERE d.availabilityStatus = 'ONLINE' " +
-            "ORDER BY d.rating DESC, d.totalDeliveries DESC")
-    List<Driver> findTopDrivers(Pageable pageable);
+    @Query("SELECT d.id, d.availabilityStatus, d.rating, d.totalDeliveries FROM Driver d")
+    List<Object[]> findRankingStats();
 
     @Query("SELECT AVG(d.rating) FROM Driver d WHERE d.totalDeliveries > 0")
     Double getAverageDriverRating();
+
+    @Query("SELECT d.id, d.currentLatitude, d.currentLongitude, d.lastLocationUpdate FROM Driver d " +
+            "WHERE d.currentLatitude IS NOT NULL AND d.currentLongitude IS NOT NULL")
+    List<Object[]> findLastKnownLocations();
+
+    @Modifying
+    @Query("UPDATE Driver d SET d.currentLatitude = :latitude, d.currentLongitude = :longitude, " +
+            "d.lastLocationUpdate = :timestamp, d.updatedAt = :timestamp WHERE d.id = :driverId")
+    int updateLocation(
+            @Param("driverId") Long driverId,
+            @Param("latitude") Double latitude,
+            @Param("longitude") Double longitude,
+            @Param("timestamp") LocalDateTime timestamp
+    );
 }
\ No newline at end of file
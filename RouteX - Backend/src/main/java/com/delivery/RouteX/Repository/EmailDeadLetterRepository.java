@@ -0,0 +1,9 @@
+package com.delivery.RouteX.Repository;
+
+import com.delivery.RouteX.model.EmailDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EmailDeadLetterRepository extends JpaRepository<EmailDeadLetter, Long> {
+}
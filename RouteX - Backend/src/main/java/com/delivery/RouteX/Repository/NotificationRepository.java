@@ -4,10 +4,13 @@ import com.delivery.RouteX.model.Notification;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,8 +20,19 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
 
     List<Notification> findByUserIdAndIsReadFalseOrderByCreatedAtDesc(Long userId);
 
+    List<Notification> findTop50ByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long id);
+
     Long countByUserIdAndIsReadFalse(Long userId);
 
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true, n.readAt = :readAt " +
+            "WHERE n.user.id = :userId AND n.isRead = false")
+    int markAllAsRead(@Param("userId") Long userId, @Param("readAt") LocalDateTime readAt);
+
+    @Query("SELECT n.user.id, COUNT(n) FROM Notification n " +
+            "WHERE n.isRead = false AND n.user.id IN :userIds GROUP BY n.user.id")
+    List<Object[]> countUnreadByUserIds(@Param("userIds") Collection<Long> userIds);
+
     @Query("SELECT n FROM Notification n WHERE n.user.id = :userId " +
             "ORDER BY n.createdAt DESC")
     Page<Notification> findUserNotifications(
@@ -0,0 +1,37 @@
+package com.delivery.RouteX.Repository;
+
+import com.delivery.RouteX.model.Order;
+import com.delivery.RouteX.model.OrderHourlyRollup;
+import com.delivery.RouteX.model.OrderHourlyRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderHourlyRollupRepository extends JpaRepository<OrderHourlyRollup, OrderHourlyRollupId> {
+
+    /**
+     * Per-status totals over [from, to): status, order count, revenue sum, distance sum
+     */
+    @Query("SELECT r.id.status, SUM(r.orderCount), SUM(r.revenueSum), SUM(r.distanceSum) " +
+            "FROM OrderHourlyRollup r WHERE r.id.basis = :basis " +
+            "AND r.id.bucketStart >= :from AND r.id.bucketStart < :to GROUP BY r.id.status")
+    List<Object[]> sumByStatus(
+            @Param("basis") OrderHourlyRollup.Basis basis,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
+
+    @Query("SELECT r FROM OrderHourlyRollup r WHERE r.id.basis = :basis AND r.id.status = :status " +
+            "AND r.id.bucketStart >= :from AND r.id.bucketStart < :to ORDER BY r.id.bucketStart")
+    List<OrderHourlyRollup> findBuckets(
+            @Param("basis") OrderHourlyRollup.Basis basis,
+            @Param("status") Order.OrderStatus status,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
+}
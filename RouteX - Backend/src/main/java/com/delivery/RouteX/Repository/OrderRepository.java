@@ -1,5 +1,6 @@
 package com.delivery.RouteX.Repository;
 
+import com.delivery.RouteX.dto.order.OrderVersion;
 import com.delivery.RouteX.model.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -17,6 +18,18 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     Optional<Order> findByOrderNumber(String orderNumber);
 
+    @Query("SELECT new com.delivery.RouteX.dto.order.OrderVersion(o.id, o.version, cu.id, du.id, " +
+            "cu.updatedAt, du.updatedAt, d.rating) " +
+            "FROM Order o JOIN o.customer c JOIN c.user cu " +
+            "LEFT JOIN o.driver d LEFT JOIN d.user du WHERE o.id = :orderId")
+    Optional<OrderVersion> findVersionById(@Param("orderId") Long orderId);
+
+    @Query("SELECT new com.delivery.RouteX.dto.order.OrderVersion(o.id, o.version, cu.id, du.id, " +
+            "cu.updatedAt, du.updatedAt, d.rating) " +
+            "FROM Order o JOIN o.customer c JOIN c.user cu " +
+            "LEFT JOIN o.driver d LEFT JOIN d.user du WHERE o.orderNumber = :orderNumber")
+    Optional<OrderVersion> findVersionByOrderNumber(@Param("orderNumber") String orderNumber);
+
     List<Order> findByCustomerId(Long customerId);
 
     List<Order> findByDriverId(Long driverId);
@@ -49,6 +62,13 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
             "ORDER BY o.scheduledPickupTime ASC")
     List<Order> findActiveOrdersByDriver(@Param("driverId") Long driverId);
 
+    @Query("SELECT o.driver.id, o.id FROM Order o WHERE o.driver IS NOT NULL " +
+            "AND o.status IN ('ASSIGNED', 'PICKED_UP', 'IN_TRANSIT')")
+    List<Object[]> findActiveDriverAssignments();
+
+    @Query("SELECT o.status, COUNT(o) FROM Order o GROUP BY o.status")
+    List<Object[]> countGroupedByStatus();
+
     @Query("SELECT COUNT(o) FROM Order o WHERE o.status = :status")
     Long countByStatus(@Param("status") Order.OrderStatus status);
 
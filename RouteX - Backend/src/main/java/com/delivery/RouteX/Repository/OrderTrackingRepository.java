@@ -15,6 +15,9 @@ public interface OrderTrackingRepository extends JpaRepository<OrderTracking, Lo
 
     List<OrderTracking> findByOrderOrderNumberOrderByTimestampDesc(String orderNumber);
 
+    List<OrderTracking> findByOrderOrderNumberAndIdGreaterThanOrderByTimestampDesc(
+            String orderNumber, Long sinceTrackingId);
+
     @Query("SELECT ot FROM OrderTracking ot WHERE ot.order.id = :orderId " +
             "ORDER BY ot.timestamp DESC")
     List<OrderTracking> getOrderTrackingHistory(@Param("orderId") Long orderId);
@@ -0,0 +1,285 @@
+package com.delivery.RouteX.analytics;
+
+import com.delivery.RouteX.dto.analytics.ColumnarQueryRequest;
+import com.delivery.RouteX.dto.analytics.ColumnarQueryResult;
+import com.delivery.RouteX.model.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Filter / group-by / aggregate over the current OrderColumnStore snapshot
+ * Chunks are scanned in parallel (common fork-join pool), each producing a
+ * partial aggregate per group that is merged at the end. Queries only read the
+ * in-memory snapshot, never the database.
+ *
+ * Group keys pack up to three dimension values of 21 bits each into a long.
+ */
+@Component
+public class ColumnarQueryEngine {
+
+    private static final int KEY_BITS = 21;
+    private static final long KEY_MASK = (1L << KEY_BITS) - 1;
+
+    private volatile OrderColumnStore store = OrderColumnStore.EMPTY;
+
+    void swap(OrderColumnStore snapshot) {
+        this.store = snapshot;
+    }
+
+    public long getRowCount() {
+        return store.rowCount;
+    }
+
+    public int getChunkCount() {
+        return store.chunks.size();
+    }
+
+    public long getEstimatedBytes() {
+        return store.estimatedBytes();
+    }
+
+    public LocalDateTime getSnapshotAt() {
+        return store.snapshotAt;
+    }
+
+    public ColumnarQueryResult execute(ColumnarQueryRequest request) {
+        long started = System.nanoTime();
+        OrderColumnStore snapshot = store;
+        Plan plan = new Plan(request, snapshot);
+
+        List<OrderColumnChunk> candidates = snapshot.chunks.stream()
+                .filter(chunk -> chunk.maxCreated >= plan.createdFrom && chunk.minCreated < plan.createdTo)
+                .toList();
+
+        Map<Long, Accumulator> merged = candidates.parallelStream()
+                .map(plan::scan)
+                .reduce(ColumnarQueryEngine::merge)
+                .orElseGet(HashMap::new);
+
+        // Sorted by packed key, i.e. by the group values in groupBy order
+        Map<Long, Accumulator> ordered = new TreeMap<>(merged);
+        List<ColumnarQueryResult.Group> groups = new ArrayList<>();
+        long matched = 0;
+        for (Map.Entry<Long, Accumulator> entry : ordered.entrySet()) {
+            matched += entry.getValue().count;
+            if (groups.size() < plan.limit) {
+                groups.add(new ColumnarQueryResult.Group(plan.labels(entry.getKey()), plan.values(entry.getValue())));
+            }
+        }
+
+        return ColumnarQueryResult.builder()
+                .snapshotAt(snapshot.snapshotAt)
+                .rowsMatched(matched)
+                .chunksScanned(candidates.size())
+                .chunksSkipped(snapshot.chunks.size() - candidates.size())
+                .elapsedMicros((System.nanoTime() - started) / 1000)
+                .groups(groups)
+                .build();
+    }
+
+    private static Map<Long, Accumulator> merge(Map<Long, Accumulator> left, Map<Long, Accumulator> right) {
+        // Partials are private to one chunk scan, so the larger one can absorb the other
+        Map<Long, Accumulator> target = left.size() >= right.size() ? left : right;
+        Map<Long, Accumulator> source = target == left ? right : left;
+        source.forEach((key, accumulator) -> target.merge(key, accumulator, Accumulator::add));
+        return target;
+    }
+
+    /**
+     * Request resolved against one snapshot's dictionaries
+     */
+    private static final class Plan {
+        private final OrderColumnStore snapshot;
+        private final long createdFrom;
+        private final long createdTo;
+        private final boolean[] statusAllowed;
+        private final boolean[] packageTypeAllowed;
+        private final double minDistance;
+        private final double maxDistance;
+        private final ColumnarQueryRequest.Dimension[] dimensions;
+        private final List<ColumnarQueryRequest.Metric> metrics;
+        private final double bandWidth;
+        private final int limit;
+        private final int deliveredCode;
+        private final int cancelledCode;
+        private final int failedCode;
+
+        private Plan(ColumnarQueryRequest request, OrderColumnStore snapshot) {
+            this.snapshot = snapshot;
+            this.createdFrom = request.getCreatedFrom() != null
+                    ? request.getCreatedFrom().toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE;
+            this.createdTo = request.getCreatedTo() != null
+                    ? request.getCreatedTo().toEpochSecond(ZoneOffset.UTC) : Long.MAX_VALUE;
+            this.statusAllowed = allowed(snapshot.statusDictionary,
+                    request.getStatuses() == null ? null : request.getStatuses().stream().map(Enum::name).toList());
+            this.packageTypeAllowed = allowed(snapshot.packageTypeDictionary,
+                    request.getPackageTypes() == null ? null : request.getPackageTypes().stream().map(Enum::name).toList());
+            this.minDistance = request.getMinDistanceKm() != null ? request.getMinDistanceKm() : Double.NEGATIVE_INFINITY;
+            this.maxDistance = request.getMaxDistanceKm() != null ? request.getMaxDistanceKm() : Double.POSITIVE_INFINITY;
+            this.dimensions = request.getGroupBy() == null
+                    ? new ColumnarQueryRequest.Dimension[0]
+                    : request.getGroupBy().toArray(ColumnarQueryRequest.Dimension[]::new);
+            this.metrics = request.getMetrics();
+            this.bandWidth = request.getDistanceBandKm() != null ? request.getDistanceBandKm() : 5.0;
+            this.limit = request.getLimit() != null ? request.getLimit() : 1000;
+            this.deliveredCode = OrderColumnStore.codeOf(snapshot.statusDictionary, Order.OrderStatus.DELIVERED.name());
+            this.cancelledCode = OrderColumnStore.codeOf(snapshot.statusDictionary, Order.OrderStatus.CANCELLED.name());
+            this.failedCode = OrderColumnStore.codeOf(snapshot.statusDictionary, Order.OrderStatus.FAILED.name());
+        }
+
+        private Map<Long, Accumulator> scan(OrderColumnChunk chunk) {
+            Map<Long, Accumulator> groups = new HashMap<>();
+            long created = chunk.createdBase;
+            for (int row = 0; row < chunk.size; row++) {
+                created += chunk.createdDeltas[row];
+                if (created < createdFrom || created >= createdTo
+                        || !statusAllowed[chunk.status[row]]
+                        || !packageTypeAllowed[chunk.packageType[row]]
+                        || chunk.distanceKm[row] < minDistance || chunk.distanceKm[row] > maxDistance) {
+                    continue;
+                }
+
+                long key = 0;
+                for (ColumnarQueryRequest.Dimension dimension : dimensions) {
+                    key = (key << KEY_BITS) | (dimensionValue(dimension, chunk, row, created) & KEY_MASK);
+                }
+
+                Accumulator accumulator = groups.get(key);
+                if (accumulator == null) {
+                    accumulator = new Accumulator();
+                    groups.put(key, accumulator);
+                }
+                accumulator.add(chunk, row, deliveredCode, cancelledCode, failedCode);
+            }
+            return groups;
+        }
+
+        private long dimensionValue(ColumnarQueryRequest.Dimension dimension, OrderColumnChunk chunk,
+                                    int row, long created) {
+            return switch (dimension) {
+                case STATUS -> chunk.status[row];
+                case PACKAGE_TYPE -> chunk.packageType[row];
+                case HOUR_OF_DAY -> Math.floorMod(created / 3600, 24);
+                case DAY -> Math.floorDiv(created, 86_400);
+                // 1970-01-01 was a Thursday; 0 = Monday
+                case DAY_OF_WEEK -> Math.floorMod(Math.floorDiv(created, 86_400) + 3, 7);
+                case DISTANCE_BAND -> Math.min(KEY_MASK, (long) Math.floor(Math.max(0f, chunk.distanceKm[row]) / bandWidth));
+            };
+        }
+
+        private Map<String, String> labels(long key) {
+            Map<String, String> labels = new LinkedHashMap<>();
+            for (int i = 0; i < dimensions.length; i++) {
+                long value = (key >>> ((dimensions.length - 1 - i) * KEY_BITS)) & KEY_MASK;
+                labels.put(dimensions[i].name(), label(dimensions[i], value));
+            }
+            return labels;
+        }
+
+        private String label(ColumnarQueryRequest.Dimension dimension, long value) {
+            return switch (dimension) {
+                case STATUS -> snapshot.statusDictionary.get((int) value);
+                case PACKAGE_TYPE -> snapshot.packageTypeDictionary.get((int) value);
+                case HOUR_OF_DAY -> String.format(Locale.ROOT, "%02d", value);
+                case DAY -> LocalDate.ofEpochDay(value).toString();
+                case DAY_OF_WEEK -> DayOfWeek.of((int) value + 1).name();
+                case DISTANCE_BAND -> String.format(Locale.ROOT, "%s-%s",
+                        trimZeros(value * bandWidth), trimZeros((value + 1) * bandWidth));
+            };
+        }
+
+        private Map<String, Double> values(Accumulator accumulator) {
+            Map<String, Double> values = new LinkedHashMap<>();
+            for (ColumnarQueryRequest.Metric metric : metrics) {
+                values.put(metric.name(), accumulator.value(metric));
+            }
+            return values;
+        }
+
+        private static boolean[] allowed(List<String> dictionary, List<String> filter) {
+            boolean[] allowed = new boolean[Math.max(1, dictionary.size())];
+            for (int code = 0; code < dictionary.size(); code++) {
+                allowed[code] = filter == null || filter.isEmpty() || filter.contains(dictionary.get(code));
+            }
+            return allowed;
+        }
+
+        private static String trimZeros(double value) {
+            return value == Math.rint(value) ? Long.toString((long) value) : Double.toString(value);
+        }
+    }
+
+    private static final class Accumulator {
+        private long count;
+        private double revenue;
+        private double distance;
+        private double weight;
+        private long delivered;
+        private long cancelled;
+        private long failed;
+        private long deliveryMinutes;
+        private long deliveryCount;
+
+        private void add(OrderColumnChunk chunk, int row, int deliveredCode, int cancelledCode, int failedCode) {
+            count++;
+            revenue += chunk.totalAmount[row];
+            distance += chunk.distanceKm[row];
+            weight += chunk.weightKg[row];
+            int status = chunk.status[row];
+            if (status == deliveredCode) {
+                delivered++;
+            } else if (status == cancelledCode) {
+                cancelled++;
+            } else if (status == failedCode) {
+                failed++;
+            }
+            if (chunk.deliveryMinutes[row] >= 0) {
+                deliveryMinutes += chunk.deliveryMinutes[row];
+                deliveryCount++;
+            }
+        }
+
+        private Accumulator add(Accumulator other) {
+            count += other.count;
+            revenue += other.revenue;
+            distance += other.distance;
+            weight += other.weight;
+            delivered += other.delivered;
+            cancelled += other.cancelled;
+            failed += other.failed;
+            deliveryMinutes += other.deliveryMinutes;
+            deliveryCount += other.deliveryCount;
+            return this;
+        }
+
+        private double value(ColumnarQueryRequest.Metric metric) {
+            return switch (metric) {
+                case COUNT -> count;
+                case REVENUE_SUM -> revenue;
+                case REVENUE_AVG -> ratio(revenue, count);
+                case DISTANCE_SUM -> distance;
+                case DISTANCE_AVG -> ratio(distance, count);
+                case WEIGHT_AVG -> ratio(weight, count);
+                case DELIVERY_MINUTES_AVG -> ratio(deliveryMinutes, deliveryCount);
+                case DELIVERED_RATE -> ratio(delivered * 100.0, count);
+                case CANCELLED_RATE -> ratio(cancelled * 100.0, count);
+                case FAILED_RATE -> ratio(failed * 100.0, count);
+            };
+        }
+
+        private static double ratio(double numerator, long denominator) {
+            return denominator > 0 ? numerator / denominator : 0.0;
+        }
+    }
+}
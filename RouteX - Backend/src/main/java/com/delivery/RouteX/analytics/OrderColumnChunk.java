@@ -0,0 +1,111 @@
+package com.delivery.RouteX.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Up to CAPACITY orders stored column by column
+ * Rows are in creation order. Creation times are delta-encoded (seconds since
+ * the previous row, first row relative to createdBase), enums are dictionary
+ * codes, numbers are primitive arrays. minCreated/maxCreated let scans skip
+ * chunks outside a time filter without touching the columns.
+ */
+final class OrderColumnChunk {
+
+    static final int CAPACITY = 65_536;
+
+    final int size;
+    final long createdBase;
+    final long minCreated;
+    final long maxCreated;
+
+    final int[] createdDeltas;
+    final byte[] status;
+    final byte[] packageType;
+    final double[] totalAmount;
+    final float[] distanceKm;
+    final float[] weightKg;
+
+    // Minutes from creation to delivery, -1 when not delivered
+    final int[] deliveryMinutes;
+
+    private OrderColumnChunk(Builder builder) {
+        this.size = builder.size;
+        this.createdBase = builder.createdBase;
+        this.minCreated = builder.createdBase;
+        this.maxCreated = builder.lastCreated;
+        this.createdDeltas = trim(builder.createdDeltas, size);
+        this.status = trim(builder.status, size);
+        this.packageType = trim(builder.packageType, size);
+        this.totalAmount = trim(builder.totalAmount, size);
+        this.distanceKm = trim(builder.distanceKm, size);
+        this.weightKg = trim(builder.weightKg, size);
+        this.deliveryMinutes = trim(builder.deliveryMinutes, size);
+    }
+
+    long estimatedBytes() {
+        // int + 2 bytes + double + 2 floats + int per row
+        return (long) size * (4 + 1 + 1 + 8 + 4 + 4 + 4);
+    }
+
+    static final class Builder {
+        private int size;
+        private long createdBase;
+        private long lastCreated;
+
+        private final int[] createdDeltas = new int[CAPACITY];
+        private final byte[] status = new byte[CAPACITY];
+        private final byte[] packageType = new byte[CAPACITY];
+        private final double[] totalAmount = new double[CAPACITY];
+        private final float[] distanceKm = new float[CAPACITY];
+        private final float[] weightKg = new float[CAPACITY];
+        private final int[] deliveryMinutes = new int[CAPACITY];
+
+        boolean isFull() {
+            return size == CAPACITY;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * @param created Creation time in epoch seconds; rows must arrive in ascending order
+         */
+        void add(long created, byte statusCode, byte packageTypeCode, double amount,
+                 float distance, float weight, int minutesToDeliver) {
+            if (size == 0) {
+                createdBase = created;
+                lastCreated = created;
+            }
+            createdDeltas[size] = (int) (created - lastCreated);
+            lastCreated = created;
+            status[size] = statusCode;
+            packageType[size] = packageTypeCode;
+            totalAmount[size] = amount;
+            distanceKm[size] = distance;
+            weightKg[size] = weight;
+            deliveryMinutes[size] = minutesToDeliver;
+            size++;
+        }
+
+        OrderColumnChunk build() {
+            return new OrderColumnChunk(this);
+        }
+    }
+
+    private static int[] trim(int[] values, int size) {
+        return values.length == size ? values : Arrays.copyOf(values, size);
+    }
+
+    private static byte[] trim(byte[] values, int size) {
+        return values.length == size ? values : Arrays.copyOf(values, size);
+    }
+
+    private static double[] trim(double[] values, int size) {
+        return values.length == size ? values : Arrays.copyOf(values, size);
+    }
+
+    private static float[] trim(float[] values, int size) {
+        return values.length == size ? values : Arrays.copyOf(values, size);
+    }
+}
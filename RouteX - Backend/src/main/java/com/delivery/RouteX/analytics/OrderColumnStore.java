@@ -0,0 +1,91 @@
+package com.delivery.RouteX.analytics;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable columnar snapshot of the orders table
+ * Enum columns share one dictionary per column across all chunks, so a code
+ * means the same value in every chunk.
+ */
+final class OrderColumnStore {
+
+    static final OrderColumnStore EMPTY = new OrderColumnStore(List.of(), List.of(), List.of(), null);
+
+    final List<OrderColumnChunk> chunks;
+    final List<String> statusDictionary;
+    final List<String> packageTypeDictionary;
+    final LocalDateTime snapshotAt;
+    final long rowCount;
+
+    private OrderColumnStore(List<OrderColumnChunk> chunks, List<String> statusDictionary,
+                             List<String> packageTypeDictionary, LocalDateTime snapshotAt) {
+        this.chunks = chunks;
+        this.statusDictionary = statusDictionary;
+        this.packageTypeDictionary = packageTypeDictionary;
+        this.snapshotAt = snapshotAt;
+        this.rowCount = chunks.stream().mapToLong(chunk -> chunk.size).sum();
+    }
+
+    long estimatedBytes() {
+        return chunks.stream().mapToLong(OrderColumnChunk::estimatedBytes).sum();
+    }
+
+    /**
+     * Dictionary code of a value, or -1 when the snapshot never saw it
+     */
+    static int codeOf(List<String> dictionary, String value) {
+        return dictionary.indexOf(value);
+    }
+
+    static final class Builder {
+        private final List<OrderColumnChunk> chunks = new ArrayList<>();
+        private final Dictionary statuses = new Dictionary();
+        private final Dictionary packageTypes = new Dictionary();
+        private OrderColumnChunk.Builder current = new OrderColumnChunk.Builder();
+
+        void add(long createdEpochSeconds, String status, String packageType, double totalAmount,
+                 double distanceKm, double weightKg, int deliveryMinutes) {
+            if (current.isFull()) {
+                chunks.add(current.build());
+                current = new OrderColumnChunk.Builder();
+            }
+            current.add(createdEpochSeconds, statuses.encode(status), packageTypes.encode(packageType),
+                    totalAmount, (float) distanceKm, (float) weightKg, deliveryMinutes);
+        }
+
+        OrderColumnStore build() {
+            if (!current.isEmpty()) {
+                chunks.add(current.build());
+            }
+            return new OrderColumnStore(Collections.unmodifiableList(chunks), statuses.values(),
+                    packageTypes.values(), LocalDateTime.now());
+        }
+    }
+
+    private static final class Dictionary {
+        private final Map<String, Byte> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        byte encode(String value) {
+            Byte code = codes.get(value);
+            if (code == null) {
+                if (values.size() > Byte.MAX_VALUE) {
+                    throw new IllegalStateException("Dictionary overflow for value " + value);
+                }
+                code = (byte) values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        List<String> values() {
+            return List.copyOf(values);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.delivery.RouteX.analytics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Builds OrderColumnStore snapshots and hands them to the ColumnarQueryEngine
+ * The orders table is streamed once in creation order (server-side cursor, so
+ * the rows are never all on the heap as entities) and the finished snapshot is
+ * swapped in atomically; queries keep using the previous one until then.
+ */
+@Component
+@Slf4j
+public class OrderSnapshotLoader {
+
+    private static final String SNAPSHOT_QUERY = "SELECT created_at, status, package_type, total_amount, " +
+            "distance_km, package_weight, actual_delivery_time FROM orders ORDER BY created_at";
+
+    private static final int FETCH_SIZE = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ColumnarQueryEngine queryEngine;
+    private final boolean enabled;
+
+    public OrderSnapshotLoader(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ColumnarQueryEngine queryEngine,
+            @Value("${app.analytics.columnar.enabled:true}") boolean enabled
+    ) {
+        // Own template: the shared one must keep the driver's default fetch size
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        // PostgreSQL only honours the fetch size inside a transaction
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.queryEngine = queryEngine;
+        this.enabled = enabled;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        refresh();
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.analytics.columnar.refresh-interval-ms:900000}",
+            fixedDelayString = "${app.analytics.columnar.refresh-interval-ms:900000}"
+    )
+    public synchronized void refresh() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            OrderColumnStore.Builder builder = new OrderColumnStore.Builder();
+            readOnlyTransaction.executeWithoutResult(status ->
+                    jdbcTemplate.query(SNAPSHOT_QUERY, (RowCallbackHandler) rs -> {
+                        LocalDateTime createdAt = rs.getTimestamp(1).toLocalDateTime();
+                        Timestamp deliveredAt = rs.getTimestamp(7);
+                        int deliveryMinutes = deliveredAt == null ? -1
+                                : (int) Math.max(0, Duration.between(createdAt, deliveredAt.toLocalDateTime()).toMinutes());
+                        builder.add(
+                                createdAt.toEpochSecond(ZoneOffset.UTC),
+                                rs.getString(2),
+                                rs.getString(3),
+                                rs.getDouble(4),
+                                rs.getDouble(5),
+                                rs.getDouble(6),
+                                deliveryMinutes
+                        );
+                    }));
+            OrderColumnStore store = builder.build();
+            queryEngine.swap(store);
+            log.info("Columnar order snapshot loaded: {} rows in {} chunks (~{} KB) in {} ms",
+                    store.rowCount, store.chunks.size(), store.estimatedBytes() / 1024,
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (DataAccessException e) {
+            log.warn("Columnar order snapshot refresh failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.delivery.RouteX.config;
+
+import com.delivery.RouteX.websocket.TopicSubscriptionRegistry;
+import com.delivery.RouteX.websocket.cluster.ClusterBrokerBridge;
+import com.delivery.RouteX.websocket.cluster.ClusterRelay;
+import com.delivery.RouteX.websocket.cluster.LocalClusterRelay;
+import com.delivery.RouteX.websocket.cluster.PostgresNotifyRelay;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.util.StringUtils;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+/**
+ * Cluster Broker Configuration
+ * Lets several RouteX nodes share STOMP topics while each keeps its own simple broker.
+ * app.websocket.cluster.mode:
+ * - none: single node (default)
+ * - local: in-JVM relay, for tests and local multi-context runs
+ * - postgres: LISTEN/NOTIFY on the application database
+ */
+@Configuration
+@ConditionalOnExpression("'${app.websocket.cluster.mode:none}' != 'none'")
+public class ClusterBrokerConfig {
+
+    @Value("${app.websocket.cluster.mode}")
+    private String mode;
+
+    @Value("${app.websocket.cluster.node-id:}")
+    private String nodeId;
+
+    @Value("${app.websocket.cluster.channel:routex_ws}")
+    private String channel;
+
+    @Value("${app.websocket.cluster.poll-timeout-ms:500}")
+    private int pollTimeoutMs;
+
+    @Value("${app.websocket.cluster.outbound-queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Value("${app.websocket.cluster.announce-interval-ms:5000}")
+    private long announceIntervalMs;
+
+    @Bean(destroyMethod = "close")
+    public ClusterRelay clusterRelay(ObjectProvider<DataSource> dataSource) {
+        return switch (mode) {
+            case "local" -> new LocalClusterRelay();
+            case "postgres" -> new PostgresNotifyRelay(dataSource.getObject(), channel, pollTimeoutMs);
+            default -> throw new IllegalStateException("Unknown app.websocket.cluster.mode: " + mode);
+        };
+    }
+
+    @Bean
+    public ClusterBrokerBridge clusterBrokerBridge(
+            ClusterRelay clusterRelay,
+            TopicSubscriptionRegistry subscriptionRegistry,
+            ObjectProvider<SimpMessagingTemplate> messagingTemplate,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry
+    ) {
+        String id = StringUtils.hasText(nodeId) ? nodeId : UUID.randomUUID().toString().substring(0, 8);
+        return new ClusterBrokerBridge(
+                id,
+                clusterRelay,
+                subscriptionRegistry,
+                messagingTemplate,
+                objectMapper,
+                meterRegistry,
+                outboundQueueCapacity,
+                announceIntervalMs
+        );
+    }
+}
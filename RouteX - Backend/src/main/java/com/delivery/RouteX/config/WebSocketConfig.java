@@ -1,10 +1,25 @@
 package com.delivery.RouteX.config;
 
+import com.delivery.RouteX.security.StompAuthChannelInterceptor;
+import com.delivery.RouteX.websocket.LocationFrameMessageConverter;
+import com.delivery.RouteX.websocket.SessionBackpressureMonitor;
+import com.delivery.RouteX.websocket.cluster.ClusterBrokerBridge;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * WebSocket Configuration
@@ -12,12 +27,45 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
  */
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final ObjectProvider<ClusterBrokerBridge> clusterBrokerBridge;
+    private final SessionBackpressureMonitor backpressureMonitor;
+    private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
+
+    @Value("${app.websocket.transport.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${app.websocket.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${app.websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${app.websocket.channel.inbound.core-pool-size:4}")
+    private int inboundCorePoolSize;
+
+    @Value("${app.websocket.channel.inbound.max-pool-size:16}")
+    private int inboundMaxPoolSize;
+
+    @Value("${app.websocket.channel.inbound.queue-capacity:1000}")
+    private int inboundQueueCapacity;
+
+    @Value("${app.websocket.channel.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+
+    @Value("${app.websocket.channel.outbound.max-pool-size:32}")
+    private int outboundMaxPoolSize;
+
+    @Value("${app.websocket.channel.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
     /**
      * Configure message broker
      * - /topic: Public broadcast (many subscribers)
      * - /queue: Private messages (one subscriber)
+     * With app.websocket.cluster.mode set, broker traffic is also bridged to other nodes
      */
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
@@ -29,6 +77,70 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
         // Optional: Prefix for user-specific destinations
         config.setUserDestinationPrefix("/user");
+
+        clusterBrokerBridge.ifAvailable(bridge -> config.configureBrokerChannel().interceptors(bridge));
+    }
+
+    /**
+     * Configure transport limits
+     * A session whose pending writes exceed the send time or buffer limit is closed,
+     * so one stalled client cannot hold broker threads or grow the heap.
+     */
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(backpressureMonitor::decorate);
+    }
+
+    /**
+     * Configure client channels
+     * Bounded executors for inbound frames and outbound writes;
+     * inbound CONNECT frames are authenticated with the JWT,
+     * the outbound channel enforces per-session queue limits.
+     * A full inbound queue runs the frame on the socket's own thread, which slows
+     * that client's reads instead of answering it with an ERROR frame.
+     * A full outbound queue is handled by SessionBackpressureMonitor.
+     */
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(channelExecutor("clientInboundChannel-", new ThreadPoolExecutor.CallerRunsPolicy()))
+                .corePoolSize(inboundCorePoolSize)
+                .maxPoolSize(inboundMaxPoolSize)
+                .queueCapacity(inboundQueueCapacity);
+        registration.interceptors(stompAuthChannelInterceptor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(channelExecutor("clientOutboundChannel-", backpressureMonitor))
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+        registration.interceptors(backpressureMonitor);
+    }
+
+    // Passed in rather than built by Spring only to set the rejection policy
+    private static ThreadPoolTaskExecutor channelExecutor(String threadNamePrefix,
+                                                          RejectedExecutionHandler rejectionHandler) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setRejectedExecutionHandler(rejectionHandler);
+        return executor;
+    }
+
+    /**
+     * Register message converters
+     * Adds the opt-in binary location frame format; JSON defaults are kept.
+     * Drivers send binary pings with content-type LocationFrameCodec.MIME_TYPE;
+     * subscribers get binary by subscribing to "<topic>/bin".
+     * Binary frames need a native WebSocket (/ws/websocket), SockJS stays on JSON.
+     */
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        messageConverters.add(new LocationFrameMessageConverter());
+        return true;
     }
 
     /**
@@ -0,0 +1,67 @@
+package com.delivery.RouteX.dto.analytics;
+
+import com.delivery.RouteX.model.Order;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Ad-hoc query against the in-memory order snapshot
+ * Filters are optional and combined with AND; createdFrom/createdTo bound the
+ * order creation time as [from, to).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColumnarQueryRequest {
+
+    private LocalDateTime createdFrom;
+    private LocalDateTime createdTo;
+    private List<Order.OrderStatus> statuses;
+    private List<Order.PackageType> packageTypes;
+    private Double minDistanceKm;
+    private Double maxDistanceKm;
+
+    @Size(max = 3)
+    private List<Dimension> groupBy;
+
+    @NotEmpty
+    private List<Metric> metrics;
+
+    // Width of DISTANCE_BAND groups
+    @DecimalMin("0.1")
+    private Double distanceBandKm = 5.0;
+
+    @Min(1) @Max(10000)
+    private Integer limit = 1000;
+
+    public enum Dimension {
+        STATUS,
+        PACKAGE_TYPE,
+        HOUR_OF_DAY,
+        DAY,
+        DAY_OF_WEEK,
+        DISTANCE_BAND
+    }
+
+    public enum Metric {
+        COUNT,
+        REVENUE_SUM,
+        REVENUE_AVG,
+        DISTANCE_SUM,
+        DISTANCE_AVG,
+        WEIGHT_AVG,
+        DELIVERY_MINUTES_AVG,
+        DELIVERED_RATE,
+        CANCELLED_RATE,
+        FAILED_RATE
+    }
+}
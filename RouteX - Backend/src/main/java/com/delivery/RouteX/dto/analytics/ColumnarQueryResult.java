@@ -0,0 +1,33 @@
+package com.delivery.RouteX.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a ColumnarQueryRequest
+ * snapshotAt tells how fresh the data is; rates are percentages.
+ */
+@Data
+@Builder
+public class ColumnarQueryResult {
+    private LocalDateTime snapshotAt;
+    private long rowsMatched;
+    private int chunksScanned;
+    private int chunksSkipped;
+    private long elapsedMicros;
+    private List<Group> groups;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Group {
+        private Map<String, String> key;
+        private Map<String, Double> values;
+    }
+}
@@ -12,5 +12,8 @@ public class DashboardMetrics {
     private Double revenueToday;
     private Long availableDrivers;
     private Double averageDeliveryTime;
+    private Double deliveryTimeP50;
+    private Double deliveryTimeP90;
+    private Double deliveryTimeP99;
     private Double successRate;
 }
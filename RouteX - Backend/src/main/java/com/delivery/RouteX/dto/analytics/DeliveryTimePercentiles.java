@@ -0,0 +1,26 @@
+package com.delivery.RouteX.dto.analytics;
+
+import com.delivery.RouteX.model.DeliveryTimeSketch;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Delivery duration distribution over a range, in minutes
+ * zone is null when all zones are merged.
+ */
+@Data
+@Builder
+public class DeliveryTimePercentiles {
+    private DeliveryTimeSketch.Metric metric;
+    private String zone;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private Long count;
+    private Double mean;
+    private Double p50;
+    private Double p90;
+    private Double p99;
+    private Double max;
+}
@@ -0,0 +1,42 @@
+package com.delivery.RouteX.dto.analytics;
+
+import com.delivery.RouteX.model.ActivitySketch;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Approximate distinct ids over a range of days (both ends inclusive)
+ * estimate covers the whole range; periods split it by day, week or month.
+ * Estimates are within relativeStandardError of the true count about 68% of
+ * the time and within three times that about 99.7% of the time.
+ */
+@Data
+@Builder
+public class DistinctCountReport {
+    private ActivitySketch.Kind kind;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Long estimate;
+    private Double relativeStandardError;
+    private List<Period> periods;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Period {
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private Long estimate;
+    }
+
+    public enum Interval {
+        DAY,
+        WEEK,
+        MONTH
+    }
+}
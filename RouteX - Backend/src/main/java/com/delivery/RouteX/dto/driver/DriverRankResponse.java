@@ -0,0 +1,19 @@
+package com.delivery.RouteX.dto.driver;
+
+import com.delivery.RouteX.model.Driver;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Leaderboard position of a driver among drivers in the same availability status
+ */
+@Data
+@Builder
+public class DriverRankResponse {
+    private Long driverId;
+    private Driver.AvailabilityStatus availabilityStatus;
+    private Integer rank;
+    private Integer rankedDrivers;
+    private Double rating;
+    private Integer totalDeliveries;
+}
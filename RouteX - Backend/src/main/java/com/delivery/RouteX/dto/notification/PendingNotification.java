@@ -0,0 +1,40 @@
+package com.delivery.RouteX.dto.notification;
+
+import com.delivery.RouteX.model.Notification;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notification row waiting for the background writer
+ * id is null until the row has been inserted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PendingNotification {
+    private Long id;
+    private Long userId;
+    private Notification.NotificationType type;
+    private String title;
+    private String message;
+    private String relatedEntityId;
+    private String actionUrl;
+    private LocalDateTime createdAt;
+
+    public static PendingNotification from(Notification notification) {
+        return PendingNotification.builder()
+                .userId(notification.getUser().getId())
+                .type(notification.getType())
+                .title(notification.getTitle())
+                .message(notification.getMessage())
+                .relatedEntityId(notification.getRelatedEntityId())
+                .actionUrl(notification.getActionUrl())
+                .createdAt(notification.getCreatedAt() != null ? notification.getCreatedAt() : LocalDateTime.now())
+                .build();
+    }
+}
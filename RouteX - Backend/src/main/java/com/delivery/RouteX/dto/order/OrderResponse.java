@@ -63,4 +63,6 @@ public class OrderResponse {
     private String customerFeedback;
 
     private List<TrackingResponse> trackingHistory;
+
+    private Long version;
 }
\ No newline at end of file
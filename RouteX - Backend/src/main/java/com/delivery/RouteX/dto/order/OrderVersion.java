@@ -0,0 +1,31 @@
+package com.delivery.RouteX.dto.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Lightweight projection used for conditional GETs.
+ * Carries just enough to build an ETag and check access without loading the order graph.
+ */
+@Data
+@AllArgsConstructor
+public class OrderVersion {
+    private Long orderId;
+    private Long version;
+    private Long customerUserId;
+    private Long driverUserId;
+    private LocalDateTime customerUpdatedAt;
+    private LocalDateTime driverUserUpdatedAt;
+    private Double driverRating;
+
+    /**
+     * Change marker for the customer and driver details embedded in an order response
+     * Names and phones live on User and the rating on Driver, none of which bump the order version.
+     */
+    public int getPartiesStamp() {
+        return Objects.hash(customerUpdatedAt, driverUserId, driverUserUpdatedAt, driverRating);
+    }
+}
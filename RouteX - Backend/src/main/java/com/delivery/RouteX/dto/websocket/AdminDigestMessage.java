@@ -0,0 +1,25 @@
+package com.delivery.RouteX.dto.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Admin alerts collected over one digest interval
+ * messages holds at most the configured number of alerts, oldest first;
+ * total counts every alert in the interval, including the ones left out.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AdminDigestMessage {
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private int total;
+    private List<String> messages;
+}
@@ -0,0 +1,26 @@
+package com.delivery.RouteX.dto.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Dashboard metrics pushed to /topic/analytics/dashboard and the SSE stream
+ * A snapshot carries every DashboardMetrics field; a delta carries only the
+ * fields that changed since sequence - 1. Clients apply deltas with a sequence
+ * greater than the one of their snapshot and refetch the snapshot on a gap.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DashboardMetricsMessage {
+    private long sequence;
+    private boolean snapshot;
+    private LocalDateTime computedAt;
+    private Map<String, Object> metrics;
+}
@@ -0,0 +1,28 @@
+package com.delivery.RouteX.dto.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Fleet positions that changed in (fromSequence, toSequence]
+ * Only the latest position per driver is included, so a client at sequence N can
+ * apply any batch with fromSequence <= N. If fromSequence > N the client missed
+ * positions and must resume from N (GET /api/dispatcher/fleet/deltas).
+ * snapshotRequired means the requested sequence is no longer buffered
+ * (or belongs to another epoch) and the client must load a fresh snapshot.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FleetDeltaMessage {
+    private String epoch;
+    private Long fromSequence;
+    private Long toSequence;
+    private boolean snapshotRequired;
+    private List<LocationUpdateMessage> updates;
+}
@@ -0,0 +1,22 @@
+package com.delivery.RouteX.dto.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Full fleet state at a sequence number
+ * Clients apply FleetDeltaMessage batches with fromSequence == sequence on top of it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FleetSnapshotResponse {
+    private String epoch;
+    private Long sequence;
+    private List<LocationUpdateMessage> drivers;
+}
@@ -13,4 +13,6 @@ public class LocationUpdateMessage {
     private Double latitude;
     private Double longitude;
     private LocalDateTime timestamp;
+    // Fleet state sequence of this position (see FleetStateService)
+    private Long sequence;
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.delivery.RouteX.dto.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Fleet map delta for one viewport
+ * updates: drivers inside the viewport that moved (or just came into view)
+ * removed: drivers that left the viewport since the last delta
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ViewportDeltaMessage {
+    private List<LocationUpdateMessage> updates;
+    private List<Long> removed;
+}
@@ -0,0 +1,33 @@
+package com.delivery.RouteX.dto.websocket;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Map viewport sent by a dispatcher client (bounding box in degrees)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ViewportRequest {
+
+    @NotNull
+    @DecimalMin("-90.0") @DecimalMax("90.0")
+    private Double minLatitude;
+
+    @NotNull
+    @DecimalMin("-180.0") @DecimalMax("180.0")
+    private Double minLongitude;
+
+    @NotNull
+    @DecimalMin("-90.0") @DecimalMax("90.0")
+    private Double maxLatitude;
+
+    @NotNull
+    @DecimalMin("-180.0") @DecimalMax("180.0")
+    private Double maxLongitude;
+}
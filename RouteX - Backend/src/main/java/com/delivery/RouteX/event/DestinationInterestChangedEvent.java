@@ -0,0 +1,16 @@
+package com.delivery.RouteX.event;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Published by TopicSubscriptionRegistry when a destination gains its first
+ * local subscriber or loses its last one.
+ */
+@Getter
+@Builder
+public class DestinationInterestChangedEvent {
+
+    private final String destination;
+    private final boolean subscribed;
+}
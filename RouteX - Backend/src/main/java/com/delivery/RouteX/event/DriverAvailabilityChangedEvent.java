@@ -0,0 +1,31 @@
+package com.delivery.RouteX.event;
+
+import com.delivery.RouteX.model.Driver;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Published whenever a driver is created or changes availability.
+ * previousStatus is null for a newly registered driver; rating and
+ * totalDeliveries are the driver's current values.
+ */
+@Getter
+@Builder
+public class DriverAvailabilityChangedEvent {
+
+    private final Long driverId;
+    private final Driver.AvailabilityStatus previousStatus;
+    private final Driver.AvailabilityStatus status;
+    private final Double rating;
+    private final Integer totalDeliveries;
+
+    public static DriverAvailabilityChangedEvent of(Driver driver, Driver.AvailabilityStatus previousStatus) {
+        return DriverAvailabilityChangedEvent.builder()
+                .driverId(driver.getId())
+                .previousStatus(previousStatus)
+                .status(driver.getAvailabilityStatus())
+                .rating(driver.getRating())
+                .totalDeliveries(driver.getTotalDeliveries())
+                .build();
+    }
+}
@@ -0,0 +1,28 @@
+package com.delivery.RouteX.event;
+
+import com.delivery.RouteX.model.Driver;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Published whenever a driver's rating or delivery count changes.
+ * Carries the values after the change.
+ */
+@Getter
+@Builder
+public class DriverStatsChangedEvent {
+
+    private final Long driverId;
+    private final Driver.AvailabilityStatus availabilityStatus;
+    private final Double rating;
+    private final Integer totalDeliveries;
+
+    public static DriverStatsChangedEvent of(Driver driver) {
+        return DriverStatsChangedEvent.builder()
+                .driverId(driver.getId())
+                .availabilityStatus(driver.getAvailabilityStatus())
+                .rating(driver.getRating())
+                .totalDeliveries(driver.getTotalDeliveries())
+                .build();
+    }
+}
@@ -0,0 +1,19 @@
+package com.delivery.RouteX.event;
+
+import com.delivery.RouteX.dto.notification.PendingNotification;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Published by NotificationWriter once a batch of notifications has been inserted.
+ * In SYNC mode this happens inside the caller's transaction, so listeners should use
+ * @TransactionalEventListener(fallbackExecution = true) to cover both modes.
+ */
+@Getter
+@RequiredArgsConstructor
+public class NotificationsPersistedEvent {
+
+    private final List<PendingNotification> notifications;
+}
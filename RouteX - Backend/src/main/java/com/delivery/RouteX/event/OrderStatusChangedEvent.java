@@ -0,0 +1,50 @@
+package com.delivery.RouteX.event;
+
+import com.delivery.RouteX.model.Order;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by OrderService whenever an order is created or changes status.
+ * Carries an immutable snapshot so listeners never need to reload the order.
+ */
+@Getter
+@Builder
+public class OrderStatusChangedEvent {
+
+    private final Long orderId;
+    private final String orderNumber;
+    private final Long customerId;
+    private final Long driverId;
+    private final Order.OrderStatus previousStatus;
+    private final Order.OrderStatus status;
+    private final LocalDateTime occurredAt;
+    private final LocalDateTime createdAt;
+    private final Double totalAmount;
+    private final Double distanceKm;
+    private final LocalDateTime pickedUpAt;
+    private final LocalDateTime deliveredAt;
+    private final Double pickupLatitude;
+    private final Double pickupLongitude;
+
+    public static OrderStatusChangedEvent of(Order order, Order.OrderStatus previousStatus) {
+        return OrderStatusChangedEvent.builder()
+                .orderId(order.getId())
+                .orderNumber(order.getOrderNumber())
+                .customerId(order.getCustomer().getId())
+                .driverId(order.getDriver() != null ? order.getDriver().getId() : null)
+                .previousStatus(previousStatus)
+                .status(order.getStatus())
+                .occurredAt(LocalDateTime.now())
+                .createdAt(order.getCreatedAt())
+                .totalAmount(order.getTotalAmount())
+                .distanceKm(order.getDistanceKm())
+                .pickedUpAt(order.getActualPickupTime())
+                .deliveredAt(order.getActualDeliveryTime())
+                .pickupLatitude(order.getPickupLatitude())
+                .pickupLongitude(order.getPickupLongitude())
+                .build();
+    }
+}
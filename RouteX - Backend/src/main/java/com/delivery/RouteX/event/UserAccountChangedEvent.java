@@ -0,0 +1,24 @@
+package com.delivery.RouteX.event;
+
+import com.delivery.RouteX.model.User;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Published whenever a user's credentials, active flag or profile change.
+ * Listeners holding a copy of the user (e.g. the principal cache) drop it.
+ */
+@Getter
+@Builder
+public class UserAccountChangedEvent {
+
+    private final Long userId;
+    private final String email;
+
+    public static UserAccountChangedEvent of(User user) {
+        return UserAccountChangedEvent.builder()
+                .userId(user.getId())
+                .email(user.getEmail())
+                .build();
+    }
+}
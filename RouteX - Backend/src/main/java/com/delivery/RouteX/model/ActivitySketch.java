@@ -0,0 +1,30 @@
+package com.delivery.RouteX.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Distinct ids active on one day, as a deflated HyperLogLog (see util.HyperLogLog);
+ * sketches merge over any range of days without double counting
+ */
+@Entity
+@Table(name = "activity_sketches")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ActivitySketch {
+
+    @EmbeddedId
+    private ActivitySketchId id;
+
+    @Column(nullable = false)
+    private byte[] registers;
+
+    public enum Kind {
+        // Customers who placed an order, by creation day
+        ACTIVE_CUSTOMERS,
+        // Drivers who completed a delivery, by delivery day
+        DELIVERING_DRIVERS
+    }
+}
@@ -0,0 +1,32 @@
+package com.delivery.RouteX.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Delivery durations of one hour bucket and pickup zone, as a compressed
+ * HdrHistogram of seconds; sketches merge losslessly over any range of buckets
+ * and zones
+ */
+@Entity
+@Table(name = "delivery_time_sketches")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DeliveryTimeSketch {
+
+    @EmbeddedId
+    private DeliveryTimeSketchId id;
+
+    @Column(nullable = false)
+    private Long sampleCount;
+
+    @Column(nullable = false)
+    private byte[] histogram;
+
+    public enum Metric {
+        CREATED_TO_DELIVERED,
+        PICKED_UP_TO_DELIVERED
+    }
+}
@@ -0,0 +1,24 @@
+package com.delivery.RouteX.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryTimeSketchId implements Serializable {
+
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private DeliveryTimeSketch.Metric metric;
+
+    @Column(nullable = false, length = 32)
+    private String zone;
+}
@@ -0,0 +1,46 @@
+package com.delivery.RouteX.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Email that could not be delivered after all retries (or was rejected because
+ * the send queue was full); kept for inspection and manual resend
+ */
+@Entity
+@Table(name = "email_dead_letters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    private String template;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime queuedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime failedAt;
+}
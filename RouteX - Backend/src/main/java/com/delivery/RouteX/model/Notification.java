@@ -5,7 +5,8 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", uniqueConstraints = @UniqueConstraint(
+        name = "uk_notifications_wal_key", columnNames = {"wal_key", "created_at"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -42,6 +43,10 @@ public class Notification {
 
     private LocalDateTime readAt;
 
+    // Set by NotificationWriter in ASYNC_WAL mode so a replayed row is not inserted twice
+    @Column(name = "wal_key", length = 64)
+    private String walKey;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
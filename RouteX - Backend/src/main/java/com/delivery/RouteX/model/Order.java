@@ -2,6 +2,7 @@ package com.delivery.RouteX.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -9,7 +10,7 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_created_at", columnList = "created_at"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -133,6 +134,11 @@ public class Order {
     private String cancellationReason;
     private LocalDateTime cancelledAt;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         if (orderNumber == null) {
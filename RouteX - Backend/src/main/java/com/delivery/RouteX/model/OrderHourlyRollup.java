@@ -0,0 +1,36 @@
+package com.delivery.RouteX.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Hourly order aggregate, maintained by OrderRollupService
+ * CURRENT rows bucket orders by creation hour under their current status (an
+ * order moves between status rows as it progresses); ENTERED rows count status
+ * changes in the hour they happened (e.g. deliveries and delivered revenue).
+ */
+@Entity
+@Table(name = "order_hourly_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderHourlyRollup {
+
+    @EmbeddedId
+    private OrderHourlyRollupId id;
+
+    @Column(nullable = false)
+    private Long orderCount;
+
+    @Column(nullable = false)
+    private Double revenueSum;
+
+    @Column(nullable = false)
+    private Double distanceSum;
+
+    public enum Basis {
+        CURRENT,
+        ENTERED
+    }
+}
@@ -7,22 +7,89 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
 import java.util.*;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies HS256 access and refresh tokens
+ * Signing keys and the (immutable, thread-safe) parser are built once.
+ * Tokens carry the signing key id in the "kid" header; keys listed in
+ * jwt.previous-keys ("kid:secret,kid:secret") are still accepted for
+ * verification, so the secret can be rotated without logging everyone out.
+ * Tokens without a kid (issued before key ids existed) verify with the
+ * current key.
+ */
 @Component
 public class JwtUtil {
-    @Value("${jwt.secret}")
-    private String secret;
-    @Value("${jwt.expiration}")
-    private Long expiration;
-    @Value("${jwt.refresh-expiration}")
-    private Long refreshExpiration;
-
-    private SecretKey getSigningKey() {
+
+    private final String keyId;
+    private final SecretKey signingKey;
+    private final Map<String, SecretKey> verificationKeys;
+    private final JwtParser parser;
+    private final Long expiration;
+    private final Long refreshExpiration;
+
+    public JwtUtil(
+            @Value("${jwt.secret}") String secret,
+            @Value("${jwt.key-id:primary}") String keyId,
+            @Value("${jwt.previous-keys:}") String previousKeys,
+            @Value("${jwt.expiration}") Long expiration,
+            @Value("${jwt.refresh-expiration}") Long refreshExpiration
+    ) {
+        this.keyId = keyId;
+        this.signingKey = hmacKey(secret);
+        this.expiration = expiration;
+        this.refreshExpiration = refreshExpiration;
+
+        Map<String, SecretKey> keys = new HashMap<>();
+        for (String entry : previousKeys.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf(':');
+            if (separator <= 0 || separator == entry.length() - 1) {
+                throw new IllegalArgumentException("jwt.previous-keys entries must be kid:secret");
+            }
+            keys.put(entry.substring(0, separator).trim(), hmacKey(entry.substring(separator + 1).trim()));
+        }
+        keys.put(keyId, signingKey);
+        this.verificationKeys = Map.copyOf(keys);
+
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        String kid = header.getKeyId();
+                        if (kid == null) {
+                            return signingKey;
+                        }
+                        SecretKey key = verificationKeys.get(kid);
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Unknown signing key id: " + kid);
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+
+    private static SecretKey hmacKey(String secret) {
         return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
     }
 
+    /**
+     * Verify signature and expiry with a single parse
+     * @return The token's claims, or empty when the token is invalid or expired
+     */
+    public Optional<Claims> parseAndValidate(String token) {
+        try {
+            return Optional.of(parser.parseClaimsJws(token).getBody());
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -37,15 +104,7 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -63,33 +122,23 @@ public class JwtUtil {
         Date expiryDate = new Date(now.getTime() + expirationTime);
 
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, keyId)
                 .setClaims(claims)
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        try {
-            final String username = extractUsername(token);
-            return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
+        return parseAndValidate(token)
+                .map(claims -> userDetails.getUsername().equals(claims.getSubject()))
+                .orElse(false);
     }
 
     public Boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return !isTokenExpired(token);
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
+        return parseAndValidate(token).isPresent();
     }
 
     public Long getExpirationTime() {
@@ -0,0 +1,87 @@
+package com.delivery.RouteX.security;
+
+import com.delivery.RouteX.event.UserAccountChangedEvent;
+import com.delivery.RouteX.util.LruCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Authenticated principals by JWT subject (email)
+ * Saves the users lookup (plus the eager driver/customer rows) on every
+ * authenticated request. Entries live for at most ttl-ms and are dropped as
+ * soon as a password, active flag or profile change commits, so a changed
+ * account is seen on the next request; a request racing the commit can
+ * re-cache the old state for at most one TTL.
+ */
+@Component
+public class PrincipalCache {
+
+    private final UserDetailsService userDetailsService;
+    private final LruCache<String, Entry> principals;
+    private final long ttlMs;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public PrincipalCache(
+            UserDetailsService userDetailsService,
+            MeterRegistry meterRegistry,
+            @Value("${app.security.principal-cache.max-entries:10000}") int maxEntries,
+            @Value("${app.security.principal-cache.ttl-ms:60000}") long ttlMs
+    ) {
+        this.userDetailsService = userDetailsService;
+        this.principals = new LruCache<>(maxEntries);
+        this.ttlMs = ttlMs;
+
+        this.hits = Counter.builder("routex.security.principal.cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("routex.security.principal.cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("routex.security.principal.cache.size", principals, LruCache::size)
+                .description("Cached authenticated principals")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cached principal for a subject, loaded through the UserDetailsService when absent or expired
+     * @throws org.springframework.security.core.userdetails.UsernameNotFoundException When no such user exists
+     */
+    public UserDetails get(String username) {
+        long now = System.currentTimeMillis();
+        Entry cached = principals.get(username);
+        if (cached != null && cached.expiresAt() > now) {
+            hits.increment();
+            return cached.principal();
+        }
+
+        misses.increment();
+        UserDetails loaded = userDetailsService.loadUserByUsername(username);
+        principals.put(username, new Entry(loaded, now + ttlMs));
+        return loaded;
+    }
+
+    public void evict(String username) {
+        principals.remove(username);
+    }
+
+    public void evictAll() {
+        principals.clear();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserAccountChanged(UserAccountChangedEvent event) {
+        evict(event.getEmail());
+    }
+
+    private record Entry(UserDetails principal, long expiresAt) {
+    }
+}
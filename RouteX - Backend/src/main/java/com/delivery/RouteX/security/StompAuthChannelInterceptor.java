@@ -0,0 +1,87 @@
+package com.delivery.RouteX.security;
+
+import com.delivery.RouteX.model.User;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Authenticates STOMP CONNECT frames with the same JWT as the REST API
+ * Browsers cannot set headers on the WebSocket handshake, so clients send
+ * "Authorization: Bearer <token>" as a STOMP CONNECT header instead.
+ * Connections without a token stay anonymous (public tracking pages).
+ * Subscriptions to analytics and admin destinations (fleet positions,
+ * alert digests) require an admin or dispatcher.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final String AUTHORIZATION_HEADER = "Authorization";
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String[] STAFF_DESTINATIONS = {"/topic/analytics/", "/app/analytics/", "/topic/admin/"};
+
+    private final JwtUtil jwtUtil;
+    private final PrincipalCache principalCache;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor != null && StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            checkSubscription(accessor.getDestination(), accessor.getUser());
+            return message;
+        }
+        if (accessor == null || !StompCommand.CONNECT.equals(accessor.getCommand())) {
+            return message;
+        }
+
+        String authHeader = accessor.getFirstNativeHeader(AUTHORIZATION_HEADER);
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            return message;
+        }
+
+        try {
+            String jwt = authHeader.substring(BEARER_PREFIX.length());
+            String userEmail = jwtUtil.parseAndValidate(jwt).map(Claims::getSubject).orElse(null);
+            if (userEmail != null) {
+                UserDetails userDetails = principalCache.get(userEmail);
+                if (userDetails.isEnabled() && userDetails instanceof User user) {
+                    accessor.setUser(new StompAuthenticationToken(user));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Rejected STOMP credentials: {}", e.getMessage());
+        }
+        return message;
+    }
+
+    private static void checkSubscription(String destination, Principal principal) {
+        if (destination == null) {
+            return;
+        }
+        for (String prefix : STAFF_DESTINATIONS) {
+            // "/topic/admin/" also guards the bare "/topic/admin" alert topic
+            if (destination.startsWith(prefix) || destination.equals(prefix.substring(0, prefix.length() - 1))) {
+                boolean staff = principal instanceof StompAuthenticationToken token
+                        && token.getPrincipal() instanceof User user
+                        && (user.getRole() == User.Role.ADMIN || user.getRole() == User.Role.DISPATCHER);
+                if (!staff) {
+                    throw new AccessDeniedException("Not allowed to subscribe to " + destination);
+                }
+                return;
+            }
+        }
+    }
+}
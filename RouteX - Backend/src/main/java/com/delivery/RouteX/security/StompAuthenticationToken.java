@@ -0,0 +1,26 @@
+package com.delivery.RouteX.security;
+
+import com.delivery.RouteX.model.User;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+/**
+ * Authentication attached to authenticated STOMP sessions
+ * The principal is still the User (so @AuthenticationPrincipal works in
+ * message handlers), but the name is the user id. User destinations can then
+ * be addressed by id (convertAndSendToUser("42", ...)) on any node without
+ * looking up the email.
+ */
+public class StompAuthenticationToken extends UsernamePasswordAuthenticationToken {
+
+    private final String name;
+
+    public StompAuthenticationToken(User user) {
+        super(user, null, user.getAuthorities());
+        this.name = String.valueOf(user.getId());
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
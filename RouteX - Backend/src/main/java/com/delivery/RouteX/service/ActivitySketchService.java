@@ -0,0 +1,286 @@
+package com.delivery.RouteX.service;
+
+import com.delivery.RouteX.Repository.ActivitySketchRepository;
+import com.delivery.RouteX.dto.analytics.DistinctCountReport;
+import com.delivery.RouteX.event.OrderStatusChangedEvent;
+import com.delivery.RouteX.exception.BadRequestException;
+import com.delivery.RouteX.model.ActivitySketch;
+import com.delivery.RouteX.model.Order;
+import com.delivery.RouteX.util.HyperLogLog;
+import com.delivery.RouteX.util.LruCache;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Daily HyperLogLog sketches of active customers and delivering drivers
+ * Ids are added to in-memory sketches keyed by kind and day on order creation
+ * and delivery, and merged into activity_sketches every flush-interval-ms.
+ * Distinct counts for any range are the merge of the daily sketches, so a
+ * month costs ~30 register merges instead of a DISTINCT over orders.
+ *
+ * Days before yesterday no longer receive events, so their persisted sketches
+ * are cached in memory; a warm range query does not touch the database.
+ * Adding an id twice is harmless, so the backfill can overlap live events.
+ */
+@Service
+@Slf4j
+public class ActivitySketchService {
+
+    private static final int BACKFILL_FLUSH_ROWS = 10_000;
+    private static final int BACKFILL_MAX_PENDING = 256;
+    private static final long MAX_RANGE_DAYS = 3_660;
+
+    private static final String INSERT_IF_ABSENT = "INSERT INTO activity_sketches (day, kind, registers) " +
+            "VALUES (?, ?, ?) ON CONFLICT (day, kind) DO NOTHING";
+    private static final String SELECT_FOR_UPDATE = "SELECT registers FROM activity_sketches " +
+            "WHERE day = ? AND kind = ? FOR UPDATE";
+    private static final String UPDATE = "UPDATE activity_sketches SET registers = ? WHERE day = ? AND kind = ?";
+
+    private final ActivitySketchRepository sketchRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Persisted sketches of closed days; never mutated once cached
+    private final LruCache<Key, HyperLogLog> closedDays;
+
+    // Recorded but not yet merged into the table; guarded by this
+    private Map<Key, HyperLogLog> pending = new HashMap<>();
+
+    public ActivitySketchService(
+            ActivitySketchRepository sketchRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.analytics.activity.cache-days:800}") int cacheDays
+    ) {
+        this.sketchRepository = sketchRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.closedDays = new LruCache<>(cacheDays);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getPreviousStatus() == null && event.getCustomerId() != null && event.getCreatedAt() != null) {
+            record(ActivitySketch.Kind.ACTIVE_CUSTOMERS, event.getCreatedAt().toLocalDate(), event.getCustomerId());
+        }
+        if (event.getStatus() == Order.OrderStatus.DELIVERED && event.getDriverId() != null) {
+            LocalDate day = (event.getDeliveredAt() != null ? event.getDeliveredAt() : event.getOccurredAt()).toLocalDate();
+            record(ActivitySketch.Kind.DELIVERING_DRIVERS, day, event.getDriverId());
+        }
+    }
+
+    public synchronized void record(ActivitySketch.Kind kind, LocalDate day, long id) {
+        pending.computeIfAbsent(new Key(kind, day), k -> new HyperLogLog()).add(id);
+    }
+
+    /**
+     * Merge pending sketches into activity_sketches, one short transaction per row
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.activity.flush-interval-ms:60000}")
+    public void flush() {
+        Map<Key, HyperLogLog> drained;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            drained = pending;
+            pending = new HashMap<>();
+        }
+
+        for (Map.Entry<Key, HyperLogLog> entry : drained.entrySet()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> mergeIntoTable(entry.getKey(), entry.getValue()));
+                closedDays.remove(entry.getKey());
+            } catch (DataAccessException e) {
+                log.warn("Failed to persist activity sketch {}: {}", entry.getKey(), e.getMessage());
+                requeue(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Distinct ids over [from, to] (whole days), in total and per interval
+     */
+    public DistinctCountReport getDistinctCounts(ActivitySketch.Kind kind, LocalDate from, LocalDate to,
+                                                 DistinctCountReport.Interval interval) {
+        if (to.isBefore(from)) {
+            throw new BadRequestException("startDate must not be after endDate");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new BadRequestException("Range is limited to " + MAX_RANGE_DAYS + " days");
+        }
+
+        Map<LocalDate, HyperLogLog> days = loadDays(kind, from, to);
+
+        HyperLogLog total = new HyperLogLog();
+        List<DistinctCountReport.Period> periods = new ArrayList<>();
+        LocalDate periodStart = from;
+        while (!periodStart.isAfter(to)) {
+            LocalDate periodEnd = periodEnd(periodStart, interval, to);
+            HyperLogLog period = new HyperLogLog();
+            for (LocalDate day = periodStart; !day.isAfter(periodEnd); day = day.plusDays(1)) {
+                HyperLogLog sketch = days.get(day);
+                if (sketch != null) {
+                    period.merge(sketch);
+                }
+            }
+            total.merge(period);
+            periods.add(new DistinctCountReport.Period(periodStart, periodEnd, period.estimate()));
+            periodStart = periodEnd.plusDays(1);
+        }
+
+        return DistinctCountReport.builder()
+                .kind(kind)
+                .startDate(from)
+                .endDate(to)
+                .estimate(total.estimate())
+                .relativeStandardError(HyperLogLog.RELATIVE_STANDARD_ERROR)
+                .periods(periods)
+                .build();
+    }
+
+    /**
+     * Build sketches from orders when the table is empty
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            if (sketchRepository.count() > 0) {
+                return;
+            }
+            long customers = backfill(ActivitySketch.Kind.ACTIVE_CUSTOMERS,
+                    "SELECT created_at, customer_id FROM orders WHERE customer_id IS NOT NULL");
+            long drivers = backfill(ActivitySketch.Kind.DELIVERING_DRIVERS,
+                    "SELECT actual_delivery_time, driver_id FROM orders WHERE status = 'DELIVERED' " +
+                            "AND driver_id IS NOT NULL AND actual_delivery_time IS NOT NULL");
+            closedDays.clear();
+            if (customers + drivers > 0) {
+                log.info("Backfilled activity sketches from {} orders and {} deliveries", customers, drivers);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Activity sketch backfill failed: {}", e.getMessage());
+        }
+    }
+
+    private long backfill(ActivitySketch.Kind kind, String sql) {
+        long[] rows = {0};
+        jdbcTemplate.query(sql, (RowCallbackHandler) resultSet -> {
+            record(kind, resultSet.getTimestamp(1).toLocalDateTime().toLocalDate(), resultSet.getLong(2));
+            if (++rows[0] % BACKFILL_FLUSH_ROWS == 0 || pendingSize() > BACKFILL_MAX_PENDING) {
+                flush();
+            }
+        });
+        flush();
+        return rows[0];
+    }
+
+    /**
+     * Sketch per day of the range: cached closed days, the table for the rest, plus pending ids
+     */
+    private Map<LocalDate, HyperLogLog> loadDays(ActivitySketch.Kind kind, LocalDate from, LocalDate to) {
+        LocalDate lastClosed = LocalDate.now().minusDays(2);
+        Map<LocalDate, HyperLogLog> days = new HashMap<>();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            HyperLogLog cached = day.isAfter(lastClosed) ? null : closedDays.get(new Key(kind, day));
+            if (cached != null) {
+                days.put(day, cached);
+            } else {
+                firstMissing = firstMissing == null ? day : firstMissing;
+                lastMissing = day;
+            }
+        }
+
+        if (firstMissing != null) {
+            Map<LocalDate, HyperLogLog> loaded = new HashMap<>();
+            for (ActivitySketch sketch : sketchRepository.findSketches(kind, firstMissing, lastMissing)) {
+                loaded.put(sketch.getId().getDay(), HyperLogLog.fromBytes(sketch.getRegisters()));
+            }
+            for (LocalDate day = firstMissing; !day.isAfter(lastMissing); day = day.plusDays(1)) {
+                if (days.containsKey(day)) {
+                    continue;
+                }
+                HyperLogLog sketch = loaded.getOrDefault(day, new HyperLogLog());
+                days.put(day, sketch);
+                if (!day.isAfter(lastClosed)) {
+                    closedDays.put(new Key(kind, day), sketch);
+                }
+            }
+        }
+
+        synchronized (this) {
+            pending.forEach((key, sketch) -> {
+                if (key.kind() == kind && !key.day().isBefore(from) && !key.day().isAfter(to)) {
+                    // Copy before merging: the stored sketch may be shared with the cache
+                    HyperLogLog merged = days.get(key.day()).copy();
+                    merged.merge(sketch);
+                    days.put(key.day(), merged);
+                }
+            });
+        }
+        return days;
+    }
+
+    private static LocalDate periodEnd(LocalDate start, DistinctCountReport.Interval interval, LocalDate rangeEnd) {
+        LocalDate end = switch (interval) {
+            case DAY -> start;
+            case WEEK -> start.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+            case MONTH -> start.with(TemporalAdjusters.lastDayOfMonth());
+        };
+        return end.isAfter(rangeEnd) ? rangeEnd : end;
+    }
+
+    private void mergeIntoTable(Key key, HyperLogLog sketch) {
+        Date day = Date.valueOf(key.day());
+        int inserted = jdbcTemplate.update(INSERT_IF_ABSENT, day, key.kind().name(), sketch.toBytes());
+        if (inserted > 0) {
+            return;
+        }
+
+        byte[] existing = jdbcTemplate.queryForObject(SELECT_FOR_UPDATE, byte[].class, day, key.kind().name());
+        HyperLogLog merged = HyperLogLog.fromBytes(existing);
+        merged.merge(sketch);
+        jdbcTemplate.update(UPDATE, merged.toBytes(), day, key.kind().name());
+    }
+
+    private synchronized void requeue(Key key, HyperLogLog sketch) {
+        pending.computeIfAbsent(key, k -> new HyperLogLog()).merge(sketch);
+    }
+
+    private synchronized int pendingSize() {
+        return pending.size();
+    }
+
+    private record Key(ActivitySketch.Kind kind, LocalDate day) {
+    }
+}
@@ -2,43 +2,48 @@ package com.delivery.RouteX.service;
 
 import com.delivery.RouteX.Repository.*;
 import com.delivery.RouteX.dto.analytics.*;
+import com.delivery.RouteX.exception.BadRequestException;
+import com.delivery.RouteX.model.ActivitySketch;
+import com.delivery.RouteX.model.DeliveryTimeSketch;
+import com.delivery.RouteX.model.Driver;
 import com.delivery.RouteX.model.Order;
+import com.delivery.RouteX.model.OrderHourlyRollup;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class AnalyticsService {
 
-    private final OrderRepository orderRepository;
-    private final DriverRepository driverRepository;
+    private final OrderHourlyRollupRepository rollupRepository;
+    private final LiveDashboardCounters liveCounters;
+    private final DeliveryTimeSketchService deliveryTimeSketches;
+    private final ActivitySketchService activitySketches;
 
-    @Transactional(readOnly = true)
+    /**
+     * Served from LiveDashboardCounters and the cached delivery time sketch;
+     * no per-call queries
+     */
     public DashboardMetrics getDashboardMetrics() {
-        Long activeDeliveries = orderRepository.countByStatus(Order.OrderStatus.IN_TRANSIT) +
-                orderRepository.countByStatus(Order.OrderStatus.PICKED_UP) +
-                orderRepository.countByStatus(Order.OrderStatus.ASSIGNED);
-
-        Long pendingOrders = orderRepository.countByStatus(Order.OrderStatus.PENDING);
-
-        LocalDateTime startOfDay = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
-        LocalDateTime endOfDay = startOfDay.plusDays(1);
-        Long ordersToday = orderRepository.countOrdersInDateRange(startOfDay, endOfDay);
+        Long activeDeliveries = liveCounters.getOrderCount(Order.OrderStatus.IN_TRANSIT) +
+                liveCounters.getOrderCount(Order.OrderStatus.PICKED_UP) +
+                liveCounters.getOrderCount(Order.OrderStatus.ASSIGNED);
 
-        Double revenueToday = orderRepository.getTotalRevenueInDateRange(startOfDay, endOfDay);
-        if (revenueToday == null) revenueToday = 0.0;
+        Long pendingOrders = liveCounters.getOrderCount(Order.OrderStatus.PENDING);
+        Long ordersToday = liveCounters.getOrdersToday();
+        Double revenueToday = liveCounters.getRevenueToday();
+        Long availableDrivers = liveCounters.getDriverCount(Driver.AvailabilityStatus.ONLINE);
 
-        Long availableDrivers = (long) driverRepository
-                .findByAvailabilityStatus(com.delivery.RouteX.model.Driver.AvailabilityStatus.ONLINE)
-                .size();
-
-        Double avgDeliveryTime = 45.0;
+        // Creation to delivery over the last 24 hours, in minutes
+        DeliveryTimePercentiles deliveryTimes = deliveryTimeSketches.getRecentDeliveryTimes();
         Double successRate = calculateSuccessRate();
 
         return DashboardMetrics.builder()
@@ -47,53 +52,68 @@ public class AnalyticsService {
                 .ordersToday(ordersToday)
                 .revenueToday(revenueToday)
                 .availableDrivers(availableDrivers)
-                .averageDeliveryTime(avgDeliveryTime)
+                .averageDeliveryTime(deliveryTimes.getMean())
+                .deliveryTimeP50(deliveryTimes.getP50())
+                .deliveryTimeP90(deliveryTimes.getP90())
+                .deliveryTimeP99(deliveryTimes.getP99())
                 .successRate(successRate)
                 .build();
     }
 
+    /**
+     * Revenue of orders delivered in the range, from the hourly rollups
+     * (one query over hour buckets instead of one query per day)
+     * The range is widened to whole hours; the report carries the bounds actually covered.
+     */
     @Transactional(readOnly = true)
     public RevenueReport getRevenueReport(LocalDateTime startDate, LocalDateTime endDate) {
-        Double totalRevenue = orderRepository.getTotalRevenueInDateRange(startDate, endDate);
-        if (totalRevenue == null) totalRevenue = 0.0;
+        HourRange range = HourRange.covering(startDate, endDate);
 
-        Long totalOrders = orderRepository.countOrdersInDateRange(startDate, endDate);
-        Double averageOrderValue = totalOrders > 0 ? totalRevenue / totalOrders : 0.0;
+        Long totalOrders = sumByStatus(OrderHourlyRollup.Basis.CURRENT, range.from(), range.to()).values().stream()
+                .mapToLong(StatusTotals::orderCount)
+                .sum();
 
         Map<String, Double> dailyRevenue = new HashMap<>();
-        LocalDateTime current = startDate;
-        while (current.isBefore(endDate)) {
-            LocalDateTime nextDay = current.plusDays(1);
-            Double dayRevenue = orderRepository.getTotalRevenueInDateRange(current, nextDay);
-            dailyRevenue.put(current.toLocalDate().toString(), dayRevenue != null ? dayRevenue : 0.0);
-            current = nextDay;
+        LocalDateTime current = range.from();
+        while (current.isBefore(range.to())) {
+            dailyRevenue.put(current.toLocalDate().toString(), 0.0);
+            current = current.plusDays(1);
+        }
+
+        double totalRevenue = 0.0;
+        List<OrderHourlyRollup> buckets = rollupRepository.findBuckets(
+                OrderHourlyRollup.Basis.ENTERED, Order.OrderStatus.DELIVERED, range.from(), range.to());
+        for (OrderHourlyRollup bucket : buckets) {
+            totalRevenue += bucket.getRevenueSum();
+            dailyRevenue.merge(bucket.getId().getBucketStart().toLocalDate().toString(), bucket.getRevenueSum(), Double::sum);
         }
 
+        Double averageOrderValue = totalOrders > 0 ? totalRevenue / totalOrders : 0.0;
+
         return RevenueReport.builder()
                 .totalRevenue(totalRevenue)
                 .totalOrders(totalOrders)
                 .averageOrderValue(averageOrderValue)
-                .startDate(startDate)
-                .endDate(endDate)
+                .startDate(range.from())
+                .endDate(range.to())
                 .dailyBreakdown(dailyRevenue)
                 .build();
     }
 
+    /**
+     * Outcome of orders created in the range, from the hourly rollups
+     * The range is widened to whole hours; the statistics carry the bounds actually covered.
+     */
     @Transactional(readOnly = true)
     public OrderStatistics getOrderStatistics(LocalDateTime startDate, LocalDateTime endDate) {
-        Long totalOrders = orderRepository.countOrdersInDateRange(startDate, endDate);
+        HourRange range = HourRange.covering(startDate, endDate);
+        Map<Order.OrderStatus, StatusTotals> byStatus =
+                sumByStatus(OrderHourlyRollup.Basis.CURRENT, range.from(), range.to());
 
-        Long completed = (long) orderRepository.findByStatusAndDateRange(
-                Order.OrderStatus.DELIVERED, startDate, endDate
-        ).size();
-
-        Long cancelled = (long) orderRepository.findByStatusAndDateRange(
-                Order.OrderStatus.CANCELLED, startDate, endDate
-        ).size();
-
-        Long failed = (long) orderRepository.findByStatusAndDateRange(
-                Order.OrderStatus.FAILED, startDate, endDate
-        ).size();
+        Long totalOrders = byStatus.values().stream().mapToLong(StatusTotals::orderCount).sum();
+        Long completed = byStatus.getOrDefault(Order.OrderStatus.DELIVERED, StatusTotals.EMPTY).orderCount();
+        Long cancelled = byStatus.getOrDefault(Order.OrderStatus.CANCELLED, StatusTotals.EMPTY).orderCount();
+        Long failed = byStatus.getOrDefault(Order.OrderStatus.FAILED, StatusTotals.EMPTY).orderCount();
 
         Double completionRate = totalOrders > 0 ? (completed * 100.0) / totalOrders : 0.0;
         Double cancellationRate = totalOrders > 0 ? (cancelled * 100.0) / totalOrders : 0.0;
@@ -105,16 +125,64 @@ public class AnalyticsService {
                 .failedOrders(failed)
                 .completionRate(completionRate)
                 .cancellationRate(cancellationRate)
-                .startDate(startDate)
-                .endDate(endDate)
+                .startDate(range.from())
+                .endDate(range.to())
                 .build();
     }
 
+    /**
+     * Delivery duration percentiles over the range, merged from hourly sketches
+     * @param zone Pickup zone from DeliveryTimeSketchService.zoneOf, or null for all zones
+     */
+    @Transactional(readOnly = true)
+    public DeliveryTimePercentiles getDeliveryTimePercentiles(
+            DeliveryTimeSketch.Metric metric, LocalDateTime startDate, LocalDateTime endDate, String zone) {
+        return deliveryTimeSketches.getPercentiles(metric, startDate, endDate, zone);
+    }
+
+    /**
+     * Approximate distinct customers or drivers over [startDate, endDate], merged from daily sketches
+     */
+    public DistinctCountReport getDistinctCounts(ActivitySketch.Kind kind, LocalDate startDate, LocalDate endDate,
+                                                 DistinctCountReport.Interval interval) {
+        return activitySketches.getDistinctCounts(kind, startDate, endDate, interval);
+    }
+
+    private Map<Order.OrderStatus, StatusTotals> sumByStatus(
+            OrderHourlyRollup.Basis basis, LocalDateTime from, LocalDateTime to) {
+        Map<Order.OrderStatus, StatusTotals> totals = new EnumMap<>(Order.OrderStatus.class);
+        for (Object[] row : rollupRepository.sumByStatus(basis, from, to)) {
+            totals.put((Order.OrderStatus) row[0], new StatusTotals(
+                    ((Number) row[1]).longValue(),
+                    ((Number) row[2]).doubleValue(),
+                    ((Number) row[3]).doubleValue()));
+        }
+        return totals;
+    }
+
     private Double calculateSuccessRate() {
-        Long total = orderRepository.count();
+        long total = liveCounters.getTotalOrderCount();
         if (total == 0) return 100.0;
 
-        Long delivered = orderRepository.countByStatus(Order.OrderStatus.DELIVERED);
+        long delivered = liveCounters.getOrderCount(Order.OrderStatus.DELIVERED);
         return (delivered * 100.0) / total;
     }
+
+    private record StatusTotals(long orderCount, double revenue, double distance) {
+        static final StatusTotals EMPTY = new StatusTotals(0, 0.0, 0.0);
+    }
+
+    /**
+     * Rollup buckets covering a requested range, [from, to)
+     * from rounds down and to rounds up to the hour, so no part of the request is left out.
+     */
+    private record HourRange(LocalDateTime from, LocalDateTime to) {
+        static HourRange covering(LocalDateTime startDate, LocalDateTime endDate) {
+            if (startDate.isAfter(endDate)) {
+                throw new BadRequestException("startDate must not be after endDate");
+            }
+            LocalDateTime to = OrderRollupService.bucketOf(endDate);
+            return new HourRange(OrderRollupService.bucketOf(startDate), to.isBefore(endDate) ? to.plusHours(1) : to);
+        }
+    }
 }
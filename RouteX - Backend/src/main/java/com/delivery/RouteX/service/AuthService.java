@@ -4,14 +4,18 @@ import com.delivery.RouteX.Repository.CustomerRepository;
 import com.delivery.RouteX.Repository.DriverRepository;
 import com.delivery.RouteX.Repository.UserRepository;
 import com.delivery.RouteX.dto.auth.*;
+import com.delivery.RouteX.event.DriverAvailabilityChangedEvent;
+import com.delivery.RouteX.event.UserAccountChangedEvent;
 import com.delivery.RouteX.exception.BadRequestException;
 import com.delivery.RouteX.exception.ResourceNotFoundException;
 import com.delivery.RouteX.model.Customer;
 import com.delivery.RouteX.model.Driver;
 import com.delivery.RouteX.model.User;
 import com.delivery.RouteX.security.JwtUtil;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -30,6 +34,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -78,7 +83,8 @@ public class AuthService {
                     .totalEarnings(0.0)          // Add this
                     .rating(0.0)
                     .build();
-            driverRepository.save(driver);
+            driver = driverRepository.save(driver);
+            eventPublisher.publishEvent(DriverAvailabilityChangedEvent.of(driver, null));
         } else if (role == User.Role.CUSTOMER) {
             Customer customer = Customer.builder()
                     .user(user)
@@ -141,11 +147,9 @@ public class AuthService {
     public AuthResponse refreshToken(RefreshTokenRequest request) {
         String refreshToken = request.getRefreshToken();
 
-        if (!jwtUtil.validateToken(refreshToken)) {
-            throw new BadRequestException("Invalid or expired refresh token");
-        }
-
-        String email = jwtUtil.extractUsername(refreshToken);
+        String email = jwtUtil.parseAndValidate(refreshToken)
+                .map(Claims::getSubject)
+                .orElseThrow(() -> new BadRequestException("Invalid or expired refresh token"));
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
@@ -175,6 +179,7 @@ public class AuthService {
 
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
         userRepository.save(user);
+        eventPublisher.publishEvent(UserAccountChangedEvent.of(user));
 
         log.info("Password changed for user: {}", user.getEmail());
     }
@@ -0,0 +1,295 @@
+package com.delivery.RouteX.service;
+
+import com.delivery.RouteX.Repository.DeliveryTimeSketchRepository;
+import com.delivery.RouteX.dto.analytics.DeliveryTimePercentiles;
+import com.delivery.RouteX.event.OrderStatusChangedEvent;
+import com.delivery.RouteX.model.DeliveryTimeSketch;
+import com.delivery.RouteX.model.Order;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+
+/**
+ * Delivery duration sketches (HdrHistogram, seconds, 2 significant digits)
+ * Completed deliveries are recorded into in-memory histograms keyed by hour
+ * bucket, metric and pickup zone (a grid cell of zone-size-degrees). They are
+ * merged into delivery_time_sketches every flush-interval-ms, so any range or
+ * set of zones is answered by merging a few compact histograms instead of
+ * scanning orders.
+ */
+@Service
+@Slf4j
+public class DeliveryTimeSketchService {
+
+    private static final long HIGHEST_TRACKABLE_SECONDS = TimeUnit.DAYS.toSeconds(30);
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final int BACKFILL_FLUSH_ROWS = 10_000;
+
+    private static final String INSERT_IF_ABSENT = "INSERT INTO delivery_time_sketches " +
+            "(bucket_start, metric, zone, sample_count, histogram) VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (bucket_start, metric, zone) DO NOTHING";
+    private static final String SELECT_FOR_UPDATE = "SELECT histogram FROM delivery_time_sketches " +
+            "WHERE bucket_start = ? AND metric = ? AND zone = ? FOR UPDATE";
+    private static final String UPDATE = "UPDATE delivery_time_sketches SET sample_count = ?, histogram = ? " +
+            "WHERE bucket_start = ? AND metric = ? AND zone = ?";
+
+    private final DeliveryTimeSketchRepository sketchRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final double zoneSizeDegrees;
+    private final long dashboardCacheMs;
+
+    // Deliveries from here on reach record() through the event listener, so the backfill stops here
+    private final LocalDateTime liveSince = LocalDateTime.now();
+
+    // Recorded but not yet merged into the table; guarded by this
+    private Map<Key, Histogram> pending = new HashMap<>();
+
+    private volatile CachedPercentiles dashboardCache;
+
+    public DeliveryTimeSketchService(
+            DeliveryTimeSketchRepository sketchRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.analytics.delivery-times.zone-size-degrees:0.1}") double zoneSizeDegrees,
+            @Value("${app.analytics.delivery-times.dashboard-cache-ms:30000}") long dashboardCacheMs
+    ) {
+        this.sketchRepository = sketchRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.zoneSizeDegrees = zoneSizeDegrees;
+        this.dashboardCacheMs = dashboardCacheMs;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getStatus() != Order.OrderStatus.DELIVERED) {
+            return;
+        }
+        LocalDateTime deliveredAt = event.getDeliveredAt() != null ? event.getDeliveredAt() : event.getOccurredAt();
+        record(deliveredAt, event.getCreatedAt(), event.getPickedUpAt(),
+                event.getPickupLatitude(), event.getPickupLongitude());
+    }
+
+    /**
+     * Record one completed delivery, bucketed by its delivery hour
+     */
+    public synchronized void record(LocalDateTime deliveredAt, LocalDateTime createdAt, LocalDateTime pickedUpAt,
+                                    Double pickupLatitude, Double pickupLongitude) {
+        LocalDateTime bucket = OrderRollupService.bucketOf(deliveredAt);
+        String zone = zoneOf(pickupLatitude, pickupLongitude);
+        if (createdAt != null) {
+            recordValue(new Key(bucket, DeliveryTimeSketch.Metric.CREATED_TO_DELIVERED, zone), createdAt, deliveredAt);
+        }
+        if (pickedUpAt != null) {
+            recordValue(new Key(bucket, DeliveryTimeSketch.Metric.PICKED_UP_TO_DELIVERED, zone), pickedUpAt, deliveredAt);
+        }
+    }
+
+    /**
+     * Merge pending histograms into delivery_time_sketches, one short transaction per row
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.delivery-times.flush-interval-ms:60000}")
+    public void flush() {
+        Map<Key, Histogram> drained;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            drained = pending;
+            pending = new HashMap<>();
+        }
+
+        for (Map.Entry<Key, Histogram> entry : drained.entrySet()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> mergeIntoTable(entry.getKey(), entry.getValue()));
+            } catch (DataAccessException e) {
+                log.warn("Failed to persist delivery time sketch {}: {}", entry.getKey(), e.getMessage());
+                requeue(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Merge the sketches of [from, to), optionally limited to one zone
+     */
+    public DeliveryTimePercentiles getPercentiles(DeliveryTimeSketch.Metric metric, LocalDateTime from,
+                                                  LocalDateTime to, String zone) {
+        LocalDateTime bucketFrom = OrderRollupService.bucketOf(from);
+        List<DeliveryTimeSketch> sketches = zone == null
+                ? sketchRepository.findSketches(metric, bucketFrom, to)
+                : sketchRepository.findZoneSketches(metric, zone, bucketFrom, to);
+
+        Histogram merged = newHistogram();
+        for (DeliveryTimeSketch sketch : sketches) {
+            merged.add(decode(sketch.getHistogram()));
+        }
+        synchronized (this) {
+            pending.forEach((key, histogram) -> {
+                if (key.metric() == metric && (zone == null || zone.equals(key.zone()))
+                        && !key.bucket().isBefore(bucketFrom) && key.bucket().isBefore(to)) {
+                    merged.add(histogram);
+                }
+            });
+        }
+
+        long count = merged.getTotalCount();
+        return DeliveryTimePercentiles.builder()
+                .metric(metric)
+                .zone(zone)
+                .startDate(from)
+                .endDate(to)
+                .count(count)
+                .mean(count > 0 ? merged.getMean() / 60.0 : 0.0)
+                .p50(minutes(merged, count, 50.0))
+                .p90(minutes(merged, count, 90.0))
+                .p99(minutes(merged, count, 99.0))
+                .max(count > 0 ? merged.getMaxValue() / 60.0 : 0.0)
+                .build();
+    }
+
+    /**
+     * Creation to delivery over the last 24 hours, cached for the dashboard
+     */
+    public DeliveryTimePercentiles getRecentDeliveryTimes() {
+        CachedPercentiles cached = dashboardCache;
+        long now = System.currentTimeMillis();
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.percentiles();
+        }
+        LocalDateTime to = LocalDateTime.now().plusHours(1);
+        DeliveryTimePercentiles percentiles = getPercentiles(
+                DeliveryTimeSketch.Metric.CREATED_TO_DELIVERED, to.minusHours(25), to, null);
+        dashboardCache = new CachedPercentiles(percentiles, now + dashboardCacheMs);
+        return percentiles;
+    }
+
+    /**
+     * Build sketches from delivered orders when the table is empty
+     * Only orders delivered before this service started are read; later ones
+     * are already being recorded live and would otherwise count twice.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            if (sketchRepository.count() > 0) {
+                return;
+            }
+            long[] rows = {0};
+            jdbcTemplate.query("SELECT created_at, actual_pickup_time, actual_delivery_time, " +
+                    "pickup_latitude, pickup_longitude FROM orders " +
+                    "WHERE status = 'DELIVERED' AND actual_delivery_time IS NOT NULL " +
+                    "AND actual_delivery_time < ?", resultSet -> {
+                Timestamp createdAt = resultSet.getTimestamp(1);
+                Timestamp pickedUpAt = resultSet.getTimestamp(2);
+                // Missing coordinates land in the "unknown" zone, as they do for live deliveries
+                record(resultSet.getTimestamp(3).toLocalDateTime(),
+                        createdAt != null ? createdAt.toLocalDateTime() : null,
+                        pickedUpAt != null ? pickedUpAt.toLocalDateTime() : null,
+                        resultSet.getObject(4, Double.class), resultSet.getObject(5, Double.class));
+                if (++rows[0] % BACKFILL_FLUSH_ROWS == 0) {
+                    flush();
+                }
+            }, Timestamp.valueOf(liveSince));
+            flush();
+            if (rows[0] > 0) {
+                log.info("Backfilled delivery time sketches from {} delivered orders", rows[0]);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Delivery time sketch backfill failed: {}", e.getMessage());
+        }
+    }
+
+    public String zoneOf(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            return "unknown";
+        }
+        double lat = Math.floor(latitude / zoneSizeDegrees) * zoneSizeDegrees;
+        double lon = Math.floor(longitude / zoneSizeDegrees) * zoneSizeDegrees;
+        return String.format(Locale.ROOT, "%.2f,%.2f", lat, lon);
+    }
+
+    private void mergeIntoTable(Key key, Histogram histogram) {
+        Timestamp bucket = Timestamp.valueOf(key.bucket());
+        int inserted = jdbcTemplate.update(INSERT_IF_ABSENT,
+                bucket, key.metric().name(), key.zone(), histogram.getTotalCount(), encode(histogram));
+        if (inserted > 0) {
+            return;
+        }
+
+        byte[] existing = jdbcTemplate.queryForObject(SELECT_FOR_UPDATE, byte[].class,
+                bucket, key.metric().name(), key.zone());
+        Histogram merged = decode(existing);
+        merged.add(histogram);
+        jdbcTemplate.update(UPDATE, merged.getTotalCount(), encode(merged), bucket, key.metric().name(), key.zone());
+    }
+
+    private synchronized void requeue(Key key, Histogram histogram) {
+        pending.computeIfAbsent(key, k -> newHistogram()).add(histogram);
+    }
+
+    private void recordValue(Key key, LocalDateTime from, LocalDateTime to) {
+        long seconds = Math.max(0L, Duration.between(from, to).getSeconds());
+        pending.computeIfAbsent(key, k -> newHistogram())
+                .recordValue(Math.min(seconds, HIGHEST_TRACKABLE_SECONDS));
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(HIGHEST_TRACKABLE_SECONDS, SIGNIFICANT_DIGITS);
+    }
+
+    private static byte[] encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        byte[] bytes = new byte[length];
+        System.arraycopy(buffer.array(), 0, bytes, 0, length);
+        return bytes;
+    }
+
+    private static Histogram decode(byte[] bytes) {
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(bytes), HIGHEST_TRACKABLE_SECONDS);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt delivery time sketch", e);
+        }
+    }
+
+    private static Double minutes(Histogram histogram, long count, double percentile) {
+        return count > 0 ? histogram.getValueAtPercentile(percentile) / 60.0 : 0.0;
+    }
+
+    private record Key(LocalDateTime bucket, DeliveryTimeSketch.Metric metric, String zone) {
+    }
+
+    private record CachedPercentiles(DeliveryTimePercentiles percentiles, long expiresAt) {
+    }
+}
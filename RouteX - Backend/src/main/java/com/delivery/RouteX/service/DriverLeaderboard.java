@@ -0,0 +1,218 @@
+package com.delivery.RouteX.service;
+
+import com.delivery.RouteX.Repository.DriverRepository;
+import com.delivery.RouteX.event.DriverAvailabilityChangedEvent;
+import com.delivery.RouteX.event.DriverStatsChangedEvent;
+import com.delivery.RouteX.model.Driver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory driver ranking per availability status
+ * Drivers are ordered by rating DESC, totalDeliveries DESC, id ASC in one
+ * ConcurrentSkipListSet per status, so committed rating, delivery and
+ * availability changes move a driver in O(log n) and top-K reads are
+ * lock-free iterations. Ranks come from a Fenwick tree of drivers per rating
+ * step (0.001), plus a walk over the few drivers in the same step.
+ *
+ * Loaded on startup and reconciled against the database on a fixed interval,
+ * which also repairs the order of concurrent commits for the same driver.
+ */
+@Component
+@Slf4j
+public class DriverLeaderboard {
+
+    private static final Comparator<Entry> RANKING = Comparator
+            .comparingDouble(Entry::rating).reversed()
+            .thenComparing(Comparator.comparingInt(Entry::totalDeliveries).reversed())
+            .thenComparingLong(Entry::driverId);
+
+    private static final int RATING_STEPS_PER_POINT = 1_000;
+    private static final double MAX_RATING = 5.0;
+
+    private final DriverRepository driverRepository;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Driver.AvailabilityStatus, Board> boards = new EnumMap<>(Driver.AvailabilityStatus.class);
+
+    public DriverLeaderboard(DriverRepository driverRepository) {
+        this.driverRepository = driverRepository;
+        // Populated once, never structurally modified afterwards
+        for (Driver.AvailabilityStatus status : Driver.AvailabilityStatus.values()) {
+            boards.put(status, new Board());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onDriverAvailabilityChanged(DriverAvailabilityChangedEvent event) {
+        update(event.getDriverId(), event.getStatus(), event.getRating(), event.getTotalDeliveries());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onDriverStatsChanged(DriverStatsChangedEvent event) {
+        update(event.getDriverId(), event.getAvailabilityStatus(), event.getRating(), event.getTotalDeliveries());
+    }
+
+    /**
+     * Place a driver with the given values, moving it if it was ranked before
+     */
+    public void update(Long driverId, Driver.AvailabilityStatus status, Double rating, Integer totalDeliveries) {
+        if (driverId == null || status == null) {
+            return;
+        }
+        Entry entry = new Entry(driverId, status,
+                rating != null ? rating : 0.0, totalDeliveries != null ? totalDeliveries : 0);
+        // compute serializes updates of one driver, so its old position is always removed
+        entries.compute(driverId, (id, previous) -> {
+            if (previous != null) {
+                if (previous.equals(entry)) {
+                    return previous;
+                }
+                boards.get(previous.status()).remove(previous);
+            }
+            boards.get(status).add(entry);
+            return entry;
+        });
+    }
+
+    /**
+     * Best drivers in a status, best first
+     */
+    public List<Entry> top(Driver.AvailabilityStatus status, int limit) {
+        List<Entry> top = new ArrayList<>(Math.min(limit, 100));
+        Iterator<Entry> iterator = boards.get(status).ranked.iterator();
+        while (top.size() < limit && iterator.hasNext()) {
+            top.add(iterator.next());
+        }
+        return top;
+    }
+
+    /**
+     * @return The driver's entry and 1-based rank among drivers in the same status
+     */
+    public Optional<Rank> rankOf(Long driverId) {
+        Entry entry = entries.get(driverId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        Board board = boards.get(entry.status());
+        return Optional.of(board.rankOf(entry));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        reconcile();
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.driver.leaderboard.reconcile-interval-ms:300000}",
+            fixedDelayString = "${app.driver.leaderboard.reconcile-interval-ms:300000}"
+    )
+    public void reconcile() {
+        try {
+            Set<Long> seen = new HashSet<>();
+            for (Object[] row : driverRepository.findRankingStats()) {
+                Long driverId = (Long) row[0];
+                seen.add(driverId);
+                update(driverId, (Driver.AvailabilityStatus) row[1], (Double) row[2], (Integer) row[3]);
+            }
+            for (Long driverId : entries.keySet()) {
+                if (!seen.contains(driverId)) {
+                    entries.computeIfPresent(driverId, (id, entry) -> {
+                        boards.get(entry.status()).remove(entry);
+                        return null;
+                    });
+                }
+            }
+            log.debug("Driver leaderboard reconciled with {} drivers", seen.size());
+        } catch (DataAccessException e) {
+            log.warn("Driver leaderboard reconcile failed: {}", e.getMessage());
+        }
+    }
+
+    public record Entry(Long driverId, Driver.AvailabilityStatus status, double rating, int totalDeliveries) {
+    }
+
+    public record Rank(Entry entry, int rank, int rankedDrivers) {
+    }
+
+    private static int stepOf(double rating) {
+        int step = (int) Math.floor(rating * RATING_STEPS_PER_POINT);
+        return Math.max(0, Math.min(step, (int) (MAX_RATING * RATING_STEPS_PER_POINT)));
+    }
+
+    /**
+     * Ranked drivers of one status
+     * Writes are serialized per board so the set and the Fenwick tree stay in step;
+     * top-K reads go straight to the skip list.
+     */
+    private static final class Board {
+        private final ConcurrentSkipListSet<Entry> ranked = new ConcurrentSkipListSet<>(RANKING);
+
+        // Fenwick tree over rating steps, indexed from the top rating down; guarded by this
+        private final int[] tree = new int[(int) (MAX_RATING * RATING_STEPS_PER_POINT) + 2];
+        private int size;
+
+        synchronized void add(Entry entry) {
+            if (ranked.add(entry)) {
+                adjust(entry, 1);
+            }
+        }
+
+        synchronized void remove(Entry entry) {
+            if (ranked.remove(entry)) {
+                adjust(entry, -1);
+            }
+        }
+
+        synchronized Rank rankOf(Entry entry) {
+            int step = stepOf(entry.rating());
+            // Drivers in strictly higher rating steps
+            int better = prefixSum(position(step) - 1);
+            // Plus drivers ahead of this one within the same step
+            Iterator<Entry> ahead = ranked.headSet(entry, false).descendingIterator();
+            while (ahead.hasNext() && stepOf(ahead.next().rating()) == step) {
+                better++;
+            }
+            return new Rank(entry, better + 1, size);
+        }
+
+        private void adjust(Entry entry, int delta) {
+            size += delta;
+            for (int i = position(stepOf(entry.rating())); i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+
+        private int prefixSum(int index) {
+            int sum = 0;
+            for (int i = index; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+
+        // 1-based, highest rating first
+        private int position(int step) {
+            return tree.length - 1 - step;
+        }
+    }
+}
@@ -2,16 +2,23 @@ package com.delivery.RouteX.service;
 
 import com.delivery.RouteX.Repository.*;
 import com.delivery.RouteX.dto.driver.*;
+import com.delivery.RouteX.event.DriverAvailabilityChangedEvent;
+import com.delivery.RouteX.event.UserAccountChangedEvent;
 import com.delivery.RouteX.exception.ResourceNotFoundException;
 import com.delivery.RouteX.model.*;
 import com.delivery.RouteX.util.DistanceCalculator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,6 +29,8 @@ public class DriverService {
     private final DriverRepository driverRepository;
     private final UserRepository userRepository;
     private final DistanceCalculator distanceCalculator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DriverLeaderboard leaderboard;
 
     @Transactional(readOnly = true)
     public DriverResponse getDriverById(Long driverId) {
@@ -89,6 +98,7 @@ public class DriverService {
 
         userRepository.save(user);
         driver = driverRepository.save(driver);
+        eventPublisher.publishEvent(UserAccountChangedEvent.of(user));
 
         log.info("Driver profile updated: {}", driver.getId());
         return mapToDriverResponse(driver);
@@ -106,13 +116,30 @@ public class DriverService {
                 driver.getId(), request.getLatitude(), request.getLongitude());
     }
 
+    /**
+     * Record a location ping for a known driver with a single UPDATE
+     * Used by the WebSocket hot path, where the driver id is already on the principal
+     */
+    @Transactional
+    public void recordDriverLocation(Long driverId, UpdateLocationRequest request) {
+        int updated = driverRepository.updateLocation(
+                driverId, request.getLatitude(), request.getLongitude(), LocalDateTime.now());
+        if (updated == 0) {
+            throw new ResourceNotFoundException("Driver not found");
+        }
+    }
+
     @Transactional
     public DriverResponse updateAvailability(Long userId, UpdateAvailabilityRequest request) {
         Driver driver = driverRepository.findByUserId(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Driver not found"));
 
+        Driver.AvailabilityStatus previous = driver.getAvailabilityStatus();
         driver.setAvailabilityStatus(request.getStatus());
         driver = driverRepository.save(driver);
+        if (previous != request.getStatus()) {
+            eventPublisher.publishEvent(DriverAvailabilityChangedEvent.of(driver, previous));
+        }
 
         log.info("Driver {} availability updated to {}", driver.getId(), request.getStatus());
         return mapToDriverResponse(driver);
@@ -133,15 +160,37 @@ public class DriverService {
                 .build();
     }
 
+    /**
+     * Top online drivers
+     * The ranking comes from the in-memory leaderboard; only the K ranked drivers are loaded, by id
+     */
     @Transactional(readOnly = true)
     public List<DriverResponse> getTopDrivers(int limit) {
-        Pageable pageable = PageRequest.of(0, limit);
-        return driverRepository.findTopDrivers(pageable)
-                .stream()
+        List<Long> ranked = leaderboard.top(Driver.AvailabilityStatus.ONLINE, limit).stream()
+                .map(DriverLeaderboard.Entry::driverId)
+                .toList();
+        Map<Long, Driver> drivers = driverRepository.findAllById(ranked).stream()
+                .collect(Collectors.toMap(Driver::getId, Function.identity()));
+        return ranked.stream()
+                .map(drivers::get)
+                .filter(Objects::nonNull)
                 .map(this::mapToDriverResponse)
                 .collect(Collectors.toList());
     }
 
+    public DriverRankResponse getDriverRank(Long driverId) {
+        DriverLeaderboard.Rank rank = leaderboard.rankOf(driverId)
+                .orElseThrow(() -> new ResourceNotFoundException("Driver not found"));
+        return DriverRankResponse.builder()
+                .driverId(driverId)
+                .availabilityStatus(rank.entry().status())
+                .rank(rank.rank())
+                .rankedDrivers(rank.rankedDrivers())
+                .rating(rank.entry().rating())
+                .totalDeliveries(rank.entry().totalDeliveries())
+                .build();
+    }
+
     private double calculateSuccessRate(Driver driver) {
         if (driver.getTotalDeliveries() == 0) return 0.0;
         return (driver.getCompletedDeliveries() * 100.0) / driver.getTotalDeliveries();
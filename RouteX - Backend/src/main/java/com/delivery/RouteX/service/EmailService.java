@@ -0,0 +1,403 @@
+package com.delivery.RouteX.service;
+
+import com.delivery.RouteX.Repository.EmailDeadLetterRepository;
+import com.delivery.RouteX.model.EmailDeadLetter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous email channel
+ * Callers hand over a precompiled EmailTemplate with lazily built values; the
+ * message is rendered only when email is on and enqueued after commit. A single
+ * sender thread drains the bounded queue and hands up to batch-size messages to
+ * JavaMailSender.send(MimeMessage...), which delivers them over one SMTP
+ * connection. Failed messages are retried with exponential backoff and written
+ * to email_dead_letters after max-attempts; a full queue dead-letters immediately,
+ * and so does shutdown for anything still waiting to be sent or retried.
+ *
+ * Off unless app.mail.enabled=true and spring.mail.host is configured. Any SMTP
+ * server works, including a local stand-in such as MailHog or GreenMail.
+ */
+@Service
+@Slf4j
+public class EmailService {
+
+    private static final long IDLE_POLL_MS = 500;
+
+    private final ObjectProvider<JavaMailSender> mailSenderProvider;
+    private final EmailDeadLetterRepository deadLetterRepository;
+    private final TransactionTemplate deadLetterTransaction;
+
+    private final boolean enabled;
+    private final String from;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final long maxBackoffMs;
+
+    private final BlockingQueue<OutgoingEmail> queue;
+
+    // Only touched by the sender thread
+    private final PriorityQueue<OutgoingEmail> retries =
+            new PriorityQueue<>(Comparator.comparingLong(OutgoingEmail::getNextAttemptAt));
+
+    private final Timer sendTimer;
+    private final Timer queueAge;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter deadLettered;
+    private final Counter rejected;
+    private final Counter unavailable;
+
+    private JavaMailSender mailSender;
+    private volatile boolean running;
+    private volatile boolean senderUnavailable;
+    private Thread senderThread;
+
+    public EmailService(
+            ObjectProvider<JavaMailSender> mailSenderProvider,
+            EmailDeadLetterRepository deadLetterRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.mail.enabled:false}") boolean enabled,
+            @Value("${app.mail.from:no-reply@routex.local}") String from,
+            @Value("${app.mail.queue-capacity:5000}") int queueCapacity,
+            @Value("${app.mail.batch-size:50}") int batchSize,
+            @Value("${app.mail.max-attempts:5}") int maxAttempts,
+            @Value("${app.mail.retry-backoff-ms:2000}") long retryBackoffMs,
+            @Value("${app.mail.max-backoff-ms:300000}") long maxBackoffMs
+    ) {
+        this.mailSenderProvider = mailSenderProvider;
+        this.deadLetterRepository = deadLetterRepository;
+        this.enabled = enabled;
+        this.from = from;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+
+        // Dead letters may be written from an afterCommit callback, outside the caller's transaction
+        this.deadLetterTransaction = new TransactionTemplate(transactionManager);
+        this.deadLetterTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.sendTimer = Timer.builder("routex.mail.send")
+                .description("Time to deliver one batch over a single SMTP connection")
+                .register(meterRegistry);
+        this.queueAge = Timer.builder("routex.mail.queue.age")
+                .description("Time from enqueue to successful delivery")
+                .register(meterRegistry);
+        this.sent = outcomeCounter(meterRegistry, "sent");
+        this.retried = outcomeCounter(meterRegistry, "retried");
+        this.deadLettered = outcomeCounter(meterRegistry, "dead_lettered");
+        this.rejected = outcomeCounter(meterRegistry, "rejected");
+        this.unavailable = outcomeCounter(meterRegistry, "unavailable");
+        Gauge.builder("routex.mail.queue.depth", queue, BlockingQueue::size)
+                .description("Emails waiting to be sent")
+                .register(meterRegistry);
+        Gauge.builder("routex.mail.queue.oldest.age", this, EmailService::getOldestQueuedAgeSeconds)
+                .description("Age in seconds of the oldest email waiting to be sent")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue an email; nothing is sent unless the surrounding transaction commits
+     * The template values are only built, and the template only rendered, when email is on.
+     */
+    public void send(String to, EmailTemplate template, Supplier<? extends Map<String, ?>> values) {
+        if (!enabled || to == null || to.isBlank()) {
+            return;
+        }
+
+        Map<String, ?> rendered = values.get();
+        OutgoingEmail email = new OutgoingEmail(to, template.name(),
+                template.renderSubject(rendered), template.renderBody(rendered));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(email);
+                }
+            });
+        } else {
+            enqueue(email);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        mailSender = mailSenderProvider.getIfAvailable();
+        if (mailSender == null) {
+            log.warn("app.mail.enabled is set but no JavaMailSender is configured (spring.mail.host); email is off");
+            senderUnavailable = true;
+            unavailable.increment(queue.size());
+            queue.clear();
+            return;
+        }
+
+        running = true;
+        senderThread = new Thread(this::sendLoop, "email-sender");
+        senderThread.setDaemon(true);
+        senderThread.start();
+        log.info("Email sender started");
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (senderThread != null) {
+            senderThread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public double getOldestQueuedAgeSeconds() {
+        OutgoingEmail oldest = queue.peek();
+        return oldest == null ? 0.0 : (System.currentTimeMillis() - oldest.getQueuedAtMillis()) / 1000.0;
+    }
+
+    private void enqueue(OutgoingEmail email) {
+        if (senderUnavailable) {
+            unavailable.increment();
+            return;
+        }
+        if (!queue.offer(email)) {
+            rejected.increment();
+            email.setLastError("Send queue full");
+            deadLetter(email);
+        }
+    }
+
+    private void sendLoop() {
+        List<OutgoingEmail> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                takeDueRetries(batch);
+                if (batch.isEmpty()) {
+                    OutgoingEmail first = queue.poll(pollTimeoutMs(), TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                }
+                queue.drainTo(batch, batchSize - batch.size());
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Unexpected failure in email sender: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+        deadLetterUnsent();
+    }
+
+    /**
+     * Park whatever the sender could not deliver before stopping in email_dead_letters
+     */
+    private void deadLetterUnsent() {
+        List<OutgoingEmail> unsent = new ArrayList<>(retries);
+        retries.clear();
+        queue.drainTo(unsent);
+        if (unsent.isEmpty()) {
+            return;
+        }
+        log.warn("Email sender stopped with {} emails unsent; moving them to dead letters", unsent.size());
+        // An interrupt would abort the JDBC writes below, so hold it until they are done
+        boolean interrupted = Thread.interrupted();
+        try {
+            for (OutgoingEmail email : unsent) {
+                email.setLastError(email.getLastError() != null
+                        ? "Not retried before shutdown: " + email.getLastError()
+                        : "Not sent before shutdown");
+                deadLetter(email);
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void takeDueRetries(List<OutgoingEmail> batch) {
+        long now = System.currentTimeMillis();
+        while (batch.size() < batchSize && !retries.isEmpty() && retries.peek().getNextAttemptAt() <= now) {
+            batch.add(retries.poll());
+        }
+    }
+
+    private long pollTimeoutMs() {
+        OutgoingEmail nextRetry = retries.peek();
+        if (nextRetry == null) {
+            return IDLE_POLL_MS;
+        }
+        return Math.max(1L, Math.min(IDLE_POLL_MS, nextRetry.getNextAttemptAt() - System.currentTimeMillis()));
+    }
+
+    private void sendBatch(List<OutgoingEmail> batch) {
+        Map<MimeMessage, OutgoingEmail> messages = new IdentityHashMap<>(batch.size());
+        for (OutgoingEmail email : batch) {
+            try {
+                messages.put(toMimeMessage(email), email);
+            } catch (MessagingException e) {
+                // Malformed address or content; retrying will not help
+                email.setLastError(e.getMessage());
+                deadLetter(email);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        MimeMessage[] mimeMessages = messages.keySet().toArray(MimeMessage[]::new);
+        Map<Object, Exception> failures;
+        try {
+            sendTimer.record(() -> mailSender.send(mimeMessages));
+            failures = Map.of();
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages().isEmpty() ? allFailed(mimeMessages, e) : e.getFailedMessages();
+        } catch (MailException e) {
+            failures = allFailed(mimeMessages, e);
+        }
+
+        long now = System.currentTimeMillis();
+        for (Map.Entry<MimeMessage, OutgoingEmail> entry : messages.entrySet()) {
+            OutgoingEmail email = entry.getValue();
+            Exception failure = failures.get(entry.getKey());
+            if (failure == null) {
+                sent.increment();
+                queueAge.record(now - email.getQueuedAtMillis(), TimeUnit.MILLISECONDS);
+            } else {
+                onFailure(email, failure, now);
+            }
+        }
+    }
+
+    private void onFailure(OutgoingEmail email, Exception failure, long now) {
+        email.setAttempts(email.getAttempts() + 1);
+        email.setLastError(failure.getMessage());
+        if (email.getAttempts() >= maxAttempts) {
+            log.warn("Giving up on email to {} after {} attempts: {}", email.getTo(), email.getAttempts(), failure.getMessage());
+            deadLetter(email);
+            return;
+        }
+        long backoff = Math.min(maxBackoffMs, retryBackoffMs << Math.min(email.getAttempts() - 1, 20));
+        email.setNextAttemptAt(now + backoff);
+        retries.add(email);
+        retried.increment();
+    }
+
+    private MimeMessage toMimeMessage(OutgoingEmail email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
+        helper.setFrom(from);
+        helper.setTo(email.getTo());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody());
+        return message;
+    }
+
+    private void deadLetter(OutgoingEmail email) {
+        deadLettered.increment();
+        try {
+            deadLetterTransaction.executeWithoutResult(status -> deadLetterRepository.save(EmailDeadLetter.builder()
+                    .recipient(email.getTo())
+                    .subject(email.getSubject())
+                    .body(email.getBody())
+                    .template(email.getTemplate())
+                    .attempts(email.getAttempts())
+                    .lastError(truncate(email.getLastError(), 1000))
+                    .queuedAt(email.getQueuedAt())
+                    .failedAt(LocalDateTime.now())
+                    .build()));
+        } catch (DataAccessException e) {
+            log.error("Failed to dead-letter email to {}: {}", email.getTo(), e.getMessage());
+        }
+    }
+
+    private static Map<Object, Exception> allFailed(MimeMessage[] messages, Exception cause) {
+        Map<Object, Exception> failures = new IdentityHashMap<>(messages.length);
+        for (MimeMessage message : messages) {
+            failures.put(message, cause);
+        }
+        return failures;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("routex.mail.messages")
+                .description("Emails by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Getter
+    @Setter
+    private static final class OutgoingEmail {
+        private final String to;
+        private final String template;
+        private final String subject;
+        private final String body;
+        private final LocalDateTime queuedAt = LocalDateTime.now();
+        private final long queuedAtMillis = System.currentTimeMillis();
+        private int attempts;
+        private long nextAttemptAt;
+        private String lastError;
+
+        private OutgoingEmail(String to, String template, String subject, String body) {
+            this.to = to;
+            this.template = template;
+            this.subject = subject;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.delivery.RouteX.service;
+
+import com.delivery.RouteX.util.MessageTemplate;
+
+import java.util.Map;
+
+/**
+ * Transactional email templates, compiled once at class load
+ */
+public enum EmailTemplate {
+
+    ORDER_CREATED(
+            "Your RouteX order {{orderNumber}} has been created",
+            """
+            Hi {{firstName}},
+
+            Your order {{orderNumber}} has been created and is awaiting driver assignment.
+            Pickup: {{pickupAddress}}
+            Delivery: {{deliveryAddress}}
+
+            Track it at {{trackingUrl}}
+
+            The RouteX team
+            """),
+
+    ORDER_STATUS(
+            "RouteX order {{orderNumber}}: {{status}}",
+            """
+            Hi {{firstName}},
+
+            {{message}}
+
+            Track it at {{trackingUrl}}
+
+            The RouteX team
+            """),
+
+    ORDER_CANCELLED(
+            "Your RouteX order {{orderNumber}} has been cancelled",
+            """
+            Hi {{firstName}},
+
+            Your order {{orderNumber}} has been cancelled.
+            Reason: {{reason}}
+
+            The RouteX team
+            """);
+
+    private final MessageTemplate subject;
+    private final MessageTemplate body;
+
+    EmailTemplate(String subject, String body) {
+        this.subject = MessageTemplate.compile(subject);
+        this.body = MessageTemplate.compile(body);
+    }
+
+    public String renderSubject(Map<String, ?> values) {
+        return subject.render(values);
+    }
+
+    public String renderBody(Map<String, ?> values) {
+        return body.render(values);
+    }
+}
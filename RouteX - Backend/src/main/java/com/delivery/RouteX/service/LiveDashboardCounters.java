@@ -0,0 +1,224 @@
+package com.delivery.RouteX.service;
+
+import com.delivery.RouteX.Repository.DriverRepository;
+import com.delivery.RouteX.Repository.OrderHourlyRollupRepository;
+import com.delivery.RouteX.Repository.OrderRepository;
+import com.delivery.RouteX.event.DriverAvailabilityChangedEvent;
+import com.delivery.RouteX.event.OrderStatusChangedEvent;
+import com.delivery.RouteX.model.Driver;
+import com.delivery.RouteX.model.Order;
+import com.delivery.RouteX.model.OrderHourlyRollup;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory counters behind the dashboard
+ * Orders per status, drivers per availability, and today's orders and delivered
+ * revenue are LongAdder/DoubleAdder cells moved by committed order and driver
+ * transitions, so reading the dashboard costs no queries.
+ *
+ * Counters are loaded on startup and reconciled against the database on a
+ * fixed interval (grouped counts plus today's rollups); drift from missed or
+ * concurrent events lasts at most one interval.
+ */
+@Component
+@Slf4j
+public class LiveDashboardCounters {
+
+    private final OrderRepository orderRepository;
+    private final DriverRepository driverRepository;
+    private final OrderHourlyRollupRepository rollupRepository;
+
+    private final Map<Order.OrderStatus, LongAdder> ordersByStatus = new EnumMap<>(Order.OrderStatus.class);
+    private final Map<Driver.AvailabilityStatus, LongAdder> driversByAvailability =
+            new EnumMap<>(Driver.AvailabilityStatus.class);
+
+    // Replaced wholesale at midnight
+    private final AtomicReference<DayTotals> today = new AtomicReference<>(new DayTotals(LocalDate.now()));
+
+    public LiveDashboardCounters(
+            OrderRepository orderRepository,
+            DriverRepository driverRepository,
+            OrderHourlyRollupRepository rollupRepository
+    ) {
+        this.orderRepository = orderRepository;
+        this.driverRepository = driverRepository;
+        this.rollupRepository = rollupRepository;
+
+        // Populated once, never structurally modified afterwards, so plain EnumMaps are safe to share
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            ordersByStatus.put(status, new LongAdder());
+        }
+        for (Driver.AvailabilityStatus status : Driver.AvailabilityStatus.values()) {
+            driversByAvailability.put(status, new LongAdder());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getPreviousStatus() != null) {
+            ordersByStatus.get(event.getPreviousStatus()).decrement();
+        }
+        ordersByStatus.get(event.getStatus()).increment();
+
+        DayTotals totals = currentDay();
+        if (event.getPreviousStatus() == null && event.getCreatedAt() != null
+                && event.getCreatedAt().toLocalDate().equals(totals.day)) {
+            totals.orders.increment();
+        }
+        if (event.getStatus() == Order.OrderStatus.DELIVERED && event.getTotalAmount() != null
+                && event.getOccurredAt().toLocalDate().equals(totals.day)) {
+            totals.revenue.add(event.getTotalAmount());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onDriverAvailabilityChanged(DriverAvailabilityChangedEvent event) {
+        if (event.getPreviousStatus() != null) {
+            driversByAvailability.get(event.getPreviousStatus()).decrement();
+        }
+        if (event.getStatus() != null) {
+            driversByAvailability.get(event.getStatus()).increment();
+        }
+    }
+
+    public long getOrderCount(Order.OrderStatus status) {
+        return ordersByStatus.get(status).sum();
+    }
+
+    public long getTotalOrderCount() {
+        return ordersByStatus.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public long getDriverCount(Driver.AvailabilityStatus status) {
+        return driversByAvailability.get(status).sum();
+    }
+
+    public long getOrdersToday() {
+        return currentDay().orders.sum();
+    }
+
+    public double getRevenueToday() {
+        return currentDay().revenue.sum();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        reconcile();
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.analytics.live.reconcile-interval-ms:60000}",
+            fixedDelayString = "${app.analytics.live.reconcile-interval-ms:60000}"
+    )
+    public void reconcile() {
+        try {
+            long drift = 0;
+
+            // Snapshot before querying so increments committed while the query runs survive the correction
+            Map<Order.OrderStatus, Long> orderSnapshot = snapshot(Order.OrderStatus.class, ordersByStatus);
+            Map<Order.OrderStatus, Long> orderCounts = new EnumMap<>(Order.OrderStatus.class);
+            for (Object[] row : orderRepository.countGroupedByStatus()) {
+                orderCounts.put((Order.OrderStatus) row[0], ((Number) row[1]).longValue());
+            }
+            for (Map.Entry<Order.OrderStatus, LongAdder> entry : ordersByStatus.entrySet()) {
+                drift += Math.abs(correct(entry.getValue(), orderSnapshot.get(entry.getKey()),
+                        orderCounts.getOrDefault(entry.getKey(), 0L)));
+            }
+
+            Map<Driver.AvailabilityStatus, Long> driverSnapshot =
+                    snapshot(Driver.AvailabilityStatus.class, driversByAvailability);
+            Map<Driver.AvailabilityStatus, Long> driverCounts = new EnumMap<>(Driver.AvailabilityStatus.class);
+            for (Object[] row : driverRepository.countGroupedByAvailabilityStatus()) {
+                driverCounts.put((Driver.AvailabilityStatus) row[0], ((Number) row[1]).longValue());
+            }
+            for (Map.Entry<Driver.AvailabilityStatus, LongAdder> entry : driversByAvailability.entrySet()) {
+                drift += Math.abs(correct(entry.getValue(), driverSnapshot.get(entry.getKey()),
+                        driverCounts.getOrDefault(entry.getKey(), 0L)));
+            }
+
+            reconcileToday();
+
+            if (drift > 0) {
+                log.debug("Dashboard counters reconciled, corrected drift of {}", drift);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Dashboard counter reconcile failed: {}", e.getMessage());
+        }
+    }
+
+    private void reconcileToday() {
+        DayTotals totals = currentDay();
+        LocalDateTime from = totals.day.atStartOfDay();
+        LocalDateTime to = from.plusDays(1);
+        long ordersBefore = totals.orders.sum();
+        double revenueBefore = totals.revenue.sum();
+
+        long orders = 0;
+        for (Object[] row : rollupRepository.sumByStatus(OrderHourlyRollup.Basis.CURRENT, from, to)) {
+            orders += ((Number) row[1]).longValue();
+        }
+        double revenue = 0.0;
+        for (Object[] row : rollupRepository.sumByStatus(OrderHourlyRollup.Basis.ENTERED, from, to)) {
+            if (row[0] == Order.OrderStatus.DELIVERED) {
+                revenue = ((Number) row[2]).doubleValue();
+            }
+        }
+
+        correct(totals.orders, ordersBefore, orders);
+        totals.revenue.add(revenue - revenueBefore);
+    }
+
+    private static <K extends Enum<K>> Map<K, Long> snapshot(Class<K> keyType, Map<K, LongAdder> counters) {
+        Map<K, Long> sums = new EnumMap<>(keyType);
+        counters.forEach((key, counter) -> sums.put(key, counter.sum()));
+        return sums;
+    }
+
+    /**
+     * Move the counter by the gap between the database and its value before the query
+     * Increments that land after the snapshot are kept on top of the corrected value.
+     * @return The correction applied
+     */
+    private static long correct(LongAdder counter, long before, long actual) {
+        long delta = actual - before;
+        if (delta != 0) {
+            counter.add(delta);
+        }
+        return delta;
+    }
+
+    private DayTotals currentDay() {
+        DayTotals totals = today.get();
+        LocalDate now = LocalDate.now();
+        if (totals.day.equals(now)) {
+            return totals;
+        }
+        DayTotals fresh = new DayTotals(now);
+        return today.compareAndSet(totals, fresh) ? fresh : today.get();
+    }
+
+    private static final class DayTotals {
+        private final LocalDate day;
+        private final LongAdder orders = new LongAdder();
+        private final DoubleAdder revenue = new DoubleAdder();
+
+        private DayTotals(LocalDate day) {
+            this.day = day;
+        }
+    }
+}
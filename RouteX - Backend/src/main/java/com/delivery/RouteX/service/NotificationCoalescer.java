@@ -0,0 +1,185 @@
+package com.delivery.RouteX.service;
+
+import com.delivery.RouteX.dto.notification.PendingNotification;
+import com.delivery.RouteX.model.Notification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Coalescing stage in front of NotificationWriter
+ * Committed notifications for the same user and related entity (order) are held
+ * for window-ms from the first one; anything arriving inside the window replaces
+ * the held notification, so a burst of status changes becomes one row and one
+ * push carrying the latest state.
+ *
+ * Terminal updates (delivered, cancelled, failed) release their key immediately,
+ * as do notifications without a related entity. Held notifications are only in
+ * memory, so up to window-ms of them can be lost on a crash. Disabled with
+ * window-ms=0 and in SYNC write mode.
+ */
+@Component
+@Slf4j
+public class NotificationCoalescer {
+
+    private static final Set<Notification.NotificationType> TERMINAL_TYPES = EnumSet.of(
+            Notification.NotificationType.ORDER_DELIVERED,
+            Notification.NotificationType.ORDER_CANCELLED,
+            Notification.NotificationType.ORDER_FAILED
+    );
+
+    private final NotificationWriter notificationWriter;
+    private final long windowMs;
+    private final int maxHeld;
+
+    // Guarded by this
+    private final Map<Key, Held> held = new HashMap<>();
+
+    private final Counter received;
+    private final Counter coalesced;
+
+    public NotificationCoalescer(
+            NotificationWriter notificationWriter,
+            MeterRegistry meterRegistry,
+            @Value("${app.notifications.coalesce.window-ms:3000}") long windowMs,
+            @Value("${app.notifications.coalesce.max-held:50000}") int maxHeld
+    ) {
+        this.notificationWriter = notificationWriter;
+        this.windowMs = windowMs;
+        this.maxHeld = maxHeld;
+
+        this.received = Counter.builder("routex.notifications.coalesce.received")
+                .description("Notifications submitted to the coalescer")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("routex.notifications.coalesce.merged")
+                .description("Notifications merged into one already held for the same user and entity")
+                .register(meterRegistry);
+        Gauge.builder("routex.notifications.coalesce.held", this, NotificationCoalescer::getHeldCount)
+                .description("Notifications waiting for their coalescing window to close")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Submit notifications created in the current transaction
+     * Nothing is held unless the transaction commits.
+     */
+    public void submit(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        if (windowMs <= 0 || notificationWriter.getMode() == NotificationWriter.WriteMode.SYNC) {
+            notificationWriter.write(notifications);
+            return;
+        }
+
+        List<PendingNotification> rows = notifications.stream().map(PendingNotification::from).toList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    hold(rows);
+                }
+            });
+        } else {
+            hold(rows);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.coalesce.flush-interval-ms:250}")
+    public void flushExpired() {
+        long now = System.currentTimeMillis();
+        List<PendingNotification> ready = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Held> iterator = held.values().iterator();
+            while (iterator.hasNext()) {
+                Held entry = iterator.next();
+                if (entry.deadline <= now) {
+                    ready.add(entry.row);
+                    iterator.remove();
+                }
+            }
+        }
+        notificationWriter.writeCommitted(ready);
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        List<PendingNotification> ready;
+        synchronized (this) {
+            ready = held.values().stream().map(entry -> entry.row).toList();
+            held.clear();
+        }
+        notificationWriter.writeCommitted(ready);
+    }
+
+    public synchronized int getHeldCount() {
+        return held.size();
+    }
+
+    private void hold(List<PendingNotification> rows) {
+        List<PendingNotification> ready = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + windowMs;
+
+        synchronized (this) {
+            for (PendingNotification row : rows) {
+                received.increment();
+                if (row.getRelatedEntityId() == null) {
+                    ready.add(row);
+                    continue;
+                }
+
+                Key key = new Key(row.getUserId(), row.getRelatedEntityId());
+                Held entry = held.get(key);
+                if (entry != null) {
+                    // Latest state wins; the window stays anchored at the first notification
+                    entry.row = row;
+                    coalesced.increment();
+                } else {
+                    entry = new Held(row, deadline);
+                    held.put(key, entry);
+                }
+
+                if (TERMINAL_TYPES.contains(row.getType())) {
+                    held.remove(key);
+                    ready.add(entry.row);
+                }
+            }
+
+            if (held.size() > maxHeld) {
+                log.warn("Coalescer holding {} notifications (max {}), flushing early", held.size(), maxHeld);
+                held.values().forEach(entry -> ready.add(entry.row));
+                held.clear();
+            }
+        }
+
+        notificationWriter.writeCommitted(ready);
+    }
+
+    private record Key(Long userId, String relatedEntityId) {
+    }
+
+    private static final class Held {
+        private PendingNotification row;
+        private final long deadline;
+
+        private Held(PendingNotification row, long deadline) {
+            this.row = row;
+            this.deadline = deadline;
+        }
+    }
+}
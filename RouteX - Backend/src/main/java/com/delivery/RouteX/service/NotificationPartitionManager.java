@@ -0,0 +1,135 @@
+package com.delivery.RouteX.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Monthly partitions for the notifications table
+ * Only active once the table has been converted with
+ * db/notifications-partitioning.sql. Keeps partitions created ahead of time
+ * and retires expired months by DETACH PARTITION, then drops the table or
+ * renames it to notifications_archive_yYYYYmMM.
+ *
+ * Retention only applies to read notifications: unread rows of a retired month
+ * are copied back into the parent first (landing in notifications_default, as
+ * their month no longer has a partition), all in one transaction per month.
+ * NotificationRetentionJob purges them from there once they have been read.
+ */
+@Component
+@Slf4j
+public class NotificationPartitionManager {
+
+    private static final String PARENT_TABLE = "notifications";
+    private static final Pattern PARTITION_NAME = Pattern.compile("notifications_y(\\d{4})m(\\d{2})");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+    private static final String COLUMNS = "id, user_id, type, title, message, is_read, " +
+            "related_entity_id, action_url, created_at, read_at, wal_key";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+
+    public NotificationPartitionManager(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.notifications.partitioning.months-ahead:3}") int monthsAhead
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        try {
+            if (isPartitioned()) {
+                ensureFuturePartitions();
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not check notification partitions: {}", e.getMessage());
+        }
+    }
+
+    public boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+                        "WHERE c.relname = ? AND pg_table_is_visible(c.oid)",
+                Integer.class, PARENT_TABLE);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Create partitions for the current month and the configured months ahead
+     */
+    public void ensureFuturePartitions() {
+        YearMonth month = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth target = month.plusMonths(i);
+            jdbcTemplate.execute(String.format(
+                    "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                    partitionName(target), PARENT_TABLE, target.atDay(1), target.plusMonths(1).atDay(1)));
+        }
+    }
+
+    /**
+     * Detach every partition whose whole month is older than the cutoff, keeping its unread rows
+     * @param archive true to keep detached partitions (read rows only) as archive tables, false to drop them
+     * @return Number of partitions retired
+     */
+    public int retirePartitionsBefore(LocalDate cutoff, boolean archive) {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "JOIN pg_class p ON p.oid = i.inhparent " +
+                        "WHERE p.relname = ? ORDER BY c.relname",
+                String.class, PARENT_TABLE);
+
+        int retired = 0;
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (!month.plusMonths(1).atDay(1).isAfter(cutoff)) {
+                Integer kept = transactionTemplate.execute(status -> retire(partition, archive));
+                retired++;
+                log.info("Retired notification partition {} ({}), {} unread notifications kept",
+                        partition, archive ? "archived" : "dropped", kept);
+            }
+        }
+        return retired;
+    }
+
+    private int retire(String partition, boolean archive) {
+        jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + partition);
+        int kept = jdbcTemplate.update("INSERT INTO " + PARENT_TABLE + " (" + COLUMNS + ") " +
+                "SELECT " + COLUMNS + " FROM " + partition + " WHERE is_read = false");
+        if (archive) {
+            jdbcTemplate.update("DELETE FROM " + partition + " WHERE is_read = false");
+            jdbcTemplate.execute("ALTER TABLE " + partition + " RENAME TO "
+                    + partition.replace("notifications_", "notifications_archive_"));
+        } else {
+            jdbcTemplate.execute("DROP TABLE " + partition);
+        }
+        return kept;
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARENT_TABLE + "_" + month.atDay(1).format(SUFFIX);
+    }
+}
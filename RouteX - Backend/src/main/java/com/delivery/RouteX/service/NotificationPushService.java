@@ -0,0 +1,205 @@
+package com.delivery.RouteX.service;
+
+import com.delivery.RouteX.Repository.NotificationRepository;
+import com.delivery.RouteX.dto.notification.NotificationResponse;
+import com.delivery.RouteX.dto.notification.PendingNotification;
+import com.delivery.RouteX.event.NotificationsPersistedEvent;
+import com.delivery.RouteX.model.Notification;
+import com.delivery.RouteX.util.LruCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Push delivery for new notifications
+ * - STOMP: /user/queue/notifications (STOMP principals are named by user id)
+ * - Long-poll: DeferredResult parked per user, completed from the persisted
+ *   event without touching the DB; servlet async, so no thread is held
+ *
+ * A per-user high-water mark (highest notification id known) lets polls that
+ * are already up to date park immediately instead of querying. The mark only
+ * sees notifications persisted on this node, so with app.websocket.cluster.mode
+ * set every poll queries first; a poll parked here is then completed by local
+ * notifications only, and picks up the others on the client's next poll.
+ */
+@Service
+@Slf4j
+public class NotificationPushService {
+
+    public static final String NOTIFICATION_QUEUE = "/queue/notifications";
+
+    // Matches findTop50ByUserIdAndIdGreaterThanOrderByIdAsc
+    private static final int POLL_PAGE_SIZE = 50;
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationRepository notificationRepository;
+    private final long maxPollTimeoutMs;
+    private final boolean localMarkIsComplete;
+
+    // userId -> highest notification id known to exist for the user
+    private final LruCache<Long, Long> highWaterMarks;
+
+    private final Map<Long, Set<PendingPoll>> parkedPolls = new ConcurrentHashMap<>();
+    private final AtomicInteger parkedCount = new AtomicInteger();
+
+    public NotificationPushService(
+            SimpMessagingTemplate messagingTemplate,
+            NotificationRepository notificationRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.notifications.poll.max-timeout-ms:60000}") long maxPollTimeoutMs,
+            @Value("${app.notifications.unread-cache.max-users:100000}") int maxUsers,
+            @Value("${app.websocket.cluster.mode:none}") String clusterMode
+    ) {
+        this.messagingTemplate = messagingTemplate;
+        this.notificationRepository = notificationRepository;
+        this.maxPollTimeoutMs = maxPollTimeoutMs;
+        this.localMarkIsComplete = "none".equalsIgnoreCase(clusterMode);
+        this.highWaterMarks = new LruCache<>(maxUsers);
+
+        Gauge.builder("routex.notifications.poll.parked", parkedCount, AtomicInteger::get)
+                .description("Long-poll requests waiting for a notification")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationsPersisted(NotificationsPersistedEvent event) {
+        Map<Long, List<NotificationResponse>> byUser = new LinkedHashMap<>();
+        for (PendingNotification notification : event.getNotifications()) {
+            byUser.computeIfAbsent(notification.getUserId(), id -> new ArrayList<>()).add(toResponse(notification));
+        }
+
+        byUser.forEach((userId, notifications) -> {
+            for (NotificationResponse notification : notifications) {
+                messagingTemplate.convertAndSendToUser(userId.toString(), NOTIFICATION_QUEUE, notification);
+            }
+
+            long maxId = notifications.stream()
+                    .map(NotificationResponse::getId)
+                    .filter(id -> id != null)
+                    .mapToLong(Long::longValue)
+                    .max()
+                    .orElse(0L);
+            raiseHighWaterMark(userId, maxId);
+            completeParkedPolls(userId, notifications);
+        });
+    }
+
+    /**
+     * Long-poll for notifications newer than sinceId
+     * Completes immediately if newer notifications exist, otherwise when one
+     * is created or the timeout expires (empty list).
+     */
+    public DeferredResult<List<NotificationResponse>> poll(Long userId, long sinceId, long timeoutMs) {
+        long timeout = Math.max(1000L, Math.min(timeoutMs, maxPollTimeoutMs));
+        DeferredResult<List<NotificationResponse>> result = new DeferredResult<>(timeout, List.of());
+
+        Long highWaterMark = highWaterMarks.get(userId);
+        if (!localMarkIsComplete || highWaterMark == null || highWaterMark > sinceId) {
+            List<NotificationResponse> newer = loadNewer(userId, sinceId);
+            if (!newer.isEmpty()) {
+                result.setResult(newer);
+                return result;
+            }
+        }
+
+        PendingPoll pending = new PendingPoll(sinceId, result);
+        parkedPolls.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(pending);
+        parkedCount.incrementAndGet();
+        result.onCompletion(() -> unpark(userId, pending));
+
+        // A notification may have landed between the check above and parking
+        Long latest = highWaterMarks.get(userId);
+        if (latest != null && latest > sinceId && !result.isSetOrExpired()) {
+            List<NotificationResponse> newer = loadNewer(userId, sinceId);
+            if (!newer.isEmpty()) {
+                result.setResult(newer);
+            }
+        }
+        return result;
+    }
+
+    private List<NotificationResponse> loadNewer(Long userId, long sinceId) {
+        List<Notification> notifications =
+                notificationRepository.findTop50ByUserIdAndIdGreaterThanOrderByIdAsc(userId, sinceId);
+
+        // Unless the page was full, nothing above the last returned id exists right now.
+        // An empty page raises nothing: sinceId comes from the client and may not exist.
+        if (!notifications.isEmpty() && notifications.size() < POLL_PAGE_SIZE) {
+            raiseHighWaterMark(userId, notifications.get(notifications.size() - 1).getId());
+        }
+        return notifications.stream().map(this::toResponse).toList();
+    }
+
+    private void completeParkedPolls(Long userId, List<NotificationResponse> notifications) {
+        Set<PendingPoll> polls = parkedPolls.get(userId);
+        if (polls == null) {
+            return;
+        }
+        for (PendingPoll poll : List.copyOf(polls)) {
+            List<NotificationResponse> newer = notifications.stream()
+                    .filter(notification -> notification.getId() != null && notification.getId() > poll.sinceId())
+                    .toList();
+            if (!newer.isEmpty()) {
+                poll.result().setResult(newer);
+            }
+        }
+    }
+
+    private void unpark(Long userId, PendingPoll pending) {
+        parkedPolls.computeIfPresent(userId, (id, polls) -> {
+            if (polls.remove(pending)) {
+                parkedCount.decrementAndGet();
+            }
+            return polls.isEmpty() ? null : polls;
+        });
+    }
+
+    private void raiseHighWaterMark(Long userId, long id) {
+        if (highWaterMarks.get(userId) == null) {
+            highWaterMarks.putIfAbsent(userId, id);
+        }
+        highWaterMarks.computeIfPresent(userId, (key, current) -> Math.max(current, id));
+    }
+
+    private NotificationResponse toResponse(PendingNotification notification) {
+        return NotificationResponse.builder()
+                .id(notification.getId())
+                .type(notification.getType())
+                .title(notification.getTitle())
+                .message(notification.getMessage())
+                .isRead(false)
+                .relatedEntityId(notification.getRelatedEntityId())
+                .actionUrl(notification.getActionUrl())
+                .createdAt(notification.getCreatedAt())
+                .build();
+    }
+
+    private NotificationResponse toResponse(Notification notification) {
+        return NotificationResponse.builder()
+                .id(notification.getId())
+                .type(notification.getType())
+                .title(notification.getTitle())
+                .message(notification.getMessage())
+                .isRead(notification.getIsRead())
+                .relatedEntityId(notification.getRelatedEntityId())
+                .actionUrl(notification.getActionUrl())
+                .createdAt(notification.getCreatedAt())
+                .build();
+    }
+
+    private record PendingPoll(long sinceId, DeferredResult<List<NotificationResponse>> result) {
+    }
+}
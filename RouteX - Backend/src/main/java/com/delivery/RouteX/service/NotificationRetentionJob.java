@@ -0,0 +1,123 @@
+package com.delivery.RouteX.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Retention for the notifications table
+ * - Partitioned table: expired months are detached (no DELETE of read rows);
+ *   their unread rows are moved back into the table first, where they land in
+ *   notifications_default. That partition is then purged like a plain table,
+ *   so those rows go once they have been read.
+ * - Plain table: read notifications older than retention-days are deleted (or
+ *   moved to notifications_archive) in chunks of batch-size rows, each chunk
+ *   its own short statement, throttled to max-rows-per-second so the purge
+ *   never competes with live traffic.
+ */
+@Component
+@Slf4j
+public class NotificationRetentionJob {
+
+    public enum RetentionMode {
+        DELETE,
+        ARCHIVE
+    }
+
+    private static final String TABLE = "notifications";
+    private static final String DEFAULT_PARTITION = "notifications_default";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationPartitionManager partitionManager;
+
+    @Value("${app.notifications.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.notifications.retention.days:90}")
+    private int retentionDays;
+
+    @Value("${app.notifications.retention.mode:DELETE}")
+    private RetentionMode mode;
+
+    @Value("${app.notifications.retention.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${app.notifications.retention.max-rows-per-second:20000}")
+    private int maxRowsPerSecond;
+
+    public NotificationRetentionJob(JdbcTemplate jdbcTemplate, NotificationPartitionManager partitionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitionManager = partitionManager;
+    }
+
+    @Scheduled(cron = "${app.notifications.retention.cron:0 30 3 * * *}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+            if (partitionManager.isPartitioned()) {
+                partitionManager.ensureFuturePartitions();
+                int retired = partitionManager.retirePartitionsBefore(
+                        cutoff.toLocalDate(), mode == RetentionMode.ARCHIVE);
+                log.info("Notification retention: {} partitions retired", retired);
+                purgeInChunks(DEFAULT_PARTITION, cutoff);
+                return;
+            }
+            purgeInChunks(TABLE, cutoff);
+        } catch (DataAccessException e) {
+            log.error("Notification retention failed: {}", e.getMessage());
+        }
+    }
+
+    private void purgeInChunks(String table, LocalDateTime cutoff) {
+        if (mode == RetentionMode.ARCHIVE) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS notifications_archive (LIKE notifications INCLUDING DEFAULTS)");
+        }
+
+        String chunkIds = "SELECT id FROM " + table + " WHERE is_read = true AND created_at < ? ORDER BY id LIMIT ?";
+        String sql = mode == RetentionMode.ARCHIVE
+                ? "WITH moved AS (DELETE FROM " + table + " WHERE id IN (" + chunkIds + ") RETURNING *) " +
+                  "INSERT INTO notifications_archive SELECT * FROM moved"
+                : "DELETE FROM " + table + " WHERE id IN (" + chunkIds + ")";
+
+        Timestamp cutoffTimestamp = Timestamp.valueOf(cutoff);
+        long total = 0;
+        long started = System.nanoTime();
+        int affected;
+        do {
+            long chunkStarted = System.nanoTime();
+            affected = jdbcTemplate.update(sql, cutoffTimestamp, batchSize);
+            total += affected;
+            throttle(affected, chunkStarted);
+        } while (affected == batchSize && !Thread.currentThread().isInterrupted());
+
+        log.info("Notification retention: {} read notifications older than {} {} from {} in {} ms",
+                total, cutoff.toLocalDate(), mode == RetentionMode.ARCHIVE ? "archived" : "deleted", table,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Sleep off whatever is left of the time budget for this chunk's rows
+    private void throttle(int rows, long chunkStartedNanos) {
+        if (maxRowsPerSecond <= 0 || rows == 0) {
+            return;
+        }
+        long budgetMs = rows * 1000L / maxRowsPerSecond;
+        long elapsedMs = (System.nanoTime() - chunkStartedNanos) / 1_000_000;
+        if (budgetMs > elapsedMs) {
+            try {
+                Thread.sleep(budgetMs - elapsedMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
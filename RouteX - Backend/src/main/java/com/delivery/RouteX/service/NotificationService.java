@@ -5,10 +5,18 @@ import com.delivery.RouteX.model.Notification;
 import com.delivery.RouteX.model.Order;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -16,6 +24,12 @@ import java.util.List;
 public class NotificationService {
 
     private final NotificationRepository notificationRepository;
+    private final NotificationCoalescer notificationCoalescer;
+    private final UnreadCountCache unreadCountCache;
+    private final EmailService emailService;
+
+    @Value("${app.base-url:}")
+    private String baseUrl;
 
     @Transactional
     public void sendOrderCreatedNotification(Order order) {
@@ -30,7 +44,13 @@ public class NotificationService {
                 .isRead(false)
                 .build();
 
-        notificationRepository.save(notification);
+        notificationCoalescer.submit(List.of(notification));
+        emailService.send(order.getCustomer().getUser().getEmail(), EmailTemplate.ORDER_CREATED, () -> Map.of(
+                "firstName", order.getCustomer().getUser().getFirstName(),
+                "orderNumber", order.getOrderNumber(),
+                "pickupAddress", order.getPickupAddress(),
+                "deliveryAddress", order.getDeliveryAddress(),
+                "trackingUrl", trackingUrl(order)));
         log.info("Order created notification sent to user {}", order.getCustomer().getUser().getId());
     }
 
@@ -56,8 +76,7 @@ public class NotificationService {
                 .actionUrl("/driver/orders/" + order.getId())
                 .build();
 
-        notificationRepository.save(customerNotification);
-        notificationRepository.save(driverNotification);
+        notificationCoalescer.submit(List.of(customerNotification, driverNotification));
         log.info("Driver assigned notifications sent");
     }
 
@@ -80,7 +99,17 @@ public class NotificationService {
                 .actionUrl("/customer/orders/" + order.getId())
                 .build();
 
-        notificationRepository.save(notification);
+        notificationCoalescer.submit(List.of(notification));
+
+        // Email only for outcomes, not every intermediate status
+        if (order.getStatus() == Order.OrderStatus.DELIVERED || order.getStatus() == Order.OrderStatus.FAILED) {
+            emailService.send(order.getCustomer().getUser().getEmail(), EmailTemplate.ORDER_STATUS, () -> Map.of(
+                    "firstName", order.getCustomer().getUser().getFirstName(),
+                    "orderNumber", order.getOrderNumber(),
+                    "status", order.getStatus(),
+                    "message", message,
+                    "trackingUrl", trackingUrl(order)));
+        }
         log.info("Order status notification sent for order {}", order.getOrderNumber());
     }
 
@@ -95,7 +124,8 @@ public class NotificationService {
                 .relatedEntityId(order.getId().toString())
                 .build();
 
-        notificationRepository.save(customerNotification);
+        List<Notification> notifications = new ArrayList<>();
+        notifications.add(customerNotification);
 
         if (order.getDriver() != null) {
             Notification driverNotification = Notification.builder()
@@ -106,9 +136,15 @@ public class NotificationService {
                     .relatedEntityId(order.getId().toString())
                     .build();
 
-            notificationRepository.save(driverNotification);
+            notifications.add(driverNotification);
         }
 
+        notificationCoalescer.submit(notifications);
+        emailService.send(order.getCustomer().getUser().getEmail(), EmailTemplate.ORDER_CANCELLED, () -> Map.of(
+                "firstName", order.getCustomer().getUser().getFirstName(),
+                "orderNumber", order.getOrderNumber(),
+                "reason", order.getCancellationReason() != null ? order.getCancellationReason() : "not given"));
+
         log.info("Order cancelled notifications sent for order {}", order.getOrderNumber());
     }
 
@@ -117,14 +153,22 @@ public class NotificationService {
         return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
     }
 
+    @Transactional(readOnly = true)
+    public List<Notification> getUserNotifications(Long userId, int page, int size) {
+        Pageable pageable = PageRequest.of(page, Math.min(Math.max(size, 1), 200));
+        return notificationRepository.findUserNotifications(userId, pageable).getContent();
+    }
+
     @Transactional(readOnly = true)
     public List<Notification> getUnreadNotifications(Long userId) {
         return notificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId);
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Served from UnreadCountCache; only the first read per user hits the DB
+     */
     public Long getUnreadCount(Long userId) {
-        return notificationRepository.countByUserIdAndIsReadFalse(userId);
+        return unreadCountCache.getUnreadCount(userId);
     }
 
     @Transactional
@@ -136,19 +180,40 @@ public class NotificationService {
             throw new RuntimeException("Access denied");
         }
 
+        if (Boolean.TRUE.equals(notification.getIsRead())) {
+            return;
+        }
+
         notification.markAsRead();
         notificationRepository.save(notification);
+        afterCommit(() -> unreadCountCache.decrement(userId, 1));
     }
 
     @Transactional
     public void markAllAsRead(Long userId) {
-        List<Notification> unreadNotifications =
-                notificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId);
+        // Single set-based UPDATE instead of loading and saving every unread row
+        int updated = notificationRepository.markAllAsRead(userId, LocalDateTime.now());
+
+        afterCommit(() -> unreadCountCache.reset(userId));
 
-        unreadNotifications.forEach(Notification::markAsRead);
-        notificationRepository.saveAll(unreadNotifications);
+        log.info("Marked {} notifications as read for user {}", updated, userId);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
 
-        log.info("Marked {} notifications as read for user {}", unreadNotifications.size(), userId);
+    private String trackingUrl(Order order) {
+        return baseUrl + "/track/" + order.getOrderNumber();
     }
 
     private Notification.NotificationType getNotificationTypeForStatus(Order.OrderStatus status) {
@@ -0,0 +1,228 @@
+package com.delivery.RouteX.service;
+
+import com.delivery.RouteX.dto.notification.PendingNotification;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Append-only local log for queued notifications (ASYNC_WAL mode)
+ * Each append is one JSON line tagged with a log sequence number and fsynced
+ * before returning. The writer checkpoints the highest lsn below which every
+ * group is inserted (or dead-lettered); on startup everything after the
+ * checkpoint is replayed. Rows carry keyOf(lsn, index) into wal_key, which is
+ * unique, so a crash between insert and checkpoint does not duplicate them.
+ *
+ * The log id is generated once per directory so keys stay unique if the
+ * directory is wiped and lsns start over.
+ */
+@Slf4j
+public class NotificationWal implements AutoCloseable {
+
+    private static final String LOG_FILE = "notifications.wal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String ID_FILE = "wal-id";
+    private static final String DEAD_LETTER_FILE = "dead-letters.jsonl";
+
+    private final Path logPath;
+    private final Path checkpointPath;
+    private final Path deadLetterPath;
+    private final String walId;
+    private final ObjectMapper objectMapper;
+    private final FileChannel channel;
+
+    private long lastAppendedLsn;
+    private long checkpointLsn;
+
+    // Read at open, before any append can reuse their lsns
+    private List<Record> recovered;
+
+    public NotificationWal(Path directory, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.logPath = directory.resolve(LOG_FILE);
+        this.checkpointPath = directory.resolve(CHECKPOINT_FILE);
+        this.deadLetterPath = directory.resolve(DEAD_LETTER_FILE);
+        try {
+            Files.createDirectories(directory);
+            this.walId = readOrCreateId(directory.resolve(ID_FILE));
+            this.checkpointLsn = Files.exists(checkpointPath)
+                    ? Long.parseLong(Files.readString(checkpointPath).trim())
+                    : 0L;
+            this.lastAppendedLsn = checkpointLsn;
+            this.recovered = Files.exists(logPath) ? readPending() : new ArrayList<>();
+            this.channel = FileChannel.open(logPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            terminateTornLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open notification WAL in " + directory, e);
+        }
+    }
+
+    private static String readOrCreateId(Path idPath) throws IOException {
+        if (Files.exists(idPath)) {
+            return Files.readString(idPath).trim();
+        }
+        String id = UUID.randomUUID().toString();
+        Path temp = idPath.resolveSibling(ID_FILE + ".tmp");
+        Files.writeString(temp, id);
+        Files.move(temp, idPath, StandardCopyOption.ATOMIC_MOVE);
+        return id;
+    }
+
+    /**
+     * Idempotency key of the index-th notification of the group at lsn
+     */
+    public String keyOf(long lsn, int index) {
+        return walId + ":" + lsn + ":" + index;
+    }
+
+    public synchronized long getLastAppendedLsn() {
+        return lastAppendedLsn;
+    }
+
+    /**
+     * Records that were appended but not checkpointed before the last shutdown
+     * Returned once; later calls return an empty list.
+     */
+    public synchronized List<Record> recover() {
+        List<Record> pending = recovered;
+        recovered = new ArrayList<>();
+        return pending;
+    }
+
+    private List<Record> readPending() throws IOException {
+        List<Record> pending = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(logPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Record record;
+                try {
+                    record = objectMapper.readValue(line, Record.class);
+                } catch (JacksonException e) {
+                    // Torn write from a crash mid-append, never acknowledged
+                    log.warn("Ignoring unreadable notification WAL entry: {}", e.getMessage());
+                    continue;
+                }
+                lastAppendedLsn = Math.max(lastAppendedLsn, record.getLsn());
+                if (record.getLsn() > checkpointLsn) {
+                    pending.add(record);
+                }
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Make sure the next append starts on a fresh line after a crash mid-append
+     */
+    private void terminateTornLine() throws IOException {
+        long size = channel.size();
+        channel.position(size);
+        if (size == 0) {
+            return;
+        }
+        ByteBuffer last = ByteBuffer.allocate(1);
+        channel.read(last, size - 1);
+        if (last.get(0) != '\n') {
+            channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+        }
+    }
+
+    /**
+     * Durably append a group of notifications
+     * @return lsn to pass to checkpoint once the group is inserted
+     */
+    public synchronized long append(List<PendingNotification> notifications) {
+        long lsn = ++lastAppendedLsn;
+        byte[] line = (objectMapper.writeValueAsString(new Record(lsn, notifications)) + "\n")
+                .getBytes(StandardCharsets.UTF_8);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to notification WAL", e);
+        }
+        return lsn;
+    }
+
+    /**
+     * Mark everything up to lsn as inserted; truncates the log once fully caught up
+     */
+    public synchronized void checkpoint(long lsn) {
+        if (lsn <= checkpointLsn) {
+            return;
+        }
+        checkpointLsn = lsn;
+        try {
+            Path temp = checkpointPath.resolveSibling(CHECKPOINT_FILE + ".tmp");
+            Files.writeString(temp, Long.toString(lsn));
+            Files.move(temp, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (checkpointLsn >= lastAppendedLsn) {
+                channel.truncate(0);
+                channel.position(0);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to checkpoint notification WAL at {}: {}", lsn, e.getMessage());
+        }
+    }
+
+    /**
+     * Durably set aside notifications the writer gave up on, so their group can be checkpointed
+     */
+    public synchronized void deadLetter(List<PendingNotification> notifications) {
+        StringBuilder lines = new StringBuilder();
+        for (PendingNotification notification : notifications) {
+            lines.append(objectMapper.writeValueAsString(notification)).append('\n');
+        }
+        try (FileChannel deadLetters = FileChannel.open(deadLetterPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                deadLetters.write(buffer);
+            }
+            deadLetters.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to notification dead-letter log", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Failed to close notification WAL: {}", e.getMessage());
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Record {
+        private long lsn;
+        private List<PendingNotification> notifications;
+    }
+}
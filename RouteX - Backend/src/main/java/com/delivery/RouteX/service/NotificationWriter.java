@@ -0,0 +1,482 @@
+package com.delivery.RouteX.service;
+
+import com.delivery.RouteX.dto.notification.PendingNotification;
+import com.delivery.RouteX.event.NotificationsPersistedEvent;
+import com.delivery.RouteX.model.Notification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Batched writer for notification rows
+ * Notification has an IDENTITY id, so JPA cannot batch its inserts. This writer
+ * inserts rows with one multi-row INSERT ... RETURNING id per batch instead.
+ *
+ * app.notifications.write-mode:
+ * - SYNC: insert in the caller's transaction (one statement per call)
+ * - ASYNC: queue after commit, a background thread inserts in batches; queued
+ *   rows are lost if the process dies
+ * - ASYNC_WAL: as ASYNC, but each group is fsynced to a local log after commit
+ *   and replayed on startup; replayed rows that were already inserted are
+ *   skipped through their unique wal_key
+ *
+ * Every row carries a wal_key, also outside ASYNC_WAL (there one unique per
+ * writer instance), since it is how rows returned by INSERT ... RETURNING are
+ * matched back to their notifications: PostgreSQL does not promise to return
+ * them in VALUES order.
+ *
+ * When the queue is full the caller inserts its own rows in a new transaction
+ * (backpressure, no drops); the caller's own transaction has already committed.
+ * A batch that still fails after retries is retried every retry-interval-ms,
+ * up to max-retry-rounds, then dropped (ASYNC) or moved to the WAL's
+ * dead-letter log (ASYNC_WAL), so one bad batch never pins the checkpoint.
+ */
+@Component
+@Slf4j
+public class NotificationWriter {
+
+    public enum WriteMode {
+        SYNC,
+        ASYNC,
+        ASYNC_WAL
+    }
+
+    private static final String INSERT_PREFIX = "INSERT INTO notifications " +
+            "(user_id, type, title, message, is_read, related_entity_id, action_url, created_at, wal_key) VALUES ";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, false, ?, ?, ?, ?)";
+    private static final String INSERT_SUFFIX = " ON CONFLICT (wal_key, created_at) DO NOTHING RETURNING id, wal_key";
+
+    // 8 bind parameters per row, well under the driver's 32767 limit
+    private static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_MS = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate newTransaction;
+    private final WriteMode mode;
+    private final int batchSize;
+    private final long retryIntervalMs;
+    private final int maxRetryRounds;
+    private final NotificationWal wal;
+    private final BlockingQueue<QueuedNotification> queue;
+
+    // wal_key for rows that are not in the WAL: random per instance, so never equal to a WAL key or a previous run's
+    private final String rowKeyPrefix = UUID.randomUUID() + ":";
+    private final AtomicLong rowKeySequence = new AtomicLong();
+
+    // Groups left in the WAL by the previous run, queued by start()
+    private List<NotificationWal.Record> recovered = List.of();
+
+    // lsn -> rows of that WAL group not yet inserted or dead-lettered; guarded by itself
+    private final TreeMap<Long, Integer> unresolved = new TreeMap<>();
+
+    // Batches that failed all immediate attempts, retried by the writer thread
+    private final ConcurrentLinkedQueue<DeferredBatch> deferred = new ConcurrentLinkedQueue<>();
+
+    private final Timer batchTimer;
+    private final Counter persisted;
+    private final Counter overflow;
+    private final Counter failed;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public NotificationWriter(
+            JdbcTemplate jdbcTemplate,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.notifications.write-mode:ASYNC}") WriteMode mode,
+            @Value("${app.notifications.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.notifications.batch-size:200}") int batchSize,
+            @Value("${app.notifications.wal-dir:./data/notification-wal}") String walDir,
+            @Value("${app.notifications.retry-interval-ms:30000}") long retryIntervalMs,
+            @Value("${app.notifications.max-retry-rounds:10}") int maxRetryRounds
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.mode = mode;
+        this.batchSize = batchSize;
+        this.retryIntervalMs = retryIntervalMs;
+        this.maxRetryRounds = maxRetryRounds;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.wal = mode == WriteMode.ASYNC_WAL ? new NotificationWal(Path.of(walDir), objectMapper) : null;
+        if (wal != null) {
+            // Registered before any new group can be appended and checkpointed past them
+            recovered = wal.recover();
+            for (NotificationWal.Record record : recovered) {
+                unresolved.put(record.getLsn(), record.getNotifications().size());
+            }
+        }
+
+        // Caller-side inserts run from afterCommit callbacks, outside the caller's transaction
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.batchTimer = Timer.builder("routex.notifications.write")
+                .description("Time to insert one notification batch")
+                .register(meterRegistry);
+        this.persisted = Counter.builder("routex.notifications.persisted")
+                .description("Notification rows inserted")
+                .register(meterRegistry);
+        this.overflow = Counter.builder("routex.notifications.overflow")
+                .description("Notification groups written by the caller because the queue was full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("routex.notifications.failed")
+                .description("Notification rows given up on after retries")
+                .register(meterRegistry);
+        Gauge.builder("routex.notifications.queue.depth", queue, BlockingQueue::size)
+                .description("Notifications waiting for the background writer")
+                .register(meterRegistry);
+        Gauge.builder("routex.notifications.deferred", deferred, ConcurrentLinkedQueue::size)
+                .description("Failed notification batches waiting for a later retry")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Write notifications according to the configured mode
+     * In the async modes nothing is queued unless the surrounding transaction commits.
+     */
+    public void write(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        List<PendingNotification> rows = notifications.stream().map(PendingNotification::from).toList();
+
+        if (mode == WriteMode.SYNC) {
+            insert(unqueued(rows));
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(rows);
+                }
+            });
+        } else {
+            enqueue(rows);
+        }
+    }
+
+    /**
+     * Write rows whose originating transaction has already committed (e.g. from
+     * NotificationCoalescer); queued right away in the async modes
+     */
+    public void writeCommitted(List<PendingNotification> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        if (mode == WriteMode.SYNC) {
+            newTransaction.executeWithoutResult(status -> insert(unqueued(rows)));
+        } else {
+            enqueue(rows);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (mode == WriteMode.SYNC || running) {
+            return;
+        }
+        int replayed = 0;
+        for (NotificationWal.Record record : recovered) {
+            offer(record.getNotifications(), record.getLsn());
+            replayed += record.getNotifications().size();
+        }
+        recovered = List.of();
+        if (replayed > 0) {
+            log.info("Replaying {} notifications from the WAL", replayed);
+        }
+
+        running = true;
+        writerThread = new Thread(this::drainLoop, "notification-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Notification writer started in {} mode", mode);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writerThread != null) {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        if (wal != null) {
+            wal.close();
+        }
+    }
+
+    public WriteMode getMode() {
+        return mode;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void enqueue(List<PendingNotification> rows) {
+        long lsn = 0L;
+        if (wal != null) {
+            // Appending and registering together keeps a checkpoint from passing an unregistered group
+            synchronized (unresolved) {
+                lsn = wal.append(rows);
+                unresolved.put(lsn, rows.size());
+            }
+        }
+        offer(rows, lsn);
+    }
+
+    private void offer(List<PendingNotification> rows, long lsn) {
+        List<QueuedNotification> rejected = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            QueuedNotification queued = new QueuedNotification(rows.get(i), lsn, wal != null ? wal.keyOf(lsn, i) : nextRowKey());
+            if (!queue.offer(queued)) {
+                rejected.add(queued);
+            }
+        }
+        if (!rejected.isEmpty()) {
+            overflow.increment();
+            insertInNewTransaction(rejected);
+        }
+    }
+
+    private void insertInNewTransaction(List<QueuedNotification> rows) {
+        try {
+            newTransaction.executeWithoutResult(status -> insert(rows));
+            resolve(rows);
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Overflow insert of {} notifications failed, deferring: {}", rows.size(), e.getMessage());
+            deferred.add(new DeferredBatch(List.copyOf(rows), System.currentTimeMillis() + retryIntervalMs));
+        }
+    }
+
+    private void drainLoop() {
+        List<QueuedNotification> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                retryDeferred();
+                QueuedNotification first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                persistBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+        if (!deferred.isEmpty()) {
+            int rows = deferred.stream().mapToInt(entry -> entry.rows.size()).sum();
+            if (wal != null) {
+                log.warn("Notification writer stopped with {} notifications deferred, kept in the WAL for replay", rows);
+            } else {
+                log.error("Notification writer stopped with {} notifications deferred, dropping them", rows);
+            }
+        }
+    }
+
+    private void persistBatch(List<QueuedNotification> batch) throws InterruptedException {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                insert(batch);
+                resolve(batch);
+                return;
+            } catch (DataAccessException e) {
+                log.warn("Notification batch of {} failed (attempt {}/{}): {}",
+                        batch.size(), attempt, MAX_ATTEMPTS, e.getMessage());
+                Thread.sleep(RETRY_BACKOFF_MS * attempt);
+            }
+        }
+        log.warn("Deferring {} notifications for {} ms", batch.size(), retryIntervalMs);
+        deferred.add(new DeferredBatch(List.copyOf(batch), System.currentTimeMillis() + retryIntervalMs));
+    }
+
+    /**
+     * One attempt per due batch; gives up after max-retry-rounds
+     */
+    private void retryDeferred() {
+        long now = System.currentTimeMillis();
+        Iterator<DeferredBatch> iterator = deferred.iterator();
+        while (iterator.hasNext()) {
+            DeferredBatch entry = iterator.next();
+            if (entry.nextAttemptAt > now) {
+                continue;
+            }
+            try {
+                insert(entry.rows);
+                iterator.remove();
+                resolve(entry.rows);
+            } catch (DataAccessException e) {
+                if (++entry.rounds < maxRetryRounds) {
+                    entry.nextAttemptAt = now + retryIntervalMs;
+                    continue;
+                }
+                iterator.remove();
+                giveUp(entry.rows, e);
+            }
+        }
+    }
+
+    private void giveUp(List<QueuedNotification> rows, DataAccessException cause) {
+        failed.increment(rows.size());
+        if (wal == null) {
+            log.error("Dropping {} notifications after {} retry rounds: {}", rows.size(), maxRetryRounds, cause.getMessage());
+            return;
+        }
+        try {
+            wal.deadLetter(rows.stream().map(QueuedNotification::row).toList());
+            resolve(rows);
+            log.error("Moved {} notifications to the WAL dead-letter log after {} retry rounds: {}",
+                    rows.size(), maxRetryRounds, cause.getMessage());
+        } catch (RuntimeException e) {
+            // Left unresolved: still in the WAL and replayed on restart
+            log.error("Failed to dead-letter {} notifications, kept in the WAL for replay: {}", rows.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Mark rows as inserted (or dead-lettered) and checkpoint up to the oldest group still pending
+     */
+    private void resolve(List<QueuedNotification> rows) {
+        if (wal == null) {
+            return;
+        }
+        synchronized (unresolved) {
+            for (QueuedNotification row : rows) {
+                unresolved.computeIfPresent(row.lsn(), (lsn, remaining) -> remaining > 1 ? remaining - 1 : null);
+            }
+            wal.checkpoint(unresolved.isEmpty() ? wal.getLastAppendedLsn() : unresolved.firstKey() - 1);
+        }
+    }
+
+    private void insert(List<QueuedNotification> rows) {
+        List<PendingNotification> inserted = new ArrayList<>(rows.size());
+        for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<QueuedNotification> chunk = rows.subList(from, Math.min(rows.size(), from + MAX_ROWS_PER_STATEMENT));
+            List<PendingNotification> chunkInserted = batchTimer.record(() -> insertChunk(chunk));
+            persisted.increment(chunkInserted.size());
+            inserted.addAll(chunkInserted);
+        }
+        if (!inserted.isEmpty()) {
+            eventPublisher.publishEvent(new NotificationsPersistedEvent(inserted));
+        }
+    }
+
+    /**
+     * @return The rows actually inserted, with their ids; rows whose wal_key already exists are skipped
+     */
+    private List<PendingNotification> insertChunk(List<QueuedNotification> chunk) {
+        String sql = INSERT_PREFIX + String.join(", ", Collections.nCopies(chunk.size(), INSERT_ROW)) + INSERT_SUFFIX;
+
+        List<InsertedRow> returned = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            int index = 1;
+            for (QueuedNotification queued : chunk) {
+                PendingNotification row = queued.row();
+                statement.setLong(index++, row.getUserId());
+                statement.setString(index++, row.getType().name());
+                statement.setString(index++, row.getTitle());
+                statement.setString(index++, row.getMessage());
+                setNullableString(statement, index++, row.getRelatedEntityId());
+                setNullableString(statement, index++, row.getActionUrl());
+                statement.setTimestamp(index++, Timestamp.valueOf(row.getCreatedAt()));
+                setNullableString(statement, index++, queued.walKey());
+            }
+            return statement;
+        }, (resultSet, rowNum) -> new InsertedRow(resultSet.getLong(1), resultSet.getString(2)));
+
+        // Matched by key: RETURNING order is not guaranteed to follow VALUES order
+        Map<String, Long> idsByKey = new HashMap<>(returned.size() * 2);
+        for (InsertedRow row : returned) {
+            idsByKey.put(row.walKey(), row.id());
+        }
+        List<PendingNotification> inserted = new ArrayList<>(returned.size());
+        for (QueuedNotification queued : chunk) {
+            Long id = idsByKey.get(queued.walKey());
+            if (id != null) {
+                PendingNotification notification = queued.row();
+                notification.setId(id);
+                inserted.add(notification);
+            }
+        }
+        return inserted;
+    }
+
+    private List<QueuedNotification> unqueued(List<PendingNotification> rows) {
+        return rows.stream().map(row -> new QueuedNotification(row, 0L, nextRowKey())).toList();
+    }
+
+    private String nextRowKey() {
+        return rowKeyPrefix + rowKeySequence.incrementAndGet();
+    }
+
+    private static void setNullableString(PreparedStatement statement, int index, String value) throws SQLException {
+        if (value != null) {
+            statement.setString(index, value);
+        } else {
+            statement.setNull(index, Types.VARCHAR);
+        }
+    }
+
+    private record QueuedNotification(PendingNotification row, long lsn, String walKey) {
+    }
+
+    private record InsertedRow(long id, String walKey) {
+    }
+
+    private static final class DeferredBatch {
+        private final List<QueuedNotification> rows;
+        private long nextAttemptAt;
+        private int rounds;
+
+        private DeferredBatch(List<QueuedNotification> rows, long nextAttemptAt) {
+            this.rows = rows;
+            this.nextAttemptAt = nextAttemptAt;
+        }
+    }
+}
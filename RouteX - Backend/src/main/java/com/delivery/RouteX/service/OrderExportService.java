@@ -0,0 +1,208 @@
+package com.delivery.RouteX.service;
+
+import com.delivery.RouteX.exception.BadRequestException;
+import com.delivery.RouteX.model.Order;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzipped CSV exports of orders and revenue
+ * Rows are read through a forward-only server-side cursor and written to the
+ * output as they arrive, so memory use does not depend on the row count. The
+ * caller owns the output stream (typically the HTTP response).
+ */
+@Service
+@Slf4j
+public class OrderExportService {
+
+    private static final String ORDERS_HEADER = "order_number,status,created_at,picked_up_at,delivered_at," +
+            "customer_id,driver_id,package_type,package_weight_kg,distance_km,base_fare,distance_charge," +
+            "weight_charge,peak_hour_surcharge,discount,total_amount,promo_code";
+
+    private static final String ORDERS_QUERY = "SELECT order_number, status, created_at, actual_pickup_time, " +
+            "actual_delivery_time, customer_id, driver_id, package_type, package_weight, distance_km, base_fare, " +
+            "distance_charge, weight_charge, peak_hour_surcharge, discount, total_amount, promo_code " +
+            "FROM orders WHERE created_at >= ? AND created_at < ? ";
+
+    private static final String REVENUE_HEADER = "hour,delivered_orders,revenue,distance_km";
+
+    private static final String REVENUE_QUERY = "SELECT bucket_start, order_count, revenue_sum, distance_sum " +
+            "FROM order_hourly_rollups WHERE basis = 'ENTERED' AND status = 'DELIVERED' " +
+            "AND bucket_start >= ? AND bucket_start < ? ORDER BY bucket_start";
+
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public OrderExportService(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.export.fetch-size:10000}") int fetchSize
+    ) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        // PostgreSQL only uses a cursor for the fetch size inside a transaction
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Write orders created in [from, to), optionally only those in one status
+     * @return Number of rows written
+     */
+    public long exportOrders(LocalDateTime from, LocalDateTime to, Order.OrderStatus status, OutputStream out)
+            throws IOException {
+        validateRange(from, to);
+        String sql = ORDERS_QUERY + (status != null ? "AND status = ? " : "") + "ORDER BY created_at";
+        Object[] args = status != null
+                ? new Object[]{Timestamp.valueOf(from), Timestamp.valueOf(to), status.name()}
+                : new Object[]{Timestamp.valueOf(from), Timestamp.valueOf(to)};
+
+        return export("orders", sql, args, ORDERS_HEADER, out, (rs, line) -> {
+            appendText(line, rs.getString(1)).append(',');
+            appendText(line, rs.getString(2)).append(',');
+            appendTimestamp(line, rs.getTimestamp(3)).append(',');
+            appendTimestamp(line, rs.getTimestamp(4)).append(',');
+            appendTimestamp(line, rs.getTimestamp(5)).append(',');
+            appendLong(line, rs, 6).append(',');
+            appendLong(line, rs, 7).append(',');
+            appendText(line, rs.getString(8)).append(',');
+            for (int column = 9; column <= 16; column++) {
+                appendDouble(line, rs, column).append(',');
+            }
+            appendText(line, rs.getString(17));
+        });
+    }
+
+    /**
+     * Write delivered orders and revenue per hour for [from, to) from the hourly rollups
+     * @return Number of rows written
+     */
+    public long exportRevenue(LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        validateRange(from, to);
+        Object[] args = {Timestamp.valueOf(OrderRollupService.bucketOf(from)), Timestamp.valueOf(to)};
+
+        return export("revenue", REVENUE_QUERY, args, REVENUE_HEADER, out, (rs, line) -> {
+            appendTimestamp(line, rs.getTimestamp(1)).append(',');
+            appendLong(line, rs, 2).append(',');
+            appendDouble(line, rs, 3).append(',');
+            appendDouble(line, rs, 4);
+        });
+    }
+
+    private long export(String name, String sql, Object[] args, String header, OutputStream out, RowFormatter formatter)
+            throws IOException {
+        long started = System.nanoTime();
+        long[] rows = {0};
+
+        GZIPOutputStream gzip = new GZIPOutputStream(out, WRITE_BUFFER_BYTES);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), WRITE_BUFFER_BYTES);
+        writer.write(header);
+        writer.write('\n');
+
+        StringBuilder line = new StringBuilder(256);
+        try {
+            readOnlyTransaction.executeWithoutResult(status ->
+                    jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                        line.setLength(0);
+                        formatter.format(rs, line);
+                        line.append('\n');
+                        try {
+                            writer.append(line);
+                        } catch (IOException e) {
+                            // Client went away; abort the cursor instead of reading the rest
+                            throw new UncheckedIOException(e);
+                        }
+                        rows[0]++;
+                    }, args));
+        } catch (UncheckedIOException e) {
+            log.info("Export of {} aborted after {} rows: {}", name, rows[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+
+        writer.flush();
+        gzip.finish();
+        log.info("Exported {} {} rows in {} ms", rows[0], name, (System.nanoTime() - started) / 1_000_000);
+        return rows[0];
+    }
+
+    /**
+     * Checked before the response is committed, since errors while streaming can no longer change the status
+     */
+    public void validateRange(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("startDate must be before endDate");
+        }
+    }
+
+    /**
+     * Append a CSV cell, quoted when needed
+     * Cells a spreadsheet would read as a formula get a leading quote so they stay text.
+     */
+    static StringBuilder appendText(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        if (!value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return line.append(value);
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        return line.append('"');
+    }
+
+    private static StringBuilder appendTimestamp(StringBuilder line, Timestamp value) {
+        return value == null ? line : line.append(value.toLocalDateTime());
+    }
+
+    private static StringBuilder appendLong(StringBuilder line, ResultSet rs, int column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? line : line.append(value);
+    }
+
+    private static StringBuilder appendDouble(StringBuilder line, ResultSet rs, int column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? line : line.append(value);
+    }
+
+    @FunctionalInterface
+    private interface RowFormatter {
+        void format(ResultSet rs, StringBuilder line) throws SQLException;
+    }
+}
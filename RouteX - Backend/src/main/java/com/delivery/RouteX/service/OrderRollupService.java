@@ -0,0 +1,161 @@
+package com.delivery.RouteX.service;
+
+import com.delivery.RouteX.Repository.OrderHourlyRollupRepository;
+import com.delivery.RouteX.event.OrderStatusChangedEvent;
+import com.delivery.RouteX.model.Order;
+import com.delivery.RouteX.model.OrderHourlyRollup;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Maintains order_hourly_rollups
+ * Every order status change upserts its rollup rows in the order's own
+ * transaction (BEFORE_COMMIT, so the row locks are held only for the commit),
+ * which keeps the rollups exactly as consistent as the orders themselves.
+ * History is rebuilt from orders and order_tracking by rebuild(), one day per
+ * transaction; on startup an empty rollup table is backfilled in the background.
+ */
+@Service
+@Slf4j
+public class OrderRollupService {
+
+    private static final String UPSERT = "INSERT INTO order_hourly_rollups " +
+            "(bucket_start, basis, status, order_count, revenue_sum, distance_sum) VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (bucket_start, basis, status) DO UPDATE SET " +
+            "order_count = order_hourly_rollups.order_count + EXCLUDED.order_count, " +
+            "revenue_sum = order_hourly_rollups.revenue_sum + EXCLUDED.revenue_sum, " +
+            "distance_sum = order_hourly_rollups.distance_sum + EXCLUDED.distance_sum";
+
+    private static final String REBUILD_CURRENT = "INSERT INTO order_hourly_rollups " +
+            "(bucket_start, basis, status, order_count, revenue_sum, distance_sum) " +
+            "SELECT date_trunc('hour', created_at), 'CURRENT', status, COUNT(*), " +
+            "COALESCE(SUM(total_amount), 0), COALESCE(SUM(distance_km), 0) " +
+            "FROM orders WHERE created_at >= ? AND created_at < ? " +
+            "GROUP BY date_trunc('hour', created_at), status";
+
+    // Orders are created PENDING without a tracking row; every later status has one
+    private static final String REBUILD_ENTERED = "INSERT INTO order_hourly_rollups " +
+            "(bucket_start, basis, status, order_count, revenue_sum, distance_sum) " +
+            "SELECT bucket, 'ENTERED', status, COUNT(*), COALESCE(SUM(total_amount), 0), COALESCE(SUM(distance_km), 0) " +
+            "FROM (" +
+            "  SELECT date_trunc('hour', o.created_at) AS bucket, 'PENDING' AS status, o.total_amount, o.distance_km " +
+            "  FROM orders o WHERE o.created_at >= ? AND o.created_at < ? " +
+            "  UNION ALL " +
+            "  SELECT date_trunc('hour', t.timestamp), t.status, o.total_amount, o.distance_km " +
+            "  FROM order_tracking t JOIN orders o ON o.id = t.order_id " +
+            "  WHERE t.timestamp >= ? AND t.timestamp < ? AND t.status <> 'PENDING'" +
+            ") entered GROUP BY bucket, status";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderHourlyRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean backfillOnStartup;
+
+    public OrderRollupService(
+            JdbcTemplate jdbcTemplate,
+            OrderHourlyRollupRepository rollupRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.analytics.rollups.backfill-on-startup:true}") boolean backfillOnStartup
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.backfillOnStartup = backfillOnStartup;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getCreatedAt() == null) {
+            return;
+        }
+        LocalDateTime createdBucket = bucketOf(event.getCreatedAt());
+        double revenue = event.getTotalAmount() != null ? event.getTotalAmount() : 0.0;
+        double distance = event.getDistanceKm() != null ? event.getDistanceKm() : 0.0;
+
+        List<Object[]> deltas = new ArrayList<>(3);
+        if (event.getPreviousStatus() == null) {
+            deltas.add(delta(createdBucket, OrderHourlyRollup.Basis.ENTERED, Order.OrderStatus.PENDING, 1, revenue, distance));
+        } else {
+            deltas.add(delta(createdBucket, OrderHourlyRollup.Basis.CURRENT, event.getPreviousStatus(), -1, -revenue, -distance));
+            deltas.add(delta(bucketOf(event.getOccurredAt()), OrderHourlyRollup.Basis.ENTERED, event.getStatus(), 1, revenue, distance));
+        }
+        deltas.add(delta(createdBucket, OrderHourlyRollup.Basis.CURRENT, event.getStatus(), 1, revenue, distance));
+
+        // Same lock order in every transaction, so concurrent status changes cannot deadlock
+        deltas.sort(Comparator.comparing((Object[] row) -> (Timestamp) row[0])
+                .thenComparing(row -> (String) row[1])
+                .thenComparing(row -> (String) row[2]));
+        jdbcTemplate.batchUpdate(UPSERT, deltas);
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        try {
+            if (rollupRepository.count() > 0) {
+                return;
+            }
+            LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM orders", LocalDateTime.class);
+            if (oldest != null) {
+                log.info("Order rollups are empty, backfilling from {}", oldest.toLocalDate());
+                rebuild(oldest, LocalDateTime.now().plusHours(1));
+            }
+        } catch (DataAccessException e) {
+            log.warn("Order rollup backfill failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recompute the rollups for [from, to) from orders and order_tracking
+     * Runs one day per transaction; each day locks the rollup table against
+     * concurrent upserts while it is replaced.
+     * @return Number of days rebuilt
+     */
+    public int rebuild(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime dayStart = from.truncatedTo(ChronoUnit.DAYS);
+        int days = 0;
+        while (dayStart.isBefore(to)) {
+            Timestamp start = Timestamp.valueOf(dayStart);
+            Timestamp end = Timestamp.valueOf(dayStart.plusDays(1));
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("LOCK TABLE order_hourly_rollups IN SHARE ROW EXCLUSIVE MODE");
+                jdbcTemplate.update("DELETE FROM order_hourly_rollups WHERE bucket_start >= ? AND bucket_start < ?", start, end);
+                jdbcTemplate.update(REBUILD_CURRENT, start, end);
+                jdbcTemplate.update(REBUILD_ENTERED, start, end, start, end);
+            });
+            dayStart = dayStart.plusDays(1);
+            days++;
+        }
+        log.info("Rebuilt order rollups for {} days", days);
+        return days;
+    }
+
+    public static LocalDateTime bucketOf(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private static Object[] delta(LocalDateTime bucket, OrderHourlyRollup.Basis basis, Order.OrderStatus status,
+                                  long count, double revenue, double distance) {
+        return new Object[]{Timestamp.valueOf(bucket), basis.name(), status.name(), count, revenue, distance};
+    }
+}
@@ -2,11 +2,15 @@ package com.delivery.RouteX.service;
 
 import com.delivery.RouteX.Repository.*;
 import com.delivery.RouteX.dto.order.*;
+import com.delivery.RouteX.event.DriverAvailabilityChangedEvent;
+import com.delivery.RouteX.event.DriverStatsChangedEvent;
+import com.delivery.RouteX.event.OrderStatusChangedEvent;
 import com.delivery.RouteX.exception.*;
 import com.delivery.RouteX.model.*;
 import com.delivery.RouteX.util.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -28,6 +32,7 @@ public class OrderService {
     private final NotificationService notificationService;
     private final DistanceCalculator distanceCalculator;
     private final PricingCalculator pricingCalculator;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public OrderResponse createOrder(Long customerId, CreateOrderRequest request) {
@@ -76,6 +81,7 @@ public class OrderService {
         customer.incrementOrders();
         customerRepository.save(customer);
         notificationService.sendOrderCreatedNotification(order);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(order, null));
 
         log.info("Order created: {} for customer: {}",
                 order.getOrderNumber(), customer.getUser().getEmail());
@@ -84,11 +90,29 @@ public class OrderService {
     }
 
     @Transactional(readOnly = true)
-    public OrderResponse getOrderById(Long orderId, Long userId, User.Role role) {
+    public OrderResponse getOrderById(Long orderId, Long sinceTrackingId, Long userId, User.Role role) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
         validateOrderAccess(order, userId, role);
-        return mapToOrderResponse(order);
+        return mapToOrderResponse(order, sinceTrackingId);
+    }
+
+    /**
+     * Resolve the current order version without loading the order graph.
+     * Used by conditional GETs to answer 304 Not Modified cheaply.
+     */
+    @Transactional(readOnly = true)
+    public OrderVersion getOrderVersion(Long orderId, Long userId, User.Role role) {
+        OrderVersion orderVersion = orderRepository.findVersionById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+        validateOrderAccess(orderVersion.getCustomerUserId(), orderVersion.getDriverUserId(), userId, role);
+        return orderVersion;
+    }
+
+    @Transactional(readOnly = true)
+    public OrderVersion getTrackingVersion(String orderNumber) {
+        return orderRepository.findVersionByOrderNumber(orderNumber)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
     }
 
     @Transactional(readOnly = true)
@@ -150,11 +174,13 @@ public class OrderService {
         }
 
         order.assignDriver(driver);
-        driver.setAvailabilityStatus(Driver.AvailabilityStatus.BUSY);
+        changeAvailability(driver, Driver.AvailabilityStatus.BUSY);
 
-        orderRepository.save(order);
         driverRepository.save(driver);
+        // Flush so the response carries the version this transition bumped to
+        orderRepository.saveAndFlush(order);
         notificationService.sendDriverAssignedNotification(order);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(order, Order.OrderStatus.PENDING));
 
         log.info("Driver {} assigned to order {}", driver.getId(), order.getOrderNumber());
         return mapToOrderResponse(order);
@@ -165,6 +191,7 @@ public class OrderService {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
 
+        Order.OrderStatus previousStatus = order.getStatus();
         Order.OrderStatus newStatus = request.getStatus();
         validateStatusTransition(order, newStatus);
 
@@ -184,22 +211,25 @@ public class OrderService {
                 if (order.getDriver() != null) {
                     Driver driver = order.getDriver();
                     driver.incrementDeliveries();
-                    driver.setAvailabilityStatus(Driver.AvailabilityStatus.ONLINE);
+                    changeAvailability(driver, Driver.AvailabilityStatus.ONLINE);
                     driverRepository.save(driver);
+                    eventPublisher.publishEvent(DriverStatsChangedEvent.of(driver));
                 }
                 break;
             case FAILED:
                 order.markFailed(request.getNotes());
                 if (order.getDriver() != null) {
-                    order.getDriver().setAvailabilityStatus(Driver.AvailabilityStatus.ONLINE);
+                    changeAvailability(order.getDriver(), Driver.AvailabilityStatus.ONLINE);
                 }
                 break;
             default:
                 throw new BadRequestException("Invalid status transition");
         }
 
-        orderRepository.save(order);
+        // Flush so the response carries the version this transition bumped to
+        orderRepository.saveAndFlush(order);
         notificationService.sendOrderStatusUpdateNotification(order);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(order, previousStatus));
 
         log.info("Order {} status updated to {}", order.getOrderNumber(), newStatus);
         return mapToOrderResponse(order);
@@ -216,17 +246,19 @@ public class OrderService {
             throw new BadRequestException("Order cannot be cancelled in current status");
         }
 
+        Order.OrderStatus previousStatus = order.getStatus();
         order.cancel(request.getReason());
         orderRepository.save(order);
 
         if (order.getDriver() != null) {
             Driver driver = order.getDriver();
             driver.incrementCancellations();
-            driver.setAvailabilityStatus(Driver.AvailabilityStatus.ONLINE);
+            changeAvailability(driver, Driver.AvailabilityStatus.ONLINE);
             driverRepository.save(driver);
         }
 
         notificationService.sendOrderCancelledNotification(order);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(order, previousStatus));
         log.info("Order {} cancelled by user {}", order.getOrderNumber(), userId);
     }
 
@@ -247,6 +279,7 @@ public class OrderService {
                 Driver driver = order.getDriver();
                 driver.updateRating(request.getRating());
                 driverRepository.save(driver);
+                eventPublisher.publishEvent(DriverStatsChangedEvent.of(driver));
             }
         } else if (role == User.Role.DRIVER) {
             order.setDriverRating(request.getRating());
@@ -260,8 +293,15 @@ public class OrderService {
 
     @Transactional(readOnly = true)
     public List<TrackingResponse> getOrderTracking(String orderNumber) {
-        List<OrderTracking> trackingHistory =
-                trackingRepository.findByOrderOrderNumberOrderByTimestampDesc(orderNumber);
+        return getOrderTracking(orderNumber, null);
+    }
+
+    @Transactional(readOnly = true)
+    public List<TrackingResponse> getOrderTracking(String orderNumber, Long sinceTrackingId) {
+        List<OrderTracking> trackingHistory = sinceTrackingId != null
+                ? trackingRepository.findByOrderOrderNumberAndIdGreaterThanOrderByTimestampDesc(
+                        orderNumber, sinceTrackingId)
+                : trackingRepository.findByOrderOrderNumberOrderByTimestampDesc(orderNumber);
 
         return trackingHistory.stream()
                 .map(this::mapToTrackingResponse)
@@ -280,15 +320,30 @@ public class OrderService {
     }
 
     private void validateOrderAccess(Order order, Long userId, User.Role role) {
-        if (role == User.Role.CUSTOMER && !order.getCustomer().getUser().getId().equals(userId)) {
+        validateOrderAccess(
+                order.getCustomer().getUser().getId(),
+                order.getDriver() != null ? order.getDriver().getUser().getId() : null,
+                userId, role
+        );
+    }
+
+    private void validateOrderAccess(Long customerUserId, Long driverUserId, Long userId, User.Role role) {
+        if (role == User.Role.CUSTOMER && !customerUserId.equals(userId)) {
             throw new BadRequestException("Access denied to this order");
         }
-        if (role == User.Role.DRIVER &&
-                (order.getDriver() == null || !order.getDriver().getUser().getId().equals(userId))) {
+        if (role == User.Role.DRIVER && (driverUserId == null || !driverUserId.equals(userId))) {
             throw new BadRequestException("Access denied to this order");
         }
     }
 
+    private void changeAvailability(Driver driver, Driver.AvailabilityStatus status) {
+        Driver.AvailabilityStatus previous = driver.getAvailabilityStatus();
+        driver.setAvailabilityStatus(status);
+        if (previous != status) {
+            eventPublisher.publishEvent(DriverAvailabilityChangedEvent.of(driver, previous));
+        }
+    }
+
     private void validateStatusTransition(Order order, Order.OrderStatus newStatus) {
         Order.OrderStatus currentStatus = order.getStatus();
 
@@ -312,6 +367,10 @@ public class OrderService {
     }
 
     private OrderResponse mapToOrderResponse(Order order) {
+        return mapToOrderResponse(order, null);
+    }
+
+    private OrderResponse mapToOrderResponse(Order order, Long sinceTrackingId) {
         OrderResponse.OrderResponseBuilder builder = OrderResponse.builder()
                 .id(order.getId())
                 .orderNumber(order.getOrderNumber())
@@ -351,7 +410,8 @@ public class OrderService {
                 .deliveryPhotoUrl(order.getDeliveryPhotoUrl())
                 .deliveryNotes(order.getDeliveryNotes())
                 .customerRating(order.getCustomerRating())
-                .customerFeedback(order.getCustomerFeedback());
+                .customerFeedback(order.getCustomerFeedback())
+                .version(order.getVersion());
 
         if (order.getDriver() != null) {
             Driver driver = order.getDriver();
@@ -364,6 +424,7 @@ public class OrderService {
 
         List<TrackingResponse> tracking = order.getTrackingHistory() != null
                 ? order.getTrackingHistory().stream()
+                .filter(t -> sinceTrackingId == null || t.getId() > sinceTrackingId)
                 .map(this::mapToTrackingResponse)
                 .collect(Collectors.toList())
                 : new ArrayList<>();
@@ -0,0 +1,121 @@
+package com.delivery.RouteX.service;
+
+import com.delivery.RouteX.Repository.NotificationRepository;
+import com.delivery.RouteX.dto.notification.PendingNotification;
+import com.delivery.RouteX.event.NotificationsPersistedEvent;
+import com.delivery.RouteX.util.LruCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-user unread notification counters
+ * Loaded from the DB on first access, then kept current in memory:
+ * +n when notifications are persisted, -1 / reset on mark-as-read.
+ * Bounded by LRU eviction; a scheduled pass re-counts all cached users with
+ * one grouped query per chunk to repair any drift (missed events, rollbacks).
+ */
+@Component
+@Slf4j
+public class UnreadCountCache {
+
+    private static final int RECONCILE_CHUNK_SIZE = 500;
+
+    private final NotificationRepository notificationRepository;
+    private final LruCache<Long, Long> counts;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public UnreadCountCache(
+            NotificationRepository notificationRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.notifications.unread-cache.max-users:100000}") int maxUsers
+    ) {
+        this.notificationRepository = notificationRepository;
+        this.counts = new LruCache<>(maxUsers);
+
+        this.hits = Counter.builder("routex.notifications.unread.cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("routex.notifications.unread.cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("routex.notifications.unread.cache.size", counts, LruCache::size)
+                .description("Users with a cached unread count")
+                .register(meterRegistry);
+    }
+
+    public long getUnreadCount(Long userId) {
+        Long cached = counts.get(userId);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        Long loaded = notificationRepository.countByUserIdAndIsReadFalse(userId);
+        return counts.putIfAbsent(userId, loaded != null ? loaded : 0L);
+    }
+
+    /**
+     * Count newly persisted notifications; users not cached are loaded on next read
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationsPersisted(NotificationsPersistedEvent event) {
+        Map<Long, Long> created = new HashMap<>();
+        for (PendingNotification notification : event.getNotifications()) {
+            created.merge(notification.getUserId(), 1L, Long::sum);
+        }
+        created.forEach((userId, delta) -> counts.computeIfPresent(userId, (id, count) -> count + delta));
+    }
+
+    public void decrement(Long userId, long delta) {
+        counts.computeIfPresent(userId, (id, count) -> Math.max(0L, count - delta));
+    }
+
+    public void reset(Long userId) {
+        counts.computeIfPresent(userId, (id, count) -> 0L);
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.notifications.unread-cache.reconcile-interval-ms:300000}",
+            fixedDelayString = "${app.notifications.unread-cache.reconcile-interval-ms:300000}"
+    )
+    public void reconcile() {
+        List<Long> userIds = counts.keys();
+        int corrected = 0;
+        for (int from = 0; from < userIds.size(); from += RECONCILE_CHUNK_SIZE) {
+            List<Long> chunk = userIds.subList(from, Math.min(userIds.size(), from + RECONCILE_CHUNK_SIZE));
+
+            Map<Long, Long> actual = new HashMap<>();
+            for (Object[] row : notificationRepository.countUnreadByUserIds(chunk)) {
+                actual.put((Long) row[0], (Long) row[1]);
+            }
+
+            for (Long userId : chunk) {
+                long expected = actual.getOrDefault(userId, 0L);
+                long[] previous = {expected};
+                counts.computeIfPresent(userId, (id, count) -> {
+                    previous[0] = count;
+                    return expected;
+                });
+                if (previous[0] != expected) {
+                    corrected++;
+                }
+            }
+        }
+        if (corrected > 0) {
+            log.info("Unread count reconciliation corrected {} of {} cached users", corrected, userIds.size());
+        }
+    }
+}
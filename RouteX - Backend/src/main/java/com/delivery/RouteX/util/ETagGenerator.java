@@ -0,0 +1,51 @@
+package com.delivery.RouteX.util;
+
+/**
+ * Builds strong ETags for order representations
+ * The order version changes on every status transition, so it doubles as a change marker.
+ * Full order responses also embed customer and driver details, which change
+ * without touching the order row, so their ETag carries a stamp for those too.
+ */
+public final class ETagGenerator {
+
+    private ETagGenerator() {
+    }
+
+    /**
+     * Build the ETag for an order (or its tracking history)
+     *
+     * @param orderId Order ID
+     * @param version Current order version
+     * @param sinceTrackingId Tracking cursor the representation was filtered by (optional)
+     * @return Unquoted ETag value, e.g. "42-7" or "42-7-s118"
+     */
+    public static String forOrder(Long orderId, Long version, Long sinceTrackingId) {
+        return forOrder(orderId, version, null, sinceTrackingId);
+    }
+
+    /**
+     * Build the ETag for a full order representation
+     *
+     * @param orderId Order ID
+     * @param version Current order version
+     * @param partiesStamp Change marker for the embedded customer and driver details (optional)
+     * @param sinceTrackingId Tracking cursor the representation was filtered by (optional)
+     * @return Unquoted ETag value, e.g. "42-7-p1f3a" or "42-7-p1f3a-s118"
+     */
+    public static String forOrder(Long orderId, Long version, Integer partiesStamp, Long sinceTrackingId) {
+        StringBuilder etag = new StringBuilder()
+                .append(orderId)
+                .append('-')
+                .append(version != null ? version : 0L);
+
+        if (partiesStamp != null) {
+            etag.append("-p").append(Integer.toHexString(partiesStamp));
+        }
+
+        if (sinceTrackingId != null) {
+            etag.append("-s").append(sinceTrackingId);
+        }
+
+        return etag.toString();
+    }
+}
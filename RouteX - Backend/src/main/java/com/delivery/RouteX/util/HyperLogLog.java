@@ -0,0 +1,138 @@
+package com.delivery.RouteX.util;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * HyperLogLog distinct counter for long ids (precision 14, 16384 registers)
+ * Relative standard error is 1.04 / sqrt(16384) = 0.81%, so about 98% of
+ * estimates are within 2.5% of the true count. Small cardinalities (below
+ * 2.5 x 16384) use linear counting and are close to exact. Sketches merge
+ * losslessly (register-wise max), so the sketch of a union is the merge of
+ * the sketches. Adding the same id twice never changes the estimate.
+ *
+ * Not thread-safe; callers synchronize.
+ */
+public final class HyperLogLog {
+
+    public static final int PRECISION = 14;
+    public static final int REGISTERS = 1 << PRECISION;
+    public static final double RELATIVE_STANDARD_ERROR = 1.04 / Math.sqrt(REGISTERS);
+
+    private static final double ALPHA = 0.7213 / (1.0 + 1.079 / REGISTERS);
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTERS];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    public void add(long value) {
+        long hash = mix(value);
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        // Leading zeros of the remaining bits, capped by a sentinel bit so the rank fits a byte
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        byte[] theirs = other.registers;
+        for (int i = 0; i < REGISTERS; i++) {
+            if (theirs[i] > registers[i]) {
+                registers[i] = theirs[i];
+            }
+        }
+    }
+
+    public long estimate() {
+        double sum = 0.0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Double.longBitsToDouble((1023L - register) << 52);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public HyperLogLog copy() {
+        return new HyperLogLog(registers.clone());
+    }
+
+    /**
+     * Deflated registers (a few hundred bytes for small sets, about 7.5 KB once most registers are set)
+     */
+    public byte[] toBytes() {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(registers);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes);
+            byte[] registers = new byte[REGISTERS];
+            int length = 0;
+            while (length < REGISTERS && !inflater.finished()) {
+                int read = inflater.inflate(registers, length, REGISTERS - length);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += read;
+            }
+            if (length != REGISTERS) {
+                throw new IllegalArgumentException("Not a HyperLogLog sketch of precision " + PRECISION);
+            }
+            return new HyperLogLog(registers);
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt HyperLogLog sketch", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * SplitMix64 finalizer; spreads sequential ids over the whole 64-bit range
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,79 @@
+package com.delivery.RouteX.util;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Small thread-safe LRU map
+ * Bounded by entry count; the least recently read or written entry is evicted first.
+ * All operations lock the whole map, which is fine for the short critical sections
+ * it is used with (counter lookups, principal lookups).
+ */
+public class LruCache<K, V> {
+
+    private final int maxEntries;
+    private final LinkedHashMap<K, V> entries;
+
+    public LruCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > LruCache.this.maxEntries;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    /**
+     * Insert unless a value is already cached
+     * @return The cached value after the call
+     */
+    public synchronized V putIfAbsent(K key, V value) {
+        V existing = entries.putIfAbsent(key, value);
+        return existing != null ? existing : value;
+    }
+
+    /**
+     * Recompute a cached value; returning null removes the entry
+     * Absent keys are left absent.
+     */
+    public synchronized V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+        return entries.computeIfPresent(key, remapping);
+    }
+
+    public synchronized V remove(K key) {
+        return entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return Snapshot of cached keys, least recently used first
+     */
+    public synchronized List<K> keys() {
+        return List.copyOf(entries.keySet());
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+}
@@ -0,0 +1,62 @@
+package com.delivery.RouteX.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Text template with {{name}} placeholders, parsed once
+ * Rendering only concatenates the pre-split literal segments and the looked-up
+ * values; no scanning or regex per message. Missing values render as empty.
+ */
+public final class MessageTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    // Even indexes are literals, odd indexes are placeholder names
+    private final String[] parts;
+    private final int literalLength;
+
+    private MessageTemplate(String[] parts, int literalLength) {
+        this.parts = parts;
+        this.literalLength = literalLength;
+    }
+
+    public static MessageTemplate compile(String template) {
+        List<String> parts = new ArrayList<>();
+        int literalLength = 0;
+        int position = 0;
+        while (true) {
+            int open = template.indexOf(OPEN, position);
+            int close = open < 0 ? -1 : template.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                String tail = template.substring(position);
+                parts.add(tail);
+                literalLength += tail.length();
+                break;
+            }
+            String literal = template.substring(position, open);
+            parts.add(literal);
+            literalLength += literal.length();
+            parts.add(template.substring(open + OPEN.length(), close).trim());
+            position = close + CLOSE.length();
+        }
+        return new MessageTemplate(parts.toArray(String[]::new), literalLength);
+    }
+
+    public String render(Map<String, ?> values) {
+        StringBuilder out = new StringBuilder(literalLength + 16 * (parts.length / 2));
+        for (int i = 0; i < parts.length; i++) {
+            if (i % 2 == 0) {
+                out.append(parts[i]);
+            } else {
+                Object value = values.get(parts[i]);
+                if (value != null) {
+                    out.append(value);
+                }
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,85 @@
+package com.delivery.RouteX.websocket;
+
+import com.delivery.RouteX.dto.websocket.AdminDigestMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Periodic digests for /topic/admin/digest
+ * Alerts are collected and sent as one AdminDigestMessage per interval instead
+ * of one broker message (and one client wake-up per admin) per alert.
+ * Nothing is sent for an interval without alerts.
+ *
+ * Clients that still expect the original contract, one plain string per alert
+ * on /topic/admin, can get it back with app.websocket.admin-digest.legacy-topic=true.
+ */
+@Component
+@Slf4j
+public class AdminDigestPublisher {
+
+    public static final String ADMIN_TOPIC = "/topic/admin";
+    public static final String DIGEST_TOPIC = "/topic/admin/digest";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final int maxMessages;
+    private final boolean legacyTopic;
+
+    // Guarded by this
+    private List<String> messages = new ArrayList<>();
+    private int total;
+    private LocalDateTime from;
+
+    public AdminDigestPublisher(
+            SimpMessagingTemplate messagingTemplate,
+            @Value("${app.websocket.admin-digest.max-messages:100}") int maxMessages,
+            @Value("${app.websocket.admin-digest.legacy-topic:false}") boolean legacyTopic
+    ) {
+        this.messagingTemplate = messagingTemplate;
+        this.maxMessages = maxMessages;
+        this.legacyTopic = legacyTopic;
+    }
+
+    public void add(String message) {
+        synchronized (this) {
+            if (total == 0) {
+                from = LocalDateTime.now();
+            }
+            total++;
+            if (messages.size() < maxMessages) {
+                messages.add(message);
+            }
+        }
+        if (legacyTopic) {
+            messagingTemplate.convertAndSend(ADMIN_TOPIC, message);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${app.websocket.admin-digest.interval-ms:5000}")
+    public void flush() {
+        AdminDigestMessage digest;
+        synchronized (this) {
+            if (total == 0) {
+                return;
+            }
+            digest = AdminDigestMessage.builder()
+                    .from(from)
+                    .to(LocalDateTime.now())
+                    .total(total)
+                    .messages(messages)
+                    .build();
+            messages = new ArrayList<>();
+            total = 0;
+            from = null;
+        }
+
+        messagingTemplate.convertAndSend(DIGEST_TOPIC, digest);
+        log.debug("Admin digest sent with {} alerts", digest.getTotal());
+    }
+}
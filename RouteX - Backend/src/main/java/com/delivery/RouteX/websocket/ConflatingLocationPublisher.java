@@ -0,0 +1,218 @@
+package com.delivery.RouteX.websocket;
+
+import com.delivery.RouteX.dto.websocket.FleetDeltaMessage;
+import com.delivery.RouteX.dto.websocket.LocationUpdateMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Conflating publisher for driver location broadcasts
+ * Keeps only the latest location per topic and flushes on a fixed rate per subscriber class:
+ * - customer tracking (/topic/tracking/{orderId} and SSE streams), default 1 Hz
+ * - admin fleet view (/topic/admin/fleet), default 0.2 Hz, as sequence-ranged FleetDeltaMessage batches
+ *
+ * Frames overwritten before a flush are counted as conflated; flushes to topics
+ * without local subscribers are skipped. Binary subscribers ("<topic>/bin")
+ * receive LocationFrameCodec frames instead of JSON. Broker traffic is bounded by
+ * (active topics x flush rate) no matter how often drivers report.
+ */
+@Component
+@Slf4j
+public class ConflatingLocationPublisher {
+
+    public static final String TRACKING_TOPIC_PREFIX = "/topic/tracking/";
+    public static final String FLEET_TOPIC = "/topic/admin/fleet";
+
+    // Clients opt into binary frames by subscribing to "<topic>/bin" instead of "<topic>"
+    public static final String BINARY_SUFFIX = "/bin";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TopicSubscriptionRegistry subscriptionRegistry;
+    private final TrackingStreamService trackingStreamService;
+    private final FleetStateService fleetState;
+
+    // orderId -> latest unsent location
+    private final Map<Long, LocationUpdateMessage> pendingTracking = new ConcurrentHashMap<>();
+
+    // driverId -> latest unsent location
+    private final Map<Long, LocationUpdateMessage> pendingFleet = new ConcurrentHashMap<>();
+
+    private final Counter trackingPublished;
+    private final Counter trackingConflated;
+    private final Counter trackingSkipped;
+    private final Counter fleetPublished;
+    private final Counter fleetConflated;
+    private final Counter fleetSkipped;
+
+    // Highest fleet sequence covered by a published batch; only the scheduler thread touches it
+    private long lastFleetSequence;
+
+    public ConflatingLocationPublisher(
+            SimpMessagingTemplate messagingTemplate,
+            TopicSubscriptionRegistry subscriptionRegistry,
+            TrackingStreamService trackingStreamService,
+            FleetStateService fleetState,
+            MeterRegistry meterRegistry
+    ) {
+        this.messagingTemplate = messagingTemplate;
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.trackingStreamService = trackingStreamService;
+        this.fleetState = fleetState;
+
+        this.trackingPublished = frameCounter(meterRegistry, "customer", "published");
+        this.trackingConflated = frameCounter(meterRegistry, "customer", "conflated");
+        this.trackingSkipped = frameCounter(meterRegistry, "customer", "skipped");
+        this.fleetPublished = frameCounter(meterRegistry, "fleet", "published");
+        this.fleetConflated = frameCounter(meterRegistry, "fleet", "conflated");
+        this.fleetSkipped = frameCounter(meterRegistry, "fleet", "skipped");
+    }
+
+    /**
+     * Queue a location for an order's tracking subscribers
+     * Replaces any location for the same order not yet flushed
+     */
+    public void submitTracking(LocationUpdateMessage message) {
+        if (pendingTracking.put(message.getOrderId(), message) != null) {
+            trackingConflated.increment();
+        }
+    }
+
+    /**
+     * Queue a location for the admin fleet view
+     * Replaces any location for the same driver not yet flushed
+     */
+    public void submitFleet(LocationUpdateMessage message) {
+        if (pendingFleet.put(message.getDriverId(), message) != null) {
+            fleetConflated.increment();
+        }
+    }
+
+    @Scheduled(fixedRateString = "${app.websocket.location.customer-flush-interval-ms:1000}")
+    public void flushTracking() {
+        for (Long orderId : List.copyOf(pendingTracking.keySet())) {
+            LocationUpdateMessage message = pendingTracking.remove(orderId);
+            if (message == null) {
+                continue;
+            }
+
+            String topic = TRACKING_TOPIC_PREFIX + orderId;
+            boolean jsonSubscribers = subscriptionRegistry.hasSubscribers(topic);
+            boolean binarySubscribers = subscriptionRegistry.hasSubscribers(topic + BINARY_SUFFIX);
+
+            if (jsonSubscribers) {
+                messagingTemplate.convertAndSend(topic, message);
+            }
+            if (binarySubscribers) {
+                sendBinary(topic + BINARY_SUFFIX, encode(List.of(message)));
+            }
+
+            if (jsonSubscribers || binarySubscribers) {
+                trackingPublished.increment();
+            } else {
+                trackingSkipped.increment();
+            }
+
+            // SSE streams keep their own subscriber list; publish is a no-op without one
+            trackingStreamService.publish(orderId, "location", message);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${app.websocket.location.fleet-flush-interval-ms:5000}")
+    public void flushFleet() {
+        if (pendingFleet.isEmpty()) {
+            return;
+        }
+
+        List<LocationUpdateMessage> batch = new ArrayList<>(pendingFleet.size());
+        for (Long driverId : List.copyOf(pendingFleet.keySet())) {
+            LocationUpdateMessage message = pendingFleet.remove(driverId);
+            if (message != null) {
+                batch.add(message);
+            }
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // Batches chain by sequence range so clients can spot gaps; positions
+        // conflated away inside the range are superseded by the ones sent
+        long fromSequence = lastFleetSequence;
+        for (LocationUpdateMessage message : batch) {
+            if (message.getSequence() != null && message.getSequence() > lastFleetSequence) {
+                lastFleetSequence = message.getSequence();
+            }
+        }
+
+        boolean jsonSubscribers = subscriptionRegistry.hasSubscribers(FLEET_TOPIC);
+        boolean binarySubscribers = subscriptionRegistry.hasSubscribers(FLEET_TOPIC + BINARY_SUFFIX);
+
+        if (jsonSubscribers) {
+            messagingTemplate.convertAndSend(FLEET_TOPIC, FleetDeltaMessage.builder()
+                    .epoch(fleetState.getEpoch())
+                    .fromSequence(fromSequence)
+                    .toSequence(lastFleetSequence)
+                    .updates(batch)
+                    .build());
+        }
+        if (binarySubscribers) {
+            sendBinary(FLEET_TOPIC + BINARY_SUFFIX, encode(batch));
+        }
+
+        if (jsonSubscribers || binarySubscribers) {
+            fleetPublished.increment(batch.size());
+        } else {
+            fleetSkipped.increment(batch.size());
+        }
+    }
+
+    /**
+     * Encode locations as back-to-back 32-byte update frames
+     */
+    private byte[] encode(List<LocationUpdateMessage> messages) {
+        byte[] frames = new byte[messages.size() * LocationFrameCodec.UPDATE_FRAME_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(frames);
+
+        int offset = 0;
+        for (LocationUpdateMessage message : messages) {
+            LocationFrameCodec.encodeUpdate(
+                    buffer, offset,
+                    message.getOrderId() != null ? message.getOrderId() : 0L,
+                    message.getDriverId(),
+                    message.getLatitude(),
+                    message.getLongitude(),
+                    LocationFrameMessageConverter.toEpochMillis(message)
+            );
+            offset += LocationFrameCodec.UPDATE_FRAME_SIZE;
+        }
+        return frames;
+    }
+
+    private void sendBinary(String destination, byte[] frames) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(LocationFrameCodec.MIME_TYPE);
+        accessor.setLeaveMutable(true);
+        messagingTemplate.send(destination, MessageBuilder.createMessage(frames, accessor.getMessageHeaders()));
+    }
+
+    private static Counter frameCounter(MeterRegistry registry, String subscriberClass, String result) {
+        return Counter.builder("routex.websocket.location.frames")
+                .description("Driver location frames by subscriber class and outcome")
+                .tag("class", subscriberClass)
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,266 @@
+package com.delivery.RouteX.websocket;
+
+import com.delivery.RouteX.dto.analytics.DashboardMetrics;
+import com.delivery.RouteX.dto.websocket.DashboardMetricsMessage;
+import com.delivery.RouteX.service.AnalyticsService;
+import com.delivery.RouteX.websocket.cluster.ClusterBrokerBridge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Pushes dashboard metrics to /topic/analytics/dashboard and SSE subscribers
+ * DashboardMetrics is computed once per tick, whatever the number of open
+ * dashboards, and only when someone is listening. Only fields that changed
+ * since the previous tick are sent; a tick without changes sends nothing.
+ * New subscribers get a full snapshot first (SUBSCRIBE /app/analytics/dashboard
+ * or the first SSE event).
+ *
+ * SSE writes happen outside the publisher lock: messages are queued per
+ * subscriber under the lock and written afterwards, in sequence order, so a
+ * slow client never holds up snapshot() or other subscribers' registration.
+ *
+ * The counters behind the metrics are per node, so each node pushes to its
+ * own subscribers only and the messages are not relayed across the cluster.
+ */
+@Component
+@Slf4j
+public class DashboardMetricsPublisher {
+
+    public static final String DASHBOARD_TOPIC = "/topic/analytics/dashboard";
+
+    // Queued in place of a metrics message to send a heartbeat comment
+    private static final DashboardMetricsMessage HEARTBEAT = new DashboardMetricsMessage();
+
+    private final AnalyticsService analyticsService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TopicSubscriptionRegistry subscriptionRegistry;
+    private final long streamTimeoutMs;
+    private final long heartbeatIntervalMs;
+
+    private final CopyOnWriteArrayList<Subscriber> streamSubscribers = new CopyOnWriteArrayList<>();
+
+    // Guarded by this
+    private Map<String, Object> current;
+    private LocalDateTime computedAt;
+    private long sequence;
+
+    public DashboardMetricsPublisher(
+            AnalyticsService analyticsService,
+            SimpMessagingTemplate messagingTemplate,
+            TopicSubscriptionRegistry subscriptionRegistry,
+            @Value("${app.analytics.dashboard-push.stream-timeout-ms:1800000}") long streamTimeoutMs,
+            @Value("${app.analytics.dashboard-push.heartbeat-interval-ms:15000}") long heartbeatIntervalMs
+    ) {
+        this.analyticsService = analyticsService;
+        this.messagingTemplate = messagingTemplate;
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.streamTimeoutMs = streamTimeoutMs;
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+    }
+
+    /**
+     * Full metrics for a new subscriber, computed now if the publisher is idle
+     */
+    public synchronized DashboardMetricsMessage snapshot() {
+        if (current == null) {
+            refresh();
+        }
+        return DashboardMetricsMessage.builder()
+                .sequence(sequence)
+                .snapshot(true)
+                .computedAt(computedAt)
+                .metrics(current)
+                .build();
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+
+        emitter.onCompletion(() -> streamSubscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> streamSubscribers.remove(subscriber));
+
+        // Queued under the lock so every later delta lands behind the snapshot; written after it
+        synchronized (this) {
+            offer(subscriber, snapshot());
+            streamSubscribers.add(subscriber);
+        }
+        drain(subscriber);
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.dashboard-push.interval-ms:2000}")
+    public void tick() {
+        boolean listening = !streamSubscribers.isEmpty() || subscriptionRegistry.hasLocalSubscribers(DASHBOARD_TOPIC);
+        DashboardMetricsMessage delta = null;
+
+        synchronized (this) {
+            if (!listening) {
+                // Next subscriber gets a fresh snapshot instead of one from before the idle period
+                current = null;
+                return;
+            }
+
+            Map<String, Object> previous = current;
+            refresh();
+            Map<String, Object> changes = new LinkedHashMap<>();
+            current.forEach((field, value) -> {
+                if (previous == null || !Objects.equals(previous.get(field), value)) {
+                    changes.put(field, value);
+                }
+            });
+
+            if (!changes.isEmpty()) {
+                delta = DashboardMetricsMessage.builder()
+                        .sequence(++sequence)
+                        .snapshot(false)
+                        .computedAt(computedAt)
+                        .metrics(changes)
+                        .build();
+                for (Subscriber subscriber : streamSubscribers) {
+                    offer(subscriber, delta);
+                }
+            }
+        }
+
+        if (delta != null) {
+            for (Subscriber subscriber : streamSubscribers) {
+                drain(subscriber);
+            }
+            messagingTemplate.convertAndSend(DASHBOARD_TOPIC, delta, localOnlyHeaders());
+            log.debug("Dashboard delta {} pushed with {} fields", delta.getSequence(), delta.getMetrics().size());
+        } else {
+            sendHeartbeats();
+        }
+    }
+
+    public int getStreamSubscriberCount() {
+        return streamSubscribers.size();
+    }
+
+    private void refresh() {
+        current = toFields(analyticsService.getDashboardMetrics());
+        computedAt = LocalDateTime.now();
+    }
+
+    private void sendHeartbeats() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : streamSubscribers) {
+            if (now - subscriber.lastSentAt >= heartbeatIntervalMs) {
+                offer(subscriber, HEARTBEAT);
+                drain(subscriber);
+            }
+        }
+    }
+
+    private static void offer(Subscriber subscriber, DashboardMetricsMessage message) {
+        synchronized (subscriber) {
+            // A heartbeat is pointless while real messages are on their way
+            if (!subscriber.dead && (message != HEARTBEAT || subscriber.pending.isEmpty())) {
+                subscriber.pending.addLast(message);
+            }
+        }
+    }
+
+    /**
+     * Write the subscriber's queued messages, unless another thread is already doing so
+     */
+    private void drain(Subscriber subscriber) {
+        synchronized (subscriber) {
+            if (subscriber.draining) {
+                return;
+            }
+            subscriber.draining = true;
+        }
+        while (true) {
+            DashboardMetricsMessage message;
+            synchronized (subscriber) {
+                message = subscriber.pending.pollFirst();
+                if (message == null) {
+                    subscriber.draining = false;
+                    return;
+                }
+            }
+
+            try {
+                write(subscriber.emitter, message);
+                subscriber.lastSentAt = System.currentTimeMillis();
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dashboard stream subscriber dropped: {}", e.getMessage());
+                synchronized (subscriber) {
+                    subscriber.dead = true;
+                    subscriber.pending.clear();
+                    subscriber.draining = false;
+                }
+                streamSubscribers.remove(subscriber);
+                subscriber.emitter.complete();
+                return;
+            }
+        }
+    }
+
+    private static void write(SseEmitter emitter, DashboardMetricsMessage message) throws IOException {
+        if (message == HEARTBEAT) {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+            return;
+        }
+        emitter.send(SseEmitter.event()
+                .id(Long.toString(message.getSequence()))
+                .name(message.isSnapshot() ? "snapshot" : "delta")
+                .data(message));
+    }
+
+    /**
+     * Headers marking the message as already distributed, so the cluster bridge does not forward it
+     */
+    private static Map<String, Object> localOnlyHeaders() {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setHeader(ClusterBrokerBridge.ORIGIN_HEADER, "local");
+        accessor.setLeaveMutable(true);
+        return accessor.getMessageHeaders();
+    }
+
+    private static Map<String, Object> toFields(DashboardMetrics metrics) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("activeDeliveries", metrics.getActiveDeliveries());
+        fields.put("pendingOrders", metrics.getPendingOrders());
+        fields.put("ordersToday", metrics.getOrdersToday());
+        fields.put("revenueToday", metrics.getRevenueToday());
+        fields.put("availableDrivers", metrics.getAvailableDrivers());
+        fields.put("averageDeliveryTime", metrics.getAverageDeliveryTime());
+        fields.put("deliveryTimeP50", metrics.getDeliveryTimeP50());
+        fields.put("deliveryTimeP90", metrics.getDeliveryTimeP90());
+        fields.put("deliveryTimeP99", metrics.getDeliveryTimeP99());
+        fields.put("successRate", metrics.getSuccessRate());
+        return fields;
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private volatile long lastSentAt = System.currentTimeMillis();
+
+        // Guarded by the subscriber
+        private final Deque<DashboardMetricsMessage> pending = new ArrayDeque<>();
+        private boolean draining;
+        private boolean dead;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.delivery.RouteX.websocket;
+
+import com.delivery.RouteX.Repository.OrderRepository;
+import com.delivery.RouteX.event.OrderStatusChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of driverId -> active order ids
+ * Lets location fan-out resolve tracking topics with a map lookup instead of DB queries.
+ * Maintained from committed order transitions and rebuilt from the DB at startup
+ * (and periodically, as a safety net against missed events).
+ * Orders that receive an event while a rebuild is running keep their
+ * event-driven state: the snapshot may predate the event, and must not
+ * re-add an order that was delivered or cancelled in the meantime.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DriverOrderIndex {
+
+    private final OrderRepository orderRepository;
+
+    private final Map<Long, Set<Long>> activeOrdersByDriver = new ConcurrentHashMap<>();
+
+    // Order ids with an event since the running rebuild started; null when idle
+    private volatile Set<Long> changedDuringRebuild;
+
+    /**
+     * Rebuild the whole index from the database
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${app.websocket.driver-index.rebuild-interval-ms:600000}",
+            fixedDelayString = "${app.websocket.driver-index.rebuild-interval-ms:600000}"
+    )
+    public synchronized void rebuild() {
+        Set<Long> changed = ConcurrentHashMap.newKeySet();
+        changedDuringRebuild = changed;
+        try {
+            List<Object[]> assignments = orderRepository.findActiveDriverAssignments();
+
+            Map<Long, Set<Long>> rebuilt = new HashMap<>();
+            for (Object[] row : assignments) {
+                rebuilt.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((Long) row[1]);
+            }
+
+            Set<Long> driverIds = new HashSet<>(activeOrdersByDriver.keySet());
+            driverIds.addAll(rebuilt.keySet());
+            // Per driver, under the same map lock the event handlers use
+            for (Long driverId : driverIds) {
+                Set<Long> fromSnapshot = rebuilt.getOrDefault(driverId, Set.of());
+                activeOrdersByDriver.compute(driverId, (id, current) -> merge(fromSnapshot, current, changed));
+            }
+
+            log.info("Driver order index rebuilt: {} drivers, {} active orders, {} changed during rebuild",
+                    rebuilt.size(), assignments.size(), changed.size());
+        } finally {
+            changedDuringRebuild = null;
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getDriverId() == null) {
+            return;
+        }
+        // Mark before applying, so a rebuild never overwrites this order with an older snapshot
+        Set<Long> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(event.getOrderId());
+        }
+
+        switch (event.getStatus()) {
+            case ASSIGNED, PICKED_UP, IN_TRANSIT -> add(event.getDriverId(), event.getOrderId());
+            case DELIVERED, CANCELLED, FAILED -> remove(event.getDriverId(), event.getOrderId());
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Active order ids for a driver
+     * @param driverId The driver
+     * @return Unmodifiable view; empty if the driver has no active orders
+     */
+    public Set<Long> getActiveOrderIds(Long driverId) {
+        Set<Long> orderIds = activeOrdersByDriver.get(driverId);
+        return orderIds != null ? Collections.unmodifiableSet(orderIds) : Collections.emptySet();
+    }
+
+    private void add(Long driverId, Long orderId) {
+        activeOrdersByDriver.compute(driverId, (id, orderIds) -> {
+            Set<Long> result = orderIds != null ? orderIds : ConcurrentHashMap.<Long>newKeySet();
+            result.add(orderId);
+            return result;
+        });
+    }
+
+    private void remove(Long driverId, Long orderId) {
+        activeOrdersByDriver.computeIfPresent(driverId, (id, orderIds) -> {
+            orderIds.remove(orderId);
+            return orderIds.isEmpty() ? null : orderIds;
+        });
+    }
+
+    /**
+     * Snapshot state for orders without events since the rebuild started,
+     * current state for the rest
+     */
+    private static Set<Long> merge(Set<Long> fromSnapshot, Set<Long> current, Set<Long> changed) {
+        Set<Long> merged = ConcurrentHashMap.newKeySet();
+        for (Long orderId : fromSnapshot) {
+            if (!changed.contains(orderId)) {
+                merged.add(orderId);
+            }
+        }
+        if (current != null) {
+            for (Long orderId : current) {
+                if (changed.contains(orderId)) {
+                    merged.add(orderId);
+                }
+            }
+        }
+        return merged.isEmpty() ? null : merged;
+    }
+}
@@ -0,0 +1,169 @@
+package com.delivery.RouteX.websocket;
+
+import com.delivery.RouteX.Repository.DriverRepository;
+import com.delivery.RouteX.dto.websocket.FleetDeltaMessage;
+import com.delivery.RouteX.dto.websocket.FleetSnapshotResponse;
+import com.delivery.RouteX.dto.websocket.LocationUpdateMessage;
+import com.delivery.RouteX.event.DriverAvailabilityChangedEvent;
+import com.delivery.RouteX.exception.BadRequestException;
+import com.delivery.RouteX.model.Driver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Versioned in-memory fleet state
+ * Every driver position gets the next value of a global sequence. The latest
+ * position per driver is kept for snapshots, and the last N positions sit in a
+ * ring buffer so reconnecting clients can resume from their last sequence
+ * without touching the database. Sequences restart with the process; the epoch
+ * tells clients that happened.
+ *
+ * Drivers leave the snapshot positions when they go OFFLINE, or when they have
+ * not reported for app.websocket.fleet.stale-after-ms.
+ */
+@Component
+@Slf4j
+public class FleetStateService {
+
+    private final DriverRepository driverRepository;
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+    private final long staleAfterMs;
+
+    // Guarded by this
+    private final LocationUpdateMessage[] ring;
+    private final Map<Long, LocationUpdateMessage> positions = new LinkedHashMap<>();
+    private long sequence;
+
+    public FleetStateService(
+            DriverRepository driverRepository,
+            @Value("${app.websocket.fleet.replay-buffer-size:10000}") int replayBufferSize,
+            @Value("${app.websocket.fleet.stale-after-ms:300000}") long staleAfterMs
+    ) {
+        this.driverRepository = driverRepository;
+        this.ring = new LocationUpdateMessage[replayBufferSize];
+        this.staleAfterMs = staleAfterMs;
+    }
+
+    /**
+     * Seed positions from the last known driver locations
+     * Seeded entries carry sequence 0, so they only appear in snapshots.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        List<Object[]> rows = driverRepository.findLastKnownLocations();
+        synchronized (this) {
+            for (Object[] row : rows) {
+                Long driverId = (Long) row[0];
+                positions.putIfAbsent(driverId, LocationUpdateMessage.builder()
+                        .driverId(driverId)
+                        .latitude((Double) row[1])
+                        .longitude((Double) row[2])
+                        .timestamp((LocalDateTime) row[3])
+                        .sequence(0L)
+                        .build());
+            }
+        }
+        log.info("Fleet state seeded with {} driver positions", rows.size());
+    }
+
+    /**
+     * Record a driver position and assign it the next sequence
+     */
+    public synchronized LocationUpdateMessage record(Long driverId, Double latitude, Double longitude) {
+        long next = ++sequence;
+        LocationUpdateMessage message = LocationUpdateMessage.builder()
+                .driverId(driverId)
+                .latitude(latitude)
+                .longitude(longitude)
+                .timestamp(LocalDateTime.now())
+                .sequence(next)
+                .build();
+
+        positions.remove(driverId);
+        positions.put(driverId, message);
+        ring[(int) (next % ring.length)] = message;
+        return message;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public synchronized void onDriverAvailabilityChanged(DriverAvailabilityChangedEvent event) {
+        if (event.getStatus() == Driver.AvailabilityStatus.OFFLINE) {
+            positions.remove(event.getDriverId());
+        }
+    }
+
+    /**
+     * Drop drivers whose last position is older than stale-after-ms
+     * (app closed or connection lost without going OFFLINE)
+     */
+    @Scheduled(fixedDelayString = "${app.websocket.fleet.sweep-interval-ms:60000}")
+    public synchronized void evictStale() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(staleAfterMs));
+        int before = positions.size();
+        positions.values().removeIf(position ->
+                position.getTimestamp() != null && position.getTimestamp().isBefore(cutoff));
+        if (positions.size() < before) {
+            log.debug("Evicted {} stale drivers from the fleet state", before - positions.size());
+        }
+    }
+
+    public synchronized FleetSnapshotResponse snapshot() {
+        return FleetSnapshotResponse.builder()
+                .epoch(epoch)
+                .sequence(sequence)
+                .drivers(new ArrayList<>(positions.values()))
+                .build();
+    }
+
+    /**
+     * Positions recorded after the given sequence, latest per driver
+     * Requires a snapshot if the sequence is from another epoch or already evicted.
+     */
+    public synchronized FleetDeltaMessage deltasSince(String clientEpoch, long since) {
+        if (since < 0) {
+            throw new BadRequestException("since must not be negative");
+        }
+        FleetDeltaMessage.FleetDeltaMessageBuilder delta = FleetDeltaMessage.builder()
+                .epoch(epoch)
+                .fromSequence(since)
+                .toSequence(sequence);
+
+        if (!epoch.equals(clientEpoch) || since > sequence || sequence - since > ring.length) {
+            return delta.snapshotRequired(true).updates(List.of()).build();
+        }
+
+        Map<Long, LocationUpdateMessage> latest = new LinkedHashMap<>();
+        for (long seq = since + 1; seq <= sequence; seq++) {
+            LocationUpdateMessage message = ring[(int) (seq % ring.length)];
+            latest.remove(message.getDriverId());
+            latest.put(message.getDriverId(), message);
+        }
+        return delta.updates(new ArrayList<>(latest.values())).build();
+    }
+
+    public synchronized int getDriverCount() {
+        return positions.size();
+    }
+
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+}
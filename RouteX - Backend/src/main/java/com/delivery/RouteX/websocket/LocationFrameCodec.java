@@ -0,0 +1,122 @@
+package com.delivery.RouteX.websocket;
+
+import org.springframework.util.MimeType;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+
+/**
+ * Compact binary codec for driver location frames
+ * Fixed-width little-endian fields, coordinates as degrees x 1e7 in int32
+ * (~1 cm resolution), timestamps as epoch millis.
+ *
+ * Request frame (driver -> server), 8 bytes:
+ *   0  int32 latitudeE7
+ *   4  int32 longitudeE7
+ * Positions are stamped with server time, as on the JSON path.
+ *
+ * Update frame (server -> subscribers), 32 bytes:
+ *   0  int64 orderId (0 for fleet frames)
+ *   8  int64 driverId
+ *   16 int32 latitudeE7
+ *   20 int32 longitudeE7
+ *   24 int64 epochMillis
+ *
+ * Fields are read and written at absolute offsets through little-endian
+ * VarHandle views, so nothing is allocated per frame and the caller's
+ * position, limit and byte order are left untouched; callers can reuse one
+ * buffer per thread. Reads past the end of a truncated buffer throw
+ * IndexOutOfBoundsException.
+ */
+public final class LocationFrameCodec {
+
+    /**
+     * STOMP content type for binary location frames
+     * Stays compatible with application/octet-stream so STOMP sends it as a binary WebSocket frame
+     */
+    public static final MimeType MIME_TYPE = new MimeType(
+            "application", "octet-stream", Map.of("format", "routex-location-v1"));
+
+    public static final String FORMAT = "routex-location-v1";
+
+    public static final int REQUEST_FRAME_SIZE = 8;
+    public static final int UPDATE_FRAME_SIZE = 32;
+
+    private static final double COORDINATE_SCALE = 10_000_000.0;
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private LocationFrameCodec() {
+    }
+
+    /**
+     * @return True if a payload of this length is exactly one request frame
+     */
+    public static boolean isRequestFrame(int length) {
+        return length == REQUEST_FRAME_SIZE;
+    }
+
+    public static int toFixed(double degrees) {
+        return (int) Math.round(degrees * COORDINATE_SCALE);
+    }
+
+    public static double fromFixed(int fixed) {
+        return fixed / COORDINATE_SCALE;
+    }
+
+    /**
+     * Write a request frame at the given offset
+     */
+    public static void encodeRequest(ByteBuffer dst, int offset, double latitude, double longitude) {
+        INT.set(dst, offset, toFixed(latitude));
+        INT.set(dst, offset + 4, toFixed(longitude));
+    }
+
+    public static double requestLatitude(ByteBuffer src, int offset) {
+        return fromFixed((int) INT.get(src, offset));
+    }
+
+    public static double requestLongitude(ByteBuffer src, int offset) {
+        return fromFixed((int) INT.get(src, offset + 4));
+    }
+
+    /**
+     * Write an update frame at the given offset
+     */
+    public static void encodeUpdate(
+            ByteBuffer dst, int offset,
+            long orderId, long driverId,
+            double latitude, double longitude,
+            long epochMillis
+    ) {
+        LONG.set(dst, offset, orderId);
+        LONG.set(dst, offset + 8, driverId);
+        INT.set(dst, offset + 16, toFixed(latitude));
+        INT.set(dst, offset + 20, toFixed(longitude));
+        LONG.set(dst, offset + 24, epochMillis);
+    }
+
+    public static long updateOrderId(ByteBuffer src, int offset) {
+        return (long) LONG.get(src, offset);
+    }
+
+    public static long updateDriverId(ByteBuffer src, int offset) {
+        return (long) LONG.get(src, offset + 8);
+    }
+
+    public static double updateLatitude(ByteBuffer src, int offset) {
+        return fromFixed((int) INT.get(src, offset + 16));
+    }
+
+    public static double updateLongitude(ByteBuffer src, int offset) {
+        return fromFixed((int) INT.get(src, offset + 20));
+    }
+
+    public static long updateEpochMillis(ByteBuffer src, int offset) {
+        return (long) LONG.get(src, offset + 24);
+    }
+}
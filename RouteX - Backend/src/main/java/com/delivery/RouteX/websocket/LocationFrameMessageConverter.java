@@ -0,0 +1,72 @@
+package com.delivery.RouteX.websocket;
+
+import com.delivery.RouteX.dto.driver.UpdateLocationRequest;
+import com.delivery.RouteX.dto.websocket.LocationUpdateMessage;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.util.MimeType;
+
+import java.nio.ByteBuffer;
+import java.time.ZoneId;
+
+/**
+ * STOMP message converter for binary location frames
+ * Only engaged when the frame's content-type is LocationFrameCodec.MIME_TYPE,
+ * so JSON stays the default for every client that does not opt in.
+ */
+public class LocationFrameMessageConverter extends AbstractMessageConverter {
+
+    public LocationFrameMessageConverter() {
+        super(LocationFrameCodec.MIME_TYPE);
+        setStrictContentTypeMatch(true);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return UpdateLocationRequest.class == clazz || LocationUpdateMessage.class == clazz;
+    }
+
+    @Override
+    protected boolean supportsMimeType(MessageHeaders headers) {
+        MimeType mimeType = getMimeType(headers);
+        return mimeType != null
+                && LocationFrameCodec.MIME_TYPE.equalsTypeAndSubtype(mimeType)
+                && LocationFrameCodec.FORMAT.equals(mimeType.getParameter("format"));
+    }
+
+    @Override
+    protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+        if (!(message.getPayload() instanceof byte[] payload) || !LocationFrameCodec.isRequestFrame(payload.length)) {
+            throw new MessageConversionException(message, "Malformed binary location frame");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        UpdateLocationRequest request = new UpdateLocationRequest();
+        request.setLatitude(LocationFrameCodec.requestLatitude(buffer, 0));
+        request.setLongitude(LocationFrameCodec.requestLongitude(buffer, 0));
+        return request;
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+        LocationUpdateMessage update = (LocationUpdateMessage) payload;
+        byte[] frame = new byte[LocationFrameCodec.UPDATE_FRAME_SIZE];
+        LocationFrameCodec.encodeUpdate(
+                ByteBuffer.wrap(frame), 0,
+                update.getOrderId() != null ? update.getOrderId() : 0L,
+                update.getDriverId(),
+                update.getLatitude(),
+                update.getLongitude(),
+                toEpochMillis(update)
+        );
+        return frame;
+    }
+
+    static long toEpochMillis(LocationUpdateMessage update) {
+        return update.getTimestamp() != null
+                ? update.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,265 @@
+package com.delivery.RouteX.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-session backpressure on the client outbound channel
+ * Counts frames queued for each session between the broker and the socket write:
+ * - above conflate-queue-depth, location frames (latest-value streams) are dropped,
+ *   the next flush carries a newer position anyway
+ * - above max-queue-depth, the session is closed so the client reconnects and resyncs
+ * Transport-level send-time and buffer limits (WebSocketConfig) catch clients that
+ * stall inside a single write.
+ * Also the rejection policy of the shared outbound executor: when its queue is full,
+ * location frames are dropped, the deepest session (if it is over the conflation
+ * threshold) is disconnected, and every other frame is written on the caller's
+ * thread, so status and notification frames are never lost to a full queue.
+ */
+@Component
+@Slf4j
+public class SessionBackpressureMonitor implements ExecutorChannelInterceptor, RejectedExecutionHandler {
+
+    private final int conflateQueueDepth;
+    private final int maxQueueDepth;
+
+    private final Map<String, SessionStats> sessions = new ConcurrentHashMap<>();
+
+    private final Counter framesConflated;
+    private final Counter sessionsDisconnected;
+    private final Counter framesRejected;
+
+    public SessionBackpressureMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${app.websocket.session.conflate-queue-depth:50}") int conflateQueueDepth,
+            @Value("${app.websocket.session.max-queue-depth:500}") int maxQueueDepth
+    ) {
+        this.conflateQueueDepth = conflateQueueDepth;
+        this.maxQueueDepth = maxQueueDepth;
+        this.framesConflated = Counter.builder("routex.websocket.session.frames.dropped")
+                .description("Outbound frames dropped for sessions over the conflation threshold")
+                .register(meterRegistry);
+        this.sessionsDisconnected = Counter.builder("routex.websocket.session.disconnects")
+                .description("Sessions closed for exceeding the outbound queue limit")
+                .register(meterRegistry);
+        this.framesRejected = Counter.builder("routex.websocket.outbound.rejected")
+                .description("Outbound frames that found the shared outbound executor queue full")
+                .register(meterRegistry);
+        Gauge.builder("routex.websocket.session.queued", this, SessionBackpressureMonitor::getTotalQueued)
+                .description("Outbound frames queued across all sessions")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Decorate the STOMP handler so sessions can be closed from the outbound channel
+     */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                sessions.put(session.getId(), new SessionStats(session));
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        SessionStats stats = sessionId != null ? sessions.get(sessionId) : null;
+        if (stats == null) {
+            return message;
+        }
+
+        int depth = stats.queued.incrementAndGet();
+        if (depth > maxQueueDepth) {
+            stats.queued.decrementAndGet();
+            stats.dropped.increment();
+            disconnect(stats, depth);
+            return null;
+        }
+        if (depth > conflateQueueDepth && isConflatable(headers)) {
+            stats.queued.decrementAndGet();
+            stats.dropped.increment();
+            framesConflated.increment();
+            return null;
+        }
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        SessionStats stats = sessionId != null ? sessions.get(sessionId) : null;
+        if (stats != null) {
+            stats.queued.decrementAndGet();
+            stats.sent.increment();
+        }
+    }
+
+    /**
+     * Outbound executor queue is full
+     * Runs after preSend counted the frame, so a frame that is not run must be released here.
+     */
+    @Override
+    public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+        framesRejected.increment();
+        Message<?> message = task instanceof MessageHandlingRunnable sendTask ? sendTask.getMessage() : null;
+        String sessionId = message != null ? SimpMessageHeaderAccessor.getSessionId(message.getHeaders()) : null;
+        SessionStats stats = sessionId != null ? sessions.get(sessionId) : null;
+
+        if (executor.isShutdown()) {
+            release(stats);
+            return;
+        }
+        if (message != null && isConflatable(message.getHeaders())) {
+            release(stats);
+            framesConflated.increment();
+            return;
+        }
+
+        disconnectDeepest();
+        if (stats != null && stats.closing.get()) {
+            release(stats);
+            return;
+        }
+        // Caller runs: the broker thread slows down instead of the frame being lost
+        task.run();
+    }
+
+    /**
+     * @return Sessions ordered by current queue depth, deepest first
+     */
+    public List<SessionSnapshot> getSessions(int limit) {
+        return sessions.entrySet().stream()
+                .map(entry -> new SessionSnapshot(
+                        entry.getKey(),
+                        entry.getValue().queued.get(),
+                        entry.getValue().sent.sum(),
+                        entry.getValue().dropped.sum()
+                ))
+                .sorted(Comparator.comparingInt(SessionSnapshot::getQueued).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public int getTotalQueued() {
+        int total = 0;
+        for (SessionStats stats : sessions.values()) {
+            total += Math.max(0, stats.queued.get());
+        }
+        return total;
+    }
+
+    private void disconnectDeepest() {
+        SessionStats deepest = null;
+        for (SessionStats stats : sessions.values()) {
+            if (!stats.closing.get() && (deepest == null || stats.queued.get() > deepest.queued.get())) {
+                deepest = stats;
+            }
+        }
+        // Only a session that is actually behind; under uniform load everyone just waits
+        if (deepest != null && deepest.queued.get() > conflateQueueDepth) {
+            disconnect(deepest, deepest.queued.get());
+        }
+    }
+
+    private static void release(SessionStats stats) {
+        if (stats != null) {
+            stats.queued.decrementAndGet();
+            stats.dropped.increment();
+        }
+    }
+
+    private void disconnect(SessionStats stats, int depth) {
+        if (!stats.closing.compareAndSet(false, true)) {
+            return;
+        }
+        sessionsDisconnected.increment();
+        log.warn("Closing slow WebSocket session {}: {} frames queued", stats.session.getId(), depth);
+        try {
+            stats.session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            log.debug("Failed to close session {}: {}", stats.session.getId(), e.getMessage());
+        }
+    }
+
+    private static boolean isConflatable(MessageHeaders headers) {
+        return SimpMessageHeaderAccessor.getMessageType(headers) == SimpMessageType.MESSAGE
+                && isConflatable(SimpMessageHeaderAccessor.getDestination(headers));
+    }
+
+    private static boolean isConflatable(String destination) {
+        return destination != null
+                && (destination.startsWith(ConflatingLocationPublisher.TRACKING_TOPIC_PREFIX)
+                || destination.startsWith(ConflatingLocationPublisher.FLEET_TOPIC));
+    }
+
+    private static final class SessionStats {
+
+        private final WebSocketSession session;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final AtomicBoolean closing = new AtomicBoolean();
+
+        private SessionStats(WebSocketSession session) {
+            this.session = session;
+        }
+    }
+
+    @Getter
+    public static class SessionSnapshot {
+
+        private final String sessionId;
+        private final int queued;
+        private final long sent;
+        private final long dropped;
+
+        public SessionSnapshot(String sessionId, int queued, long sent, long dropped) {
+            this.sessionId = sessionId;
+            this.queued = queued;
+            this.sent = sent;
+            this.dropped = dropped;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.delivery.RouteX.websocket;
+
+import com.delivery.RouteX.event.DestinationInterestChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Tracks STOMP subscriptions on this node, per destination
+ * Unlike SimpUserRegistry this also covers anonymous sessions (public tracking pages),
+ * so publishers can cheaply skip topics nobody is listening to.
+ * When the cluster relay is enabled, hasSubscribers also consults the
+ * subscription tables advertised by other nodes.
+ *
+ * Counts change inside the map's compute for their destination, and the
+ * interest events are published from there too, so a subscribe racing the
+ * last unsubscribe can neither land on a removed counter nor see its events
+ * reordered.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TopicSubscriptionRegistry {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    // destination -> number of local subscriptions
+    private final Map<String, AtomicInteger> subscriberCounts = new ConcurrentHashMap<>();
+
+    // sessionId -> (subscriptionId -> destination)
+    private final Map<String, Map<String, String>> sessionSubscriptions = new ConcurrentHashMap<>();
+
+    private volatile Predicate<String> remoteInterest = destination -> false;
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        String sessionId = accessor.getSessionId();
+        String subscriptionId = accessor.getSubscriptionId();
+        String destination = accessor.getDestination();
+        if (sessionId == null || subscriptionId == null || destination == null) {
+            return;
+        }
+
+        String previous = sessionSubscriptions
+                .computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>())
+                .put(subscriptionId, destination);
+        if (previous != null) {
+            decrement(previous);
+        }
+        subscriberCounts.compute(destination, (d, count) -> {
+            AtomicInteger updated = count != null ? count : new AtomicInteger();
+            if (updated.incrementAndGet() == 1) {
+                publishInterest(d, true);
+            }
+            return updated;
+        });
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> subscriptions = sessionSubscriptions.get(accessor.getSessionId());
+        if (subscriptions == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+
+        String destination = subscriptions.remove(accessor.getSubscriptionId());
+        if (destination != null) {
+            decrement(destination);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> subscriptions = sessionSubscriptions.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::decrement);
+        }
+    }
+
+    /**
+     * @return true if any node in the cluster has a subscriber for the destination
+     */
+    public boolean hasSubscribers(String destination) {
+        return hasLocalSubscribers(destination) || remoteInterest.test(destination);
+    }
+
+    public boolean hasLocalSubscribers(String destination) {
+        AtomicInteger count = subscriberCounts.get(destination);
+        return count != null && count.get() > 0;
+    }
+
+    /**
+     * Plug in the cluster view of remote subscriptions
+     */
+    public void setRemoteInterest(Predicate<String> remoteInterest) {
+        this.remoteInterest = remoteInterest;
+    }
+
+    public int getSubscriberCount(String destination) {
+        AtomicInteger count = subscriberCounts.get(destination);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * @return Snapshot of destinations with at least one local subscriber
+     */
+    public Set<String> getSubscribedDestinations() {
+        return Set.copyOf(subscriberCounts.keySet());
+    }
+
+    public int getDestinationCount() {
+        return subscriberCounts.size();
+    }
+
+    public int getSessionCount() {
+        return sessionSubscriptions.size();
+    }
+
+    private void decrement(String destination) {
+        subscriberCounts.computeIfPresent(destination, (d, count) -> {
+            if (count.decrementAndGet() > 0) {
+                return count;
+            }
+            publishInterest(d, false);
+            return null;
+        });
+    }
+
+    // Called inside compute; listeners must not subscribe or unsubscribe through this registry
+    private void publishInterest(String destination, boolean subscribed) {
+        eventPublisher.publishEvent(DestinationInterestChangedEvent.builder()
+                .destination(destination)
+                .subscribed(subscribed)
+                .build());
+    }
+}
@@ -0,0 +1,389 @@
+package com.delivery.RouteX.websocket;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Server-Sent Events fan-out for public order tracking
+ * Lightweight alternative to STOMP/SockJS for browsers opening the tracking link.
+ *
+ * Emitters use servlet async I/O, so an idle connection holds no thread.
+ * A single scheduled sweep sends heartbeats, and only to connections that
+ * have been silent for a full interval (real events double as heartbeats).
+ * Each order keeps a small replay buffer so reconnecting clients resume
+ * from Last-Event-ID instead of refetching the whole history.
+ *
+ * Publishing only queues events per subscriber; the blocking emitter writes run
+ * on a small sender pool, one drain at a time per subscriber, so a slow browser
+ * delays itself and not the publisher or other streams. A subscriber whose queue
+ * reaches max-pending-events is closed and resumes from Last-Event-ID.
+ */
+@Service
+@Slf4j
+public class TrackingStreamService {
+
+    // Event ids are "<bootId>-<sequence>" so ids from a previous JVM are never mistaken for ours
+    private static final String BOOT_ID = Long.toString(System.currentTimeMillis(), 36);
+
+    private static final StreamEvent HEARTBEAT = new StreamEvent(-1, null, null);
+
+    private final ObjectMapper objectMapper;
+    private final long timeoutMs;
+    private final long heartbeatIntervalMs;
+    private final int replayBufferSize;
+    private final long idleStreamTtlMs;
+    private final int maxPendingEvents;
+    private final ExecutorService sender;
+
+    private final Map<Long, OrderStream> streams = new ConcurrentHashMap<>();
+
+    public TrackingStreamService(
+            ObjectMapper objectMapper,
+            @Value("${app.tracking.stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${app.tracking.stream.heartbeat-interval-ms:15000}") long heartbeatIntervalMs,
+            @Value("${app.tracking.stream.replay-buffer-size:50}") int replayBufferSize,
+            @Value("${app.tracking.stream.idle-stream-ttl-ms:600000}") long idleStreamTtlMs,
+            @Value("${app.tracking.stream.max-pending-events:100}") int maxPendingEvents,
+            @Value("${app.tracking.stream.sender-threads:8}") int senderThreads
+    ) {
+        this.objectMapper = objectMapper;
+        this.timeoutMs = timeoutMs;
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+        this.replayBufferSize = replayBufferSize;
+        this.idleStreamTtlMs = idleStreamTtlMs;
+        this.maxPendingEvents = maxPendingEvents;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "tracking-stream-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    /**
+     * Open a tracking stream for an order
+     * The snapshot or replay is written on the request thread; the subscriber only
+     * joins the stream once that first write succeeded.
+     *
+     * @param orderId The order to stream
+     * @param lastEventId Last-Event-ID sent by a reconnecting client (optional)
+     * @param snapshotSupplier Loads the current tracking state when the client cannot be resumed
+     * @return Emitter bound to the request
+     */
+    public SseEmitter subscribe(Long orderId, String lastEventId, Supplier<Object> snapshotSupplier) {
+        return subscribe(orderId, lastEventId, snapshotSupplier, new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter subscribe(Long orderId, String lastEventId, Supplier<Object> snapshotSupplier, SseEmitter emitter) {
+
+        OrderStream stream;
+        List<StreamEvent> initial;
+        long sentUpTo;
+        while (true) {
+            stream = streams.computeIfAbsent(orderId, id -> new OrderStream());
+
+            // Load the snapshot outside the lock; anything published meanwhile is replayed below
+            long sequenceBeforeSnapshot = stream.lastSequence();
+            List<StreamEvent> replay = stream.eventsAfter(lastEventId);
+            String snapshot = replay == null ? toJson(snapshotSupplier.get()) : null;
+
+            synchronized (stream) {
+                if (stream.closed) {
+                    continue;
+                }
+
+                initial = new ArrayList<>();
+                if (snapshot != null) {
+                    initial.add(new StreamEvent(sequenceBeforeSnapshot, "tracking", snapshot));
+                    initial.addAll(stream.eventsAfterSequence(sequenceBeforeSnapshot));
+                } else {
+                    // Buffer may have moved on since the unlocked read; re-read under the lock
+                    replay = stream.eventsAfter(lastEventId);
+                    if (replay != null) {
+                        initial.addAll(replay);
+                    }
+                }
+                sentUpTo = stream.lastSequence();
+            }
+            break;
+        }
+
+        try {
+            for (StreamEvent event : initial) {
+                write(emitter, event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Tracking stream for order {} failed before it opened: {}", orderId, e.getMessage());
+            emitter.completeWithError(e);
+            return emitter;
+        }
+
+        Subscriber subscriber = new Subscriber(emitter);
+        OrderStream joined = stream;
+        emitter.onCompletion(() -> joined.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> joined.remove(subscriber));
+
+        synchronized (stream) {
+            List<StreamEvent> missed = stream.eventsAfter(BOOT_ID + "-" + sentUpTo);
+            if (stream.closed || missed == null) {
+                // Stream expired or the buffer wrapped during the first write; the client resumes on reconnect
+                emitter.complete();
+                return emitter;
+            }
+            stream.subscribers.add(subscriber);
+            for (StreamEvent event : missed) {
+                offer(stream, subscriber, event);
+            }
+        }
+
+        log.debug("Tracking stream opened for order {} ({} subscribers)",
+                orderId, stream.subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Publish an event to every stream subscriber of an order
+     * Serializes once regardless of how many browsers are connected
+     *
+     * @param orderId The order the event belongs to
+     * @param eventName SSE event name (e.g. "status", "location")
+     * @param payload Payload, serialized as JSON
+     */
+    public void publish(Long orderId, String eventName, Object payload) {
+        OrderStream stream = streams.get(orderId);
+        if (stream == null) {
+            return;
+        }
+
+        String data = toJson(payload);
+        synchronized (stream) {
+            if (stream.closed) {
+                return;
+            }
+
+            StreamEvent event = stream.append(eventName, data, replayBufferSize);
+            for (Subscriber subscriber : new ArrayList<>(stream.subscribers)) {
+                offer(stream, subscriber, event);
+            }
+        }
+    }
+
+    /**
+     * Heartbeat sweep
+     * One pass for all connections; skips any connection that received data recently
+     * or still has events queued, and drops per-order buffers that have been idle
+     * with no subscribers.
+     */
+    @Scheduled(fixedDelayString = "${app.tracking.stream.heartbeat-interval-ms:15000}")
+    public void sendHeartbeats() {
+        long now = System.currentTimeMillis();
+
+        streams.forEach((orderId, stream) -> {
+            synchronized (stream) {
+                for (Subscriber subscriber : new ArrayList<>(stream.subscribers)) {
+                    if (now - subscriber.lastSentAt >= heartbeatIntervalMs) {
+                        offer(stream, subscriber, HEARTBEAT);
+                    }
+                }
+
+                if (stream.subscribers.isEmpty() && now - stream.lastActivityAt >= idleStreamTtlMs) {
+                    stream.closed = true;
+                    streams.remove(orderId, stream);
+                }
+            }
+        });
+    }
+
+    public int getConnectionCount() {
+        return streams.values().stream().mapToInt(stream -> stream.subscribers.size()).sum();
+    }
+
+    /**
+     * Queue an event for a subscriber and make sure a drain is scheduled
+     * Never blocks on the client; safe to call under the stream lock.
+     */
+    private void offer(OrderStream stream, Subscriber subscriber, StreamEvent event) {
+        boolean overflow;
+        synchronized (subscriber) {
+            if (subscriber.dead || (event == HEARTBEAT && (subscriber.draining || !subscriber.pending.isEmpty()))) {
+                return;
+            }
+            if (subscriber.pending.size() >= maxPendingEvents) {
+                log.debug("Tracking stream subscriber closed: {} events pending", subscriber.pending.size());
+                subscriber.dead = true;
+                subscriber.pending.clear();
+                overflow = true;
+            } else {
+                overflow = false;
+                subscriber.pending.addLast(event);
+                if (subscriber.draining) {
+                    return;
+                }
+                subscriber.draining = true;
+            }
+        }
+
+        try {
+            if (overflow) {
+                // complete() waits for the emitter's write lock, which a stuck write may hold
+                stream.remove(subscriber);
+                sender.execute(subscriber.emitter::complete);
+                return;
+            }
+            sender.execute(() -> drain(stream, subscriber));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            synchronized (subscriber) {
+                subscriber.draining = false;
+            }
+        }
+    }
+
+    private void drain(OrderStream stream, Subscriber subscriber) {
+        while (true) {
+            StreamEvent event;
+            synchronized (subscriber) {
+                event = subscriber.pending.pollFirst();
+                if (event == null) {
+                    subscriber.draining = false;
+                    return;
+                }
+            }
+
+            try {
+                write(subscriber.emitter, event);
+                subscriber.lastSentAt = System.currentTimeMillis();
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Tracking stream subscriber dropped: {}", e.getMessage());
+                synchronized (subscriber) {
+                    subscriber.dead = true;
+                    subscriber.pending.clear();
+                    subscriber.draining = false;
+                }
+                stream.remove(subscriber);
+                subscriber.emitter.complete();
+                return;
+            }
+        }
+    }
+
+    private static void write(SseEmitter emitter, StreamEvent event) throws IOException {
+        if (event == HEARTBEAT) {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+            return;
+        }
+        emitter.send(SseEmitter.event()
+                .id(BOOT_ID + "-" + event.sequence)
+                .name(event.name)
+                .data(event.data));
+    }
+
+    private String toJson(Object payload) {
+        return objectMapper.writeValueAsString(payload);
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private volatile long lastSentAt = System.currentTimeMillis();
+
+        // Guarded by the subscriber monitor
+        private final Deque<StreamEvent> pending = new ArrayDeque<>();
+        private boolean draining;
+        private boolean dead;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    private record StreamEvent(long sequence, String name, String data) {
+    }
+
+    private static final class OrderStream {
+        private final List<Subscriber> subscribers = new ArrayList<>();
+        private final Deque<StreamEvent> buffer = new ArrayDeque<>();
+        private long sequence;
+        private volatile long lastActivityAt = System.currentTimeMillis();
+        private boolean closed;
+
+        synchronized long lastSequence() {
+            return sequence;
+        }
+
+        synchronized StreamEvent append(String name, String data, int capacity) {
+            StreamEvent event = new StreamEvent(++sequence, name, data);
+            buffer.addLast(event);
+            while (buffer.size() > capacity) {
+                buffer.removeFirst();
+            }
+            lastActivityAt = System.currentTimeMillis();
+            return event;
+        }
+
+        /**
+         * Events after a client-supplied Last-Event-ID
+         * @return Events to replay, or null when the client cannot be resumed gap-free
+         */
+        synchronized List<StreamEvent> eventsAfter(String lastEventId) {
+            if (lastEventId == null || !lastEventId.startsWith(BOOT_ID + "-")) {
+                return null;
+            }
+
+            long lastSeen;
+            try {
+                lastSeen = Long.parseLong(lastEventId.substring(BOOT_ID.length() + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+
+            if (lastSeen > sequence) {
+                return null;
+            }
+            long oldestBuffered = buffer.isEmpty() ? sequence + 1 : buffer.peekFirst().sequence();
+            if (lastSeen < oldestBuffered - 1) {
+                return null;
+            }
+
+            return eventsAfterSequence(lastSeen);
+        }
+
+        synchronized List<StreamEvent> eventsAfterSequence(long lastSeen) {
+            List<StreamEvent> events = new ArrayList<>();
+            for (StreamEvent event : buffer) {
+                if (event.sequence() > lastSeen) {
+                    events.add(event);
+                }
+            }
+            return events;
+        }
+
+        synchronized void remove(Subscriber subscriber) {
+            subscribers.remove(subscriber);
+            lastActivityAt = System.currentTimeMillis();
+        }
+    }
+}
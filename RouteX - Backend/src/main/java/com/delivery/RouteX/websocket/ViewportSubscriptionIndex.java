@@ -0,0 +1,392 @@
+package com.delivery.RouteX.websocket;
+
+import com.delivery.RouteX.dto.websocket.LocationUpdateMessage;
+import com.delivery.RouteX.dto.websocket.ViewportDeltaMessage;
+import com.delivery.RouteX.dto.websocket.ViewportRequest;
+import com.delivery.RouteX.event.DriverAvailabilityChangedEvent;
+import com.delivery.RouteX.model.Driver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spatial pub/sub for the dispatcher fleet map
+ * The world is cut into fixed cells (app.websocket.viewport.cell-size-degrees).
+ * Each viewport registers in the cells its bounding box covers, and each driver
+ * is filed under the cell of its last position. A location ping only visits the
+ * sessions registered in the driver's old and new cells, and a viewport change
+ * only touches cells that were added, removed or sit on the box border. Work
+ * therefore scales with visible drivers, not fleet size.
+ *
+ * Deltas are buffered per session and flushed to /user/queue/fleet/viewport.
+ * Drivers leave the index when they go OFFLINE, or when they have not reported
+ * for app.websocket.viewport.stale-after-ms; viewports showing them get a removal.
+ * Viewports crossing the antimeridian are not supported.
+ */
+@Component
+@Slf4j
+public class ViewportSubscriptionIndex {
+
+    public static final String VIEWPORT_QUEUE = "/queue/fleet/viewport";
+
+    // Rows are at most 180 / cell size, so this keeps (row, col) keys unique
+    private static final long ROW_STRIDE = 10_000_000L;
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final double cellSizeDegrees;
+    private final int maxCellsPerViewport;
+    private final long staleAfterMs;
+
+    // cell -> sessions whose viewport covers it
+    private final Map<Long, Set<String>> cellSessions = new ConcurrentHashMap<>();
+
+    // cell -> drivers whose last position is in it
+    private final Map<Long, Set<Long>> cellDrivers = new ConcurrentHashMap<>();
+
+    // driverId -> last reported position
+    private final Map<Long, LocationUpdateMessage> lastLocations = new ConcurrentHashMap<>();
+
+    private final Map<String, Viewport> viewports = new ConcurrentHashMap<>();
+
+    public ViewportSubscriptionIndex(
+            SimpMessagingTemplate messagingTemplate,
+            @Value("${app.websocket.viewport.cell-size-degrees:0.05}") double cellSizeDegrees,
+            @Value("${app.websocket.viewport.max-cells:4096}") int maxCellsPerViewport,
+            @Value("${app.websocket.viewport.stale-after-ms:300000}") long staleAfterMs
+    ) {
+        this.messagingTemplate = messagingTemplate;
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.maxCellsPerViewport = maxCellsPerViewport;
+        this.staleAfterMs = staleAfterMs;
+    }
+
+    /**
+     * Set or move a session's viewport
+     * @return false if the box is invalid or covers more than max-cells
+     */
+    public boolean updateViewport(String sessionId, ViewportRequest request) {
+        if (request.getMinLatitude() > request.getMaxLatitude()
+                || request.getMinLongitude() > request.getMaxLongitude()) {
+            return false;
+        }
+
+        CellRange range = new CellRange(
+                row(request.getMinLatitude()), row(request.getMaxLatitude()),
+                col(request.getMinLongitude()), col(request.getMaxLongitude())
+        );
+        if (range.size() > maxCellsPerViewport) {
+            log.debug("Viewport for session {} spans {} cells, limit is {}", sessionId, range.size(), maxCellsPerViewport);
+            return false;
+        }
+
+        Viewport viewport = viewports.computeIfAbsent(sessionId, Viewport::new);
+        synchronized (viewport) {
+            Box oldBox = viewport.box;
+            CellRange oldRange = viewport.range;
+            Box newBox = new Box(request.getMinLatitude(), request.getMinLongitude(),
+                    request.getMaxLatitude(), request.getMaxLongitude());
+
+            Set<Long> candidates = new HashSet<>();
+            if (oldRange != null) {
+                for (long cell : oldRange.cells()) {
+                    if (!range.contains(cell)) {
+                        removeFromCell(cellSessions, cell, sessionId);
+                        candidates.add(cell);
+                    } else if (oldRange.isBorder(cell) || range.isBorder(cell)) {
+                        candidates.add(cell);
+                    }
+                }
+            }
+            for (long cell : range.cells()) {
+                if (oldRange == null || !oldRange.contains(cell)) {
+                    cellSessions.computeIfAbsent(cell, c -> ConcurrentHashMap.newKeySet()).add(sessionId);
+                    candidates.add(cell);
+                } else if (range.isBorder(cell)) {
+                    candidates.add(cell);
+                }
+            }
+
+            viewport.box = newBox;
+            viewport.range = range;
+
+            // Interior cells kept from the old range cannot change visibility
+            for (long cell : candidates) {
+                for (Long driverId : cellDrivers.getOrDefault(cell, Set.of())) {
+                    LocationUpdateMessage location = lastLocations.get(driverId);
+                    if (location == null) {
+                        continue;
+                    }
+                    boolean wasVisible = oldBox != null && oldBox.contains(location);
+                    boolean visible = newBox.contains(location);
+                    if (visible && !wasVisible) {
+                        viewport.queueUpdate(location);
+                    } else if (wasVisible && !visible) {
+                        viewport.queueRemoved(driverId);
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    public void clearViewport(String sessionId) {
+        Viewport viewport = viewports.remove(sessionId);
+        if (viewport == null) {
+            return;
+        }
+        synchronized (viewport) {
+            if (viewport.range != null) {
+                for (long cell : viewport.range.cells()) {
+                    removeFromCell(cellSessions, cell, sessionId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Route a driver position to the viewports covering its old and new cell
+     */
+    public void onDriverLocation(LocationUpdateMessage location) {
+        Long driverId = location.getDriverId();
+        long cell = cell(location.getLatitude(), location.getLongitude());
+        LocationUpdateMessage[] replaced = new LocationUpdateMessage[1];
+        // Cell filing happens under the driver's entry lock, so an eviction cannot interleave
+        lastLocations.compute(driverId, (id, current) -> {
+            replaced[0] = current;
+            Long currentCell = current != null ? cell(current.getLatitude(), current.getLongitude()) : null;
+            if (currentCell == null || currentCell != cell) {
+                if (currentCell != null) {
+                    removeFromCell(cellDrivers, currentCell, driverId);
+                }
+                cellDrivers.computeIfAbsent(cell, c -> ConcurrentHashMap.newKeySet()).add(driverId);
+            }
+            return location;
+        });
+        LocationUpdateMessage previous = replaced[0];
+        Long previousCell = previous != null ? cell(previous.getLatitude(), previous.getLongitude()) : null;
+
+        Set<String> sessions = new HashSet<>(cellSessions.getOrDefault(cell, Set.of()));
+        if (previousCell != null && previousCell != cell) {
+            sessions.addAll(cellSessions.getOrDefault(previousCell, Set.of()));
+        }
+
+        for (String sessionId : sessions) {
+            Viewport viewport = viewports.get(sessionId);
+            if (viewport == null) {
+                continue;
+            }
+            synchronized (viewport) {
+                if (viewport.box == null) {
+                    continue;
+                }
+                if (viewport.box.contains(location)) {
+                    viewport.queueUpdate(location);
+                } else if (previous != null && viewport.box.contains(previous)) {
+                    viewport.queueRemoved(driverId);
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onDriverAvailabilityChanged(DriverAvailabilityChangedEvent event) {
+        if (event.getStatus() == Driver.AvailabilityStatus.OFFLINE) {
+            LocationUpdateMessage location = lastLocations.get(event.getDriverId());
+            if (location != null) {
+                removeDriver(location);
+            }
+        }
+    }
+
+    /**
+     * Drop drivers whose last position is older than stale-after-ms
+     * (app closed or connection lost without going OFFLINE)
+     */
+    @Scheduled(fixedDelayString = "${app.websocket.viewport.sweep-interval-ms:60000}")
+    public void evictStale() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(staleAfterMs));
+        int evicted = 0;
+        for (LocationUpdateMessage location : lastLocations.values()) {
+            if (location.getTimestamp() != null && location.getTimestamp().isBefore(cutoff) && removeDriver(location)) {
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} stale drivers from the viewport index", evicted);
+        }
+    }
+
+    /**
+     * Remove a driver if location is still its last position; a newer ping keeps it
+     */
+    private boolean removeDriver(LocationUpdateMessage location) {
+        Long driverId = location.getDriverId();
+        long cell = cell(location.getLatitude(), location.getLongitude());
+        boolean[] removed = new boolean[1];
+        lastLocations.computeIfPresent(driverId, (id, current) -> {
+            if (current != location) {
+                return current;
+            }
+            removeFromCell(cellDrivers, cell, driverId);
+            removed[0] = true;
+            return null;
+        });
+        if (!removed[0]) {
+            return false;
+        }
+
+        for (String sessionId : cellSessions.getOrDefault(cell, Set.of())) {
+            Viewport viewport = viewports.get(sessionId);
+            if (viewport == null) {
+                continue;
+            }
+            synchronized (viewport) {
+                if (viewport.box != null && viewport.box.contains(location)) {
+                    viewport.queueRemoved(driverId);
+                }
+            }
+        }
+        return true;
+    }
+
+    @Scheduled(fixedRateString = "${app.websocket.viewport.flush-interval-ms:1000}")
+    public void flush() {
+        for (Viewport viewport : viewports.values()) {
+            ViewportDeltaMessage delta;
+            synchronized (viewport) {
+                if (viewport.updates.isEmpty() && viewport.removed.isEmpty()) {
+                    continue;
+                }
+                delta = ViewportDeltaMessage.builder()
+                        .updates(new ArrayList<>(viewport.updates.values()))
+                        .removed(new ArrayList<>(viewport.removed))
+                        .build();
+                viewport.updates.clear();
+                viewport.removed.clear();
+            }
+            messagingTemplate.convertAndSendToUser(viewport.sessionId, VIEWPORT_QUEUE, delta, sessionHeaders(viewport.sessionId));
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        clearViewport(event.getSessionId());
+    }
+
+    public int getViewportCount() {
+        return viewports.size();
+    }
+
+    public int getDriverCount() {
+        return lastLocations.size();
+    }
+
+    private long cell(double latitude, double longitude) {
+        return row(latitude) * ROW_STRIDE + col(longitude);
+    }
+
+    private long row(double latitude) {
+        return (long) Math.floor((latitude + 90.0) / cellSizeDegrees);
+    }
+
+    private long col(double longitude) {
+        return (long) Math.floor((longitude + 180.0) / cellSizeDegrees);
+    }
+
+    private static <K, V> void removeFromCell(Map<K, Set<V>> index, K cell, V value) {
+        index.computeIfPresent(cell, (c, values) -> {
+            values.remove(value);
+            return values.isEmpty() ? null : values;
+        });
+    }
+
+    // Anonymous viewport sessions have no principal, so address the session itself
+    private static MessageHeaders sessionHeaders(String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setLeaveMutable(true);
+        return accessor.getMessageHeaders();
+    }
+
+    private record Box(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+
+        boolean contains(LocationUpdateMessage location) {
+            return location.getLatitude() >= minLatitude && location.getLatitude() <= maxLatitude
+                    && location.getLongitude() >= minLongitude && location.getLongitude() <= maxLongitude;
+        }
+    }
+
+    private record CellRange(long minRow, long maxRow, long minCol, long maxCol) {
+
+        long size() {
+            return (maxRow - minRow + 1) * (maxCol - minCol + 1);
+        }
+
+        boolean contains(long cell) {
+            long row = cell / ROW_STRIDE;
+            long col = cell % ROW_STRIDE;
+            return row >= minRow && row <= maxRow && col >= minCol && col <= maxCol;
+        }
+
+        boolean isBorder(long cell) {
+            long row = cell / ROW_STRIDE;
+            long col = cell % ROW_STRIDE;
+            return row == minRow || row == maxRow || col == minCol || col == maxCol;
+        }
+
+        List<Long> cells() {
+            List<Long> cells = new ArrayList<>((int) size());
+            for (long row = minRow; row <= maxRow; row++) {
+                for (long col = minCol; col <= maxCol; col++) {
+                    cells.add(row * ROW_STRIDE + col);
+                }
+            }
+            return cells;
+        }
+    }
+
+    private static final class Viewport {
+
+        private final String sessionId;
+        private Box box;
+        private CellRange range;
+
+        // Pending delta, guarded by the viewport monitor
+        private final Map<Long, LocationUpdateMessage> updates = new LinkedHashMap<>();
+        private final Set<Long> removed = new LinkedHashSet<>();
+
+        private Viewport(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        private void queueUpdate(LocationUpdateMessage location) {
+            removed.remove(location.getDriverId());
+            updates.put(location.getDriverId(), location);
+        }
+
+        private void queueRemoved(Long driverId) {
+            updates.remove(driverId);
+            removed.add(driverId);
+        }
+    }
+}
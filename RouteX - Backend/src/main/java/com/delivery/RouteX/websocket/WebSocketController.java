@@ -1,20 +1,21 @@
 package com.delivery.RouteX.websocket;
 
-import com.delivery.RouteX.Repository.OrderRepository;
 import com.delivery.RouteX.dto.driver.UpdateLocationRequest;
-import com.delivery.RouteX.model.Order;
+import com.delivery.RouteX.dto.websocket.DashboardMetricsMessage;
+import com.delivery.RouteX.dto.websocket.LocationUpdateMessage;
+import com.delivery.RouteX.dto.websocket.ViewportRequest;
 import com.delivery.RouteX.model.User;
 import com.delivery.RouteX.service.DriverService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 
-import java.util.List;
-
 /**
  * WebSocket Controller for handling incoming messages from clients
  * Processes real-time updates from drivers
@@ -26,7 +27,9 @@ public class WebSocketController {
 
     private final DriverService driverService;
     private final WebSocketService webSocketService;
-    private final OrderRepository orderRepository;
+    private final DriverOrderIndex driverOrderIndex;
+    private final ViewportSubscriptionIndex viewportIndex;
+    private final DashboardMetricsPublisher dashboardMetricsPublisher;
 
     /**
      * Handle driver location updates
@@ -46,26 +49,73 @@ public class WebSocketController {
             return;
         }
 
-        // Update driver location in database
-        driverService.updateDriverLocation(user.getId(), request);
+        if (user.getDriver() == null) {
+            log.warn("Driver user {} has no driver profile", user.getId());
+            return;
+        }
 
-        // Get all active orders for this driver
+        // Update driver location in database (single UPDATE)
         Long driverId = user.getDriver().getId();
-        List<Order> activeOrders = orderRepository.findActiveOrdersByDriver(driverId);
+        driverService.recordDriverLocation(driverId, request);
 
-        // Broadcast location to all active orders
-        for (Order order : activeOrders) {
-            webSocketService.sendLocationUpdate(
-                    order.getId(),
-                    request.getLatitude(),
-                    request.getLongitude()
-            );
+        // Sequence the position in the fleet state, then broadcast it to all active orders
+        // (in-memory lookup, no DB reads)
+        LocationUpdateMessage position = webSocketService.sendFleetLocationUpdate(
+                driverId,
+                request.getLatitude(),
+                request.getLongitude()
+        );
+        for (Long orderId : driverOrderIndex.getActiveOrderIds(driverId)) {
+            webSocketService.sendLocationUpdate(orderId, position);
         }
 
         log.debug("Driver {} location updated via WebSocket: {}, {}",
                 driverId, request.getLatitude(), request.getLongitude());
     }
 
+    /**
+     * Handle fleet map viewport changes
+     * Client sends to: /app/fleet/viewport
+     * Client subscribes to: /user/queue/fleet/viewport
+     *
+     * @param request Bounding box of the dispatcher's map view
+     * @param user Authenticated admin or dispatcher
+     */
+    @MessageMapping("/fleet/viewport")
+    public void handleViewportUpdate(
+            @Payload @Valid ViewportRequest request,
+            @AuthenticationPrincipal User user,
+            SimpMessageHeaderAccessor headerAccessor
+    ) {
+        if (user == null || (user.getRole() != User.Role.ADMIN && user.getRole() != User.Role.DISPATCHER)) {
+            log.warn("Non-dispatcher attempted to subscribe to a fleet viewport");
+            return;
+        }
+
+        if (!viewportIndex.updateViewport(headerAccessor.getSessionId(), request)) {
+            log.debug("Rejected viewport for session {}: invalid or too large", headerAccessor.getSessionId());
+        }
+    }
+
+    /**
+     * Stop fleet map updates for this session
+     * Client sends to: /app/fleet/viewport/clear
+     */
+    @MessageMapping("/fleet/viewport/clear")
+    public void handleViewportClear(SimpMessageHeaderAccessor headerAccessor) {
+        viewportIndex.clearViewport(headerAccessor.getSessionId());
+    }
+
+    /**
+     * Current dashboard metrics, sent once to the subscriber
+     * Client subscribes to: /app/analytics/dashboard, then /topic/analytics/dashboard for deltas
+     * (access is checked by StompAuthChannelInterceptor)
+     */
+    @SubscribeMapping("/analytics/dashboard")
+    public DashboardMetricsMessage handleDashboardSubscribe() {
+        return dashboardMetricsPublisher.snapshot();
+    }
+
     /**
      * Handle connection events
      * Called when client connects to WebSocket
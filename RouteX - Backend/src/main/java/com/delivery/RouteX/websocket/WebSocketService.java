@@ -1,15 +1,14 @@
 package com.delivery.RouteX.websocket;
 
-import com.delivery.RouteX.Repository.OrderRepository;
 import com.delivery.RouteX.dto.websocket.LocationUpdateMessage;
 import com.delivery.RouteX.dto.websocket.OrderUpdateMessage;
-import com.delivery.RouteX.model.Order;
+import com.delivery.RouteX.event.OrderStatusChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
-
-import java.time.LocalDateTime;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 /**
  * WebSocket Service for real-time message broadcasting
@@ -22,81 +21,109 @@ public class WebSocketService {
 
 
     private final SimpMessagingTemplate messagingTemplate;
-    private final OrderRepository orderRepository;
+    private final TrackingStreamService trackingStreamService;
+    private final ConflatingLocationPublisher locationPublisher;
+    private final ViewportSubscriptionIndex viewportIndex;
+    private final FleetStateService fleetState;
+    private final AdminDigestPublisher adminDigestPublisher;
 
     /**
-     * Send order status update to subscribed clients
-     * @param orderId The order ID to send update for
+     * Push committed order status changes to STOMP and SSE subscribers, and alert
+     * admins and dispatchers to the ones that need them
+     * Runs after commit so clients never see a status that was rolled back
      */
-    public void sendOrderUpdate(Long orderId) {
-        Order order = orderRepository.findById(orderId).orElse(null);
-        if (order == null) {
-            log.warn("Cannot send order update: Order {} not found", orderId);
-            return;
-        }
-
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
         OrderUpdateMessage message = OrderUpdateMessage.builder()
-                .orderId(orderId)
-                .orderNumber(order.getOrderNumber())
-                .status(order.getStatus())
-                .message("Order status updated to " + order.getStatus())
-                .timestamp(LocalDateTime.now())
+                .orderId(event.getOrderId())
+                .orderNumber(event.getOrderNumber())
+                .status(event.getStatus())
+                .message("Order status updated to " + event.getStatus())
+                .timestamp(event.getOccurredAt())
                 .build();
 
+        publishOrderUpdate(message, event.getCustomerId(), event.getDriverId());
+
+        String alert = adminAlert(event);
+        if (alert != null) {
+            notifyAdmins(alert);
+        }
+    }
+
+    private static String adminAlert(OrderStatusChangedEvent event) {
+        return switch (event.getStatus()) {
+            case PENDING -> event.getPreviousStatus() == null
+                    ? "New order " + event.getOrderNumber() + " is awaiting driver assignment"
+                    : null;
+            case FAILED -> "Delivery failed for order " + event.getOrderNumber()
+                    + (event.getDriverId() != null ? " (driver " + event.getDriverId() + ")" : "");
+            case CANCELLED -> "Order " + event.getOrderNumber() + " was cancelled while " + event.getPreviousStatus();
+            default -> null;
+        };
+    }
+
+    private void publishOrderUpdate(OrderUpdateMessage message, Long customerId, Long driverId) {
+        Long orderId = message.getOrderId();
+
         // Send to specific order topic (public tracking)
         messagingTemplate.convertAndSend("/topic/orders/" + orderId, message);
 
         // Send to customer's private queue
-        messagingTemplate.convertAndSend(
-                "/queue/customer/" + order.getCustomer().getId(),
-                message
-        );
+        messagingTemplate.convertAndSend("/queue/customer/" + customerId, message);
 
         // Send to driver's private queue if assigned
-        if (order.getDriver() != null) {
-            messagingTemplate.convertAndSend(
-                    "/queue/driver/" + order.getDriver().getId(),
-                    message
-            );
+        if (driverId != null) {
+            messagingTemplate.convertAndSend("/queue/driver/" + driverId, message);
         }
 
+        // Send to SSE tracking streams
+        trackingStreamService.publish(orderId, "status", message);
+
         log.debug("Order update sent via WebSocket: {}", orderId);
     }
 
     /**
-     * Send driver location update for real-time tracking
+     * Send a sequenced driver position to an order's tracking subscribers
      * @param orderId The order being tracked
-     * @param latitude Driver's current latitude
-     * @param longitude Driver's current longitude
+     * @param position Position returned by sendFleetLocationUpdate
      */
-    public void sendLocationUpdate(Long orderId, Double latitude, Double longitude) {
-        Order order = orderRepository.findById(orderId).orElse(null);
-        if (order == null || order.getDriver() == null) {
-            log.warn("Cannot send location update: Order {} not found or no driver assigned", orderId);
-            return;
-        }
-
+    public void sendLocationUpdate(Long orderId, LocationUpdateMessage position) {
         LocationUpdateMessage message = LocationUpdateMessage.builder()
                 .orderId(orderId)
-                .driverId(order.getDriver().getId())
-                .latitude(latitude)
-                .longitude(longitude)
-                .timestamp(LocalDateTime.now())
+                .driverId(position.getDriverId())
+                .latitude(position.getLatitude())
+                .longitude(position.getLongitude())
+                .timestamp(position.getTimestamp())
+                .sequence(position.getSequence())
                 .build();
 
-        // Send to order tracking topic (public + customer)
-        messagingTemplate.convertAndSend("/topic/tracking/" + orderId, message);
+        locationPublisher.submitTracking(message);
+    }
+
+    /**
+     * Record a driver position in the fleet state and send it to the admin fleet view
+     * and fleet map viewports
+     * @param driverId The driver reporting
+     * @param latitude Driver's current latitude
+     * @param longitude Driver's current longitude
+     * @return The recorded position, carrying its fleet sequence
+     */
+    public LocationUpdateMessage sendFleetLocationUpdate(Long driverId, Double latitude, Double longitude) {
+        LocationUpdateMessage message = fleetState.record(driverId, latitude, longitude);
 
-        log.debug("Location update sent via WebSocket for order: {}", orderId);
+        locationPublisher.submitFleet(message);
+        viewportIndex.onDriverLocation(message);
+        return message;
     }
 
     /**
      * Notify all admins and dispatchers
+     * Delivered with the next periodic digest on /topic/admin/digest
      * @param message The message to broadcast
      */
     public void notifyAdmins(String message) {
-        messagingTemplate.convertAndSend("/topic/admin", message);
-        log.debug("Admin notification sent: {}", message);
+        adminDigestPublisher.add(message);
+        log.debug("Admin notification queued: {}", message);
     }
 
     /**
@@ -0,0 +1,33 @@
+package com.delivery.RouteX.websocket;
+
+import lombok.RequiredArgsConstructor;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint: /actuator/websocketsessions
+ * Shows the WebSocket sessions with the deepest outbound queues and their drop counts.
+ */
+@Component
+@Endpoint(id = "websocketsessions")
+@RequiredArgsConstructor
+public class WebSocketSessionsEndpoint {
+
+    private static final int DEFAULT_LIMIT = 50;
+
+    private final SessionBackpressureMonitor backpressureMonitor;
+
+    @ReadOperation
+    public Map<String, Object> sessions(@Nullable Integer limit) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("sessionCount", backpressureMonitor.getSessionCount());
+        body.put("totalQueued", backpressureMonitor.getTotalQueued());
+        body.put("sessions", backpressureMonitor.getSessions(limit != null ? limit : DEFAULT_LIMIT));
+        return body;
+    }
+}
@@ -0,0 +1,411 @@
+package com.delivery.RouteX.websocket.cluster;
+
+import com.delivery.RouteX.event.DestinationInterestChangedEvent;
+import com.delivery.RouteX.websocket.TopicSubscriptionRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.MimeTypeUtils;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bridges the local simple broker to the other nodes of the cluster
+ *
+ * Outbound: intercepts messages the application publishes on the broker channel
+ * and forwards those whose destination has subscribers on another node. Frames
+ * are queued and packed into batched envelopes every batch interval.
+ *
+ * Inbound: envelopes from other nodes are replayed into the local broker, only
+ * for destinations with local subscribers, tagged with the origin header so
+ * they are not forwarded again.
+ *
+ * Subscription tables: every node announces its subscribed destinations as a
+ * periodic snapshot plus immediate add/remove deltas. Nodes that miss three
+ * announcements are forgotten. User destinations (/user/...) are resolved
+ * per session on the receiving node, so they are always forwarded.
+ */
+@Slf4j
+public class ClusterBrokerBridge implements ChannelInterceptor {
+
+    public static final String ORIGIN_HEADER = "routex-cluster-origin";
+
+    private static final String USER_DESTINATION_PREFIX = "/user/";
+
+    // Fixed JSON overhead of an envelope and of each frame, used when packing batches
+    private static final int ENVELOPE_OVERHEAD = 160;
+    private static final int FRAME_OVERHEAD = 64;
+
+    private final String nodeId;
+    private final ClusterRelay relay;
+    private final TopicSubscriptionRegistry subscriptionRegistry;
+    private final ObjectProvider<SimpMessagingTemplate> messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final long nodeTtlMs;
+
+    private final BlockingQueue<ClusterEnvelope.Frame> outbound;
+    private final ConcurrentLinkedQueue<ClusterEnvelope> pendingControl = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean announceRequested = new AtomicBoolean(true);
+    private final Map<String, RemoteNode> remoteNodes = new ConcurrentHashMap<>();
+
+    private final Timer lagTimer;
+    private final Counter framesForwarded;
+    private final Counter framesDropped;
+    private final Counter framesDelivered;
+    private final Counter framesIgnored;
+    private final Counter envelopesSent;
+    private final MultiGauge subscriptionTables;
+
+    private long announceEpoch;
+
+    public ClusterBrokerBridge(
+            String nodeId,
+            ClusterRelay relay,
+            TopicSubscriptionRegistry subscriptionRegistry,
+            ObjectProvider<SimpMessagingTemplate> messagingTemplate,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            int outboundQueueCapacity,
+            long announceIntervalMs
+    ) {
+        this.nodeId = nodeId;
+        this.relay = relay;
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.nodeTtlMs = announceIntervalMs * 3;
+        this.outbound = new LinkedBlockingQueue<>(outboundQueueCapacity);
+
+        this.lagTimer = Timer.builder("routex.websocket.cluster.lag")
+                .description("Time from envelope publish on the origin node to receipt on this node")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.framesForwarded = frameCounter(meterRegistry, "out", "forwarded");
+        this.framesDropped = frameCounter(meterRegistry, "out", "dropped");
+        this.framesDelivered = frameCounter(meterRegistry, "in", "delivered");
+        this.framesIgnored = frameCounter(meterRegistry, "in", "ignored");
+        this.envelopesSent = Counter.builder("routex.websocket.cluster.envelopes")
+                .description("Envelopes published to the cluster relay")
+                .register(meterRegistry);
+        this.subscriptionTables = MultiGauge.builder("routex.websocket.cluster.subscription.table")
+                .description("Subscribed destinations per node as seen by this node")
+                .register(meterRegistry);
+        Gauge.builder("routex.websocket.cluster.nodes", remoteNodes, Map::size)
+                .description("Remote nodes currently announcing subscriptions")
+                .register(meterRegistry);
+        Gauge.builder("routex.websocket.cluster.outbound.queue", outbound, BlockingQueue::size)
+                .description("Frames waiting to be batched to the relay")
+                .register(meterRegistry);
+
+        subscriptionRegistry.setRemoteInterest(this::isRemoteInterested);
+        relay.subscribe(this::receive);
+        pendingControl.add(ClusterEnvelope.builder().type(ClusterEnvelope.Type.HELLO).build());
+        log.info("Cluster broker bridge started as node {}", nodeId);
+    }
+
+    // ----- outbound -----
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        // Read headers directly; wrapping in an accessor copies them on every broker message
+        MessageHeaders headers = message.getHeaders();
+        if (SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE
+                || headers.containsKey(ORIGIN_HEADER)) {
+            return message;
+        }
+
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (destination == null || !(message.getPayload() instanceof byte[] payload)) {
+            return message;
+        }
+        if (!destination.startsWith(USER_DESTINATION_PREFIX) && !isRemoteInterested(destination)) {
+            return message;
+        }
+
+        Object contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+        ClusterEnvelope.Frame frame = new ClusterEnvelope.Frame(
+                destination,
+                contentType != null ? contentType.toString() : null,
+                Base64.getEncoder().encodeToString(payload)
+        );
+        if (!outbound.offer(frame)) {
+            framesDropped.increment();
+        }
+        return message;
+    }
+
+    @EventListener
+    public void onDestinationInterestChanged(DestinationInterestChangedEvent event) {
+        pendingControl.add(ClusterEnvelope.builder()
+                .type(event.isSubscribed() ? ClusterEnvelope.Type.INTEREST_ADD : ClusterEnvelope.Type.INTEREST_REMOVE)
+                .destinations(List.of(event.getDestination()))
+                .build());
+    }
+
+    @Scheduled(fixedRateString = "${app.websocket.cluster.announce-interval-ms:5000}")
+    public void requestAnnounce() {
+        announceRequested.set(true);
+        expireSilentNodes();
+        updateSubscriptionGauges();
+    }
+
+    /**
+     * Single writer to the relay, so control deltas, snapshots and message
+     * batches leave this node in the order they were produced
+     */
+    @Scheduled(fixedDelayString = "${app.websocket.cluster.batch-interval-ms:25}")
+    public void flush() {
+        ClusterEnvelope control;
+        while ((control = pendingControl.poll()) != null) {
+            send(control);
+        }
+        if (announceRequested.getAndSet(false)) {
+            announce();
+        }
+
+        List<ClusterEnvelope.Frame> frames = new ArrayList<>();
+        outbound.drainTo(frames);
+        if (frames.isEmpty()) {
+            return;
+        }
+
+        int budget = relay.getMaxPayloadBytes() - ENVELOPE_OVERHEAD;
+        List<ClusterEnvelope.Frame> batch = new ArrayList<>();
+        int batchSize = 0;
+        for (ClusterEnvelope.Frame frame : frames) {
+            int frameSize = estimateSize(frame);
+            if (frameSize > budget) {
+                framesDropped.increment();
+                log.debug("Dropping {} byte frame for {}: exceeds relay payload limit", frameSize, frame.getDestination());
+                continue;
+            }
+            if (batchSize + frameSize > budget) {
+                sendFrames(batch);
+                batch = new ArrayList<>();
+                batchSize = 0;
+            }
+            batch.add(frame);
+            batchSize += frameSize;
+        }
+        sendFrames(batch);
+    }
+
+    private void announce() {
+        long epoch = ++announceEpoch;
+        List<String> destinations = new ArrayList<>(subscriptionRegistry.getSubscribedDestinations());
+        int budget = relay.getMaxPayloadBytes() - ENVELOPE_OVERHEAD;
+
+        List<String> chunk = new ArrayList<>();
+        int chunkSize = 0;
+        for (String destination : destinations) {
+            int size = destination.length() + 4;
+            if (chunkSize + size > budget && !chunk.isEmpty()) {
+                sendInterestChunk(epoch, chunk, false);
+                chunk = new ArrayList<>();
+                chunkSize = 0;
+            }
+            chunk.add(destination);
+            chunkSize += size;
+        }
+        sendInterestChunk(epoch, chunk, true);
+    }
+
+    private void sendInterestChunk(long epoch, List<String> destinations, boolean last) {
+        send(ClusterEnvelope.builder()
+                .type(ClusterEnvelope.Type.INTEREST)
+                .epoch(epoch)
+                .last(last)
+                .destinations(destinations)
+                .build());
+    }
+
+    private void sendFrames(List<ClusterEnvelope.Frame> frames) {
+        if (frames.isEmpty()) {
+            return;
+        }
+        ClusterEnvelope envelope = ClusterEnvelope.builder()
+                .type(ClusterEnvelope.Type.MESSAGES)
+                .frames(frames)
+                .build();
+        if (send(envelope)) {
+            framesForwarded.increment(frames.size());
+        } else if (frames.size() > 1) {
+            // Estimate was off (non-ASCII destinations); split and retry
+            int half = frames.size() / 2;
+            sendFrames(new ArrayList<>(frames.subList(0, half)));
+            sendFrames(new ArrayList<>(frames.subList(half, frames.size())));
+        } else {
+            framesDropped.increment();
+        }
+    }
+
+    private boolean send(ClusterEnvelope envelope) {
+        envelope.setOrigin(nodeId);
+        envelope.setSentAt(System.currentTimeMillis());
+        String json = objectMapper.writeValueAsString(envelope);
+        if (json.getBytes(StandardCharsets.UTF_8).length > relay.getMaxPayloadBytes()) {
+            return false;
+        }
+        relay.publish(json);
+        envelopesSent.increment();
+        return true;
+    }
+
+    // ----- inbound -----
+
+    private void receive(String json) {
+        ClusterEnvelope envelope;
+        try {
+            envelope = objectMapper.readValue(json, ClusterEnvelope.class);
+        } catch (JacksonException e) {
+            log.warn("Ignoring malformed cluster envelope: {}", e.getMessage());
+            return;
+        }
+        if (envelope.getType() == null || nodeId.equals(envelope.getOrigin())) {
+            return;
+        }
+
+        // Assumes node clocks are NTP-synced; skew shows up as lag
+        lagTimer.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - envelope.getSentAt())));
+        RemoteNode node = remoteNodes.computeIfAbsent(envelope.getOrigin(), id -> new RemoteNode());
+        node.lastSeen = System.currentTimeMillis();
+
+        switch (envelope.getType()) {
+            case HELLO -> announceRequested.set(true);
+            case MESSAGES -> deliver(envelope);
+            case INTEREST -> node.applySnapshot(envelope.getEpoch(), envelope.getDestinations(), envelope.isLast());
+            case INTEREST_ADD -> node.destinations.addAll(nullToEmpty(envelope.getDestinations()));
+            case INTEREST_REMOVE -> nullToEmpty(envelope.getDestinations()).forEach(node.destinations::remove);
+        }
+    }
+
+    private void deliver(ClusterEnvelope envelope) {
+        SimpMessagingTemplate template = messagingTemplate.getObject();
+        for (ClusterEnvelope.Frame frame : nullToEmpty(envelope.getFrames())) {
+            String destination = frame.getDestination();
+            if (destination == null
+                    || (!destination.startsWith(USER_DESTINATION_PREFIX)
+                    && !subscriptionRegistry.hasLocalSubscribers(destination))) {
+                framesIgnored.increment();
+                continue;
+            }
+
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            if (frame.getContentType() != null) {
+                accessor.setContentType(MimeTypeUtils.parseMimeType(frame.getContentType()));
+            }
+            accessor.setHeader(ORIGIN_HEADER, envelope.getOrigin());
+            accessor.setLeaveMutable(true);
+            byte[] payload = Base64.getDecoder().decode(frame.getPayload());
+            template.send(destination, MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+            framesDelivered.increment();
+        }
+    }
+
+    // ----- subscription tables -----
+
+    public boolean isRemoteInterested(String destination) {
+        for (RemoteNode node : remoteNodes.values()) {
+            if (node.destinations.contains(destination)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private void expireSilentNodes() {
+        long cutoff = System.currentTimeMillis() - nodeTtlMs;
+        remoteNodes.entrySet().removeIf(entry -> {
+            boolean silent = entry.getValue().lastSeen < cutoff;
+            if (silent) {
+                log.info("Cluster node {} stopped announcing, dropping its subscriptions", entry.getKey());
+            }
+            return silent;
+        });
+    }
+
+    private void updateSubscriptionGauges() {
+        List<MultiGauge.Row<?>> rows = new ArrayList<>();
+        rows.add(MultiGauge.Row.of(Tags.of("node", nodeId), subscriptionRegistry.getDestinationCount()));
+        remoteNodes.forEach((id, node) ->
+                rows.add(MultiGauge.Row.of(Tags.of("node", id), node.destinations.size())));
+        subscriptionTables.register(rows, true);
+    }
+
+    private static int estimateSize(ClusterEnvelope.Frame frame) {
+        return FRAME_OVERHEAD
+                + frame.getDestination().length()
+                + (frame.getContentType() != null ? frame.getContentType().length() : 0)
+                + frame.getPayload().length();
+    }
+
+    private static <T> List<T> nullToEmpty(List<T> list) {
+        return list != null ? list : List.of();
+    }
+
+    private static Counter frameCounter(MeterRegistry registry, String direction, String result) {
+        return Counter.builder("routex.websocket.cluster.frames")
+                .description("Broker frames exchanged with other nodes")
+                .tag("direction", direction)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * Subscription table of another node
+     * Only the relay listener thread writes the pending snapshot.
+     */
+    private static final class RemoteNode {
+
+        private final Set<String> destinations = ConcurrentHashMap.newKeySet();
+        private Set<String> pending;
+        private long pendingEpoch = -1;
+        private volatile long lastSeen;
+
+        private void applySnapshot(long epoch, List<String> chunk, boolean last) {
+            if (epoch != pendingEpoch || pending == null) {
+                pending = new HashSet<>();
+                pendingEpoch = epoch;
+            }
+            pending.addAll(nullToEmpty(chunk));
+            if (last) {
+                destinations.retainAll(pending);
+                destinations.addAll(pending);
+                pending = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.delivery.RouteX.websocket.cluster;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Unit of traffic between nodes
+ * MESSAGES carries a batch of broker frames; the INTEREST types carry the
+ * sender's subscription table (full snapshot in chunks, or single deltas).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClusterEnvelope {
+
+    public enum Type {
+        HELLO,
+        MESSAGES,
+        INTEREST,
+        INTEREST_ADD,
+        INTEREST_REMOVE
+    }
+
+    private Type type;
+    private String origin;
+    private long sentAt;
+
+    // INTEREST snapshots: chunks share an epoch, the last one completes the table
+    private long epoch;
+    private boolean last;
+
+    private List<Frame> frames;
+    private List<String> destinations;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Frame {
+        private String destination;
+        private String contentType;
+        // Base64 of the converted payload (JSON or binary location frames)
+        private String payload;
+    }
+}
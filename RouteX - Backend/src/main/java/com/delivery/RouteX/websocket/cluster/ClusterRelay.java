@@ -0,0 +1,29 @@
+package com.delivery.RouteX.websocket.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Transport that carries broker envelopes between RouteX nodes
+ * Implementations must deliver every published envelope to every node,
+ * including the publisher itself (the bridge drops its own envelopes).
+ */
+public interface ClusterRelay extends AutoCloseable {
+
+    /**
+     * Publish a serialized envelope to all nodes
+     */
+    void publish(String envelope);
+
+    /**
+     * Start delivering envelopes published by any node to the listener
+     */
+    void subscribe(Consumer<String> listener);
+
+    /**
+     * @return Largest envelope (in UTF-8 bytes) the transport accepts
+     */
+    int getMaxPayloadBytes();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,70 @@
+package com.delivery.RouteX.websocket.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * In-JVM stand-in for a real relay
+ * All LocalClusterRelay instances in the same JVM form one cluster, so two
+ * application contexts started side by side (tests, local multi-node runs)
+ * exchange broker traffic without a database. Delivery is asynchronous and
+ * ordered per publisher, like LISTEN/NOTIFY.
+ */
+@Slf4j
+public class LocalClusterRelay implements ClusterRelay {
+
+    private static final int MAX_PAYLOAD_BYTES = 1024 * 1024;
+
+    private static final List<LocalClusterRelay> MEMBERS = new CopyOnWriteArrayList<>();
+
+    private final ExecutorService deliveryExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cluster-local-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Consumer<String> listener;
+
+    @Override
+    public void publish(String envelope) {
+        for (LocalClusterRelay member : MEMBERS) {
+            member.deliver(envelope);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        this.listener = listener;
+        MEMBERS.add(this);
+    }
+
+    @Override
+    public int getMaxPayloadBytes() {
+        return MAX_PAYLOAD_BYTES;
+    }
+
+    @Override
+    public void close() {
+        MEMBERS.remove(this);
+        deliveryExecutor.shutdownNow();
+    }
+
+    private void deliver(String envelope) {
+        Consumer<String> target = listener;
+        if (target == null || deliveryExecutor.isShutdown()) {
+            return;
+        }
+        deliveryExecutor.execute(() -> {
+            try {
+                target.accept(envelope);
+            } catch (RuntimeException e) {
+                log.warn("Failed to deliver cluster envelope: {}", e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,124 @@
+package com.delivery.RouteX.websocket.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Relay over PostgreSQL LISTEN/NOTIFY
+ * Uses the application database, so no extra infrastructure is needed to run
+ * several nodes. One pooled connection is held for LISTEN; publishing borrows
+ * a connection per batch. NOTIFY payloads are limited to 8000 bytes, which the
+ * bridge respects when packing envelopes.
+ */
+@Slf4j
+public class PostgresNotifyRelay implements ClusterRelay {
+
+    // NOTIFY rejects payloads of 8000 bytes or more
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+
+    private static final long RECONNECT_DELAY_MS = 2000;
+
+    private final DataSource dataSource;
+    private final String channel;
+    private final int pollTimeoutMs;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public PostgresNotifyRelay(DataSource dataSource, String channel, int pollTimeoutMs) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid NOTIFY channel name: " + channel);
+        }
+        this.dataSource = dataSource;
+        this.channel = channel;
+        this.pollTimeoutMs = pollTimeoutMs;
+    }
+
+    @Override
+    public void publish(String envelope) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            statement.setString(1, channel);
+            statement.setString(2, envelope);
+            statement.execute();
+        } catch (SQLException e) {
+            log.warn("Failed to publish cluster envelope on {}: {}", channel, e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void subscribe(Consumer<String> listener) {
+        if (running) {
+            throw new IllegalStateException("Relay already subscribed");
+        }
+        running = true;
+        listenerThread = new Thread(() -> listen(listener), "cluster-pg-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public int getMaxPayloadBytes() {
+        return MAX_PAYLOAD_BYTES;
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void listen(Consumer<String> listener) {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                log.info("Listening for cluster envelopes on channel {}", channel);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        dispatch(listener, notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cluster listener connection lost, retrying in {}ms: {}", RECONNECT_DELAY_MS, e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void dispatch(Consumer<String> listener, String envelope) {
+        try {
+            listener.accept(envelope);
+        } catch (RuntimeException e) {
+            log.warn("Failed to handle cluster envelope: {}", e.getMessage());
+        }
+    }
+}
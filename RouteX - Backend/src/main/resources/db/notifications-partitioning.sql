@@ -0,0 +1,62 @@
+-- ===================================================================
+-- Convert notifications to a table partitioned by month on created_at
+-- ===================================================================
+-- Run once, during a maintenance window, with the application stopped.
+-- Afterwards NotificationPartitionManager creates upcoming months and the
+-- retention job retires old months with DETACH PARTITION instead of DELETE.
+-- Partition names must follow notifications_yYYYYmMM.
+
+BEGIN;
+
+ALTER TABLE notifications RENAME TO notifications_unpartitioned;
+
+-- The old IDENTITY sequence is owned by the old table and goes away with it
+CREATE SEQUENCE notifications_partitioned_id_seq;
+SELECT setval('notifications_partitioned_id_seq', COALESCE((SELECT MAX(id) FROM notifications_unpartitioned), 0) + 1, false);
+
+CREATE TABLE notifications (
+    id                BIGINT       NOT NULL DEFAULT nextval('notifications_partitioned_id_seq'),
+    user_id           BIGINT       NOT NULL REFERENCES users (id),
+    type              VARCHAR(255) NOT NULL,
+    title             VARCHAR(255) NOT NULL,
+    message           VARCHAR(1000) NOT NULL,
+    is_read           BOOLEAN      NOT NULL DEFAULT FALSE,
+    related_entity_id VARCHAR(255),
+    action_url        VARCHAR(255),
+    created_at        TIMESTAMP(6) NOT NULL,
+    read_at           TIMESTAMP(6),
+    wal_key           VARCHAR(64),
+    -- The partition key has to be part of the primary key and every unique constraint
+    PRIMARY KEY (id, created_at),
+    CONSTRAINT uk_notifications_wal_key UNIQUE (wal_key, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- One partition per month covering existing rows and the next three months
+DO $$
+DECLARE
+    month_start DATE := date_trunc('month', COALESCE((SELECT MIN(created_at) FROM notifications_unpartitioned), now()))::date;
+    last_month  DATE := (date_trunc('month', now()) + INTERVAL '3 months')::date;
+BEGIN
+    WHILE month_start <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS notifications_y%sm%s PARTITION OF notifications FOR VALUES FROM (%L) TO (%L)',
+            to_char(month_start, 'YYYY'), to_char(month_start, 'MM'),
+            month_start, (month_start + INTERVAL '1 month')::date);
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+-- Safety net for rows outside the prepared range
+CREATE TABLE IF NOT EXISTS notifications_default PARTITION OF notifications DEFAULT;
+
+INSERT INTO notifications (id, user_id, type, title, message, is_read, related_entity_id, action_url, created_at, read_at, wal_key)
+SELECT id, user_id, type, title, message, is_read, related_entity_id, action_url, created_at, read_at, wal_key
+FROM notifications_unpartitioned;
+
+CREATE INDEX idx_notifications_user_unread ON notifications (user_id, is_read);
+CREATE INDEX idx_notifications_user_created ON notifications (user_id, created_at DESC);
+
+DROP TABLE notifications_unpartitioned;
+ALTER SEQUENCE notifications_partitioned_id_seq OWNED BY notifications.id;
+
+COMMIT;
@@ -0,0 +1,110 @@
+package com.delivery.RouteX.analytics;
+
+import com.delivery.RouteX.dto.analytics.ColumnarQueryRequest;
+import com.delivery.RouteX.dto.analytics.ColumnarQueryResult;
+import com.delivery.RouteX.model.Order;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnarQueryEngineTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 2, 8, 0);
+    private static final long START_EPOCH = START.toEpochSecond(ZoneOffset.UTC);
+
+    private final ColumnarQueryEngine engine = new ColumnarQueryEngine();
+
+    @Test
+    void chunksOutsideTheTimeRangeAreSkipped() {
+        OrderColumnStore.Builder builder = new OrderColumnStore.Builder();
+        for (int i = 0; i < OrderColumnChunk.CAPACITY; i++) {
+            builder.add(START_EPOCH + i, "DELIVERED", "PARCEL", 10.0, 3.0, 1.0, 30);
+        }
+        long tenDaysLater = START_EPOCH + 10 * 86_400L;
+        for (int i = 0; i < 10; i++) {
+            builder.add(tenDaysLater + i, "DELIVERED", "PARCEL", 10.0, 3.0, 1.0, 30);
+        }
+        engine.swap(builder.build());
+
+        ColumnarQueryResult result = engine.execute(request(request -> request.setCreatedFrom(START.plusDays(10))));
+
+        assertThat(engine.getChunkCount()).isEqualTo(2);
+        assertThat(result.getChunksScanned()).isEqualTo(1);
+        assertThat(result.getChunksSkipped()).isEqualTo(1);
+        assertThat(result.getRowsMatched()).isEqualTo(10);
+    }
+
+    @Test
+    void groupKeysKeepEachDimensionApart() {
+        OrderColumnStore.Builder builder = new OrderColumnStore.Builder();
+        builder.add(START_EPOCH, "DELIVERED", "PARCEL", 20.0, 1.0, 1.0, 40);
+        builder.add(START_EPOCH + 60, "DELIVERED", "PARCEL", 30.0, 2.0, 1.0, 60);
+        builder.add(START_EPOCH + 120, "DELIVERED", "FOOD", 15.0, 4.0, 1.0, 20);
+        builder.add(START_EPOCH + 180, "CANCELLED", "PARCEL", 50.0, 12.0, 1.0, -1);
+        // Same status and package type as the row above; only the lowest key bits, the band, differ
+        builder.add(START_EPOCH + 240, "CANCELLED", "PARCEL", 99.0, 200.0, 1.0, -1);
+        engine.swap(builder.build());
+
+        ColumnarQueryResult result = engine.execute(request(request -> request.setGroupBy(List.of(
+                ColumnarQueryRequest.Dimension.STATUS,
+                ColumnarQueryRequest.Dimension.PACKAGE_TYPE,
+                ColumnarQueryRequest.Dimension.DISTANCE_BAND))));
+
+        assertThat(result.getRowsMatched()).isEqualTo(5);
+        assertThat(result.getGroups()).extracting(ColumnarQueryResult.Group::getKey).containsExactly(
+                Map.of("STATUS", "DELIVERED", "PACKAGE_TYPE", "PARCEL", "DISTANCE_BAND", "0-5"),
+                Map.of("STATUS", "DELIVERED", "PACKAGE_TYPE", "FOOD", "DISTANCE_BAND", "0-5"),
+                Map.of("STATUS", "CANCELLED", "PACKAGE_TYPE", "PARCEL", "DISTANCE_BAND", "10-15"),
+                Map.of("STATUS", "CANCELLED", "PACKAGE_TYPE", "PARCEL", "DISTANCE_BAND", "200-205"));
+        ColumnarQueryResult.Group first = result.getGroups().get(0);
+        assertThat(first.getValues()).containsEntry("COUNT", 2.0).containsEntry("REVENUE_SUM", 50.0)
+                .containsEntry("DELIVERY_MINUTES_AVG", 50.0);
+    }
+
+    @Test
+    void filtersCombineWithAnd() {
+        OrderColumnStore.Builder builder = new OrderColumnStore.Builder();
+        builder.add(START_EPOCH, "DELIVERED", "PARCEL", 20.0, 1.0, 1.0, 40);
+        builder.add(START_EPOCH + 60, "DELIVERED", "FOOD", 30.0, 8.0, 1.0, 60);
+        builder.add(START_EPOCH + 120, "FAILED", "FOOD", 15.0, 9.0, 1.0, -1);
+        builder.add(START_EPOCH + 7_200, "DELIVERED", "FOOD", 25.0, 9.0, 1.0, 30);
+        engine.swap(builder.build());
+
+        ColumnarQueryResult result = engine.execute(request(request -> {
+            request.setCreatedTo(START.plusHours(1));
+            request.setStatuses(List.of(Order.OrderStatus.DELIVERED));
+            request.setMinDistanceKm(5.0);
+        }));
+
+        assertThat(result.getRowsMatched()).isEqualTo(1);
+        assertThat(result.getGroups()).singleElement()
+                .satisfies(group -> assertThat(group.getValues()).containsEntry("REVENUE_SUM", 30.0));
+    }
+
+    @Test
+    void filterOnAValueTheSnapshotNeverSawMatchesNothing() {
+        OrderColumnStore.Builder builder = new OrderColumnStore.Builder();
+        builder.add(START_EPOCH, "DELIVERED", "PARCEL", 20.0, 1.0, 1.0, 40);
+        engine.swap(builder.build());
+
+        ColumnarQueryResult result = engine.execute(request(request ->
+                request.setPackageTypes(List.of(Order.PackageType.FRAGILE))));
+
+        assertThat(result.getRowsMatched()).isZero();
+        assertThat(result.getGroups()).isEmpty();
+    }
+
+    private static ColumnarQueryRequest request(Consumer<ColumnarQueryRequest> customizer) {
+        ColumnarQueryRequest request = new ColumnarQueryRequest();
+        request.setMetrics(List.of(ColumnarQueryRequest.Metric.COUNT, ColumnarQueryRequest.Metric.REVENUE_SUM,
+                ColumnarQueryRequest.Metric.DELIVERY_MINUTES_AVG));
+        customizer.accept(request);
+        return request;
+    }
+}
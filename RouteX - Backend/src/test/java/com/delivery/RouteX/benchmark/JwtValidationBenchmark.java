@@ -0,0 +1,85 @@
+package com.delivery.RouteX.benchmark;
+
+import com.delivery.RouteX.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens validated per second: previous per-request path vs cached single parse
+ *
+ * "legacy" reproduces the old request path: extractUsername, then
+ * validateToken(token, user), which parsed the token three times, each with a
+ * freshly derived key and parser. "singleParse" is JwtUtil.parseAndValidate.
+ *
+ * Run with (JMH forks need a plain JVM classpath, hence exec:exec):
+ *   mvn -q test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *       "-Dexec.args=-cp %classpath com.delivery.RouteX.benchmark.JwtValidationBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+
+    private JwtUtil jwtUtil;
+    private UserDetails user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, "primary", "old:" + SECRET.toUpperCase(), 3_600_000L, 86_400_000L);
+        user = new User("driver@routex.test", "", List.of());
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        String username = legacyClaims(token).getSubject();
+        if (username == null) {
+            return false;
+        }
+        boolean subjectMatches = legacyClaims(token).getSubject().equals(user.getUsername());
+        boolean expired = legacyClaims(token).getExpiration().before(new Date());
+        return subjectMatches && !expired;
+    }
+
+    @Benchmark
+    public boolean singleParse() {
+        return jwtUtil.parseAndValidate(token)
+                .map(Claims::getSubject)
+                .map(user.getUsername()::equals)
+                .orElse(false);
+    }
+
+    private static Claims legacyClaims(String token) {
+        Key key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtValidationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
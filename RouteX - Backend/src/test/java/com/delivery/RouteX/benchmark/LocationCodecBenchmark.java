@@ -0,0 +1,114 @@
+package com.delivery.RouteX.benchmark;
+
+import com.delivery.RouteX.dto.driver.UpdateLocationRequest;
+import com.delivery.RouteX.dto.websocket.LocationUpdateMessage;
+import com.delivery.RouteX.websocket.LocationFrameCodec;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the binary location codec vs Jackson JSON
+ *
+ * Run with (JMH forks need a plain JVM classpath, hence exec:exec):
+ *   mvn -q test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *       "-Dexec.args=-cp %classpath com.delivery.RouteX.benchmark.LocationCodecBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationCodecBenchmark {
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private LocationUpdateMessage update;
+    private ByteBuffer updateBuffer;
+    private ByteBuffer requestBuffer;
+    private byte[] updateJson;
+    private byte[] requestJson;
+
+    @Setup
+    public void setUp() {
+        update = LocationUpdateMessage.builder()
+                .orderId(184_223L)
+                .driverId(3_417L)
+                .latitude(6.9270786)
+                .longitude(79.8612430)
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        updateBuffer = ByteBuffer.allocate(LocationFrameCodec.UPDATE_FRAME_SIZE);
+        LocationFrameCodec.encodeUpdate(updateBuffer, 0, 184_223L, 3_417L,
+                6.9270786, 79.8612430, System.currentTimeMillis());
+
+        requestBuffer = ByteBuffer.allocate(LocationFrameCodec.REQUEST_FRAME_SIZE);
+        LocationFrameCodec.encodeRequest(requestBuffer, 0, 6.9270786, 79.8612430);
+
+        UpdateLocationRequest request = new UpdateLocationRequest();
+        request.setLatitude(6.9270786);
+        request.setLongitude(79.8612430);
+
+        updateJson = jsonMapper.writeValueAsBytes(update);
+        requestJson = jsonMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeUpdateBinary() {
+        LocationFrameCodec.encodeUpdate(updateBuffer, 0, 184_223L, 3_417L,
+                6.9270786, 79.8612430, 1_760_000_000_000L);
+        return updateBuffer;
+    }
+
+    @Benchmark
+    public byte[] encodeUpdateJson() {
+        return jsonMapper.writeValueAsBytes(update);
+    }
+
+    @Benchmark
+    public void decodeRequestBinary(Blackhole blackhole) {
+        blackhole.consume(LocationFrameCodec.requestLatitude(requestBuffer, 0));
+        blackhole.consume(LocationFrameCodec.requestLongitude(requestBuffer, 0));
+    }
+
+    @Benchmark
+    public UpdateLocationRequest decodeRequestJson() {
+        return jsonMapper.readValue(requestJson, UpdateLocationRequest.class);
+    }
+
+    @Benchmark
+    public LocationUpdateMessage decodeUpdateJson() {
+        return jsonMapper.readValue(updateJson, LocationUpdateMessage.class);
+    }
+
+    @Benchmark
+    public void decodeUpdateBinary(Blackhole blackhole) {
+        blackhole.consume(LocationFrameCodec.updateOrderId(updateBuffer, 0));
+        blackhole.consume(LocationFrameCodec.updateDriverId(updateBuffer, 0));
+        blackhole.consume(LocationFrameCodec.updateLatitude(updateBuffer, 0));
+        blackhole.consume(LocationFrameCodec.updateLongitude(updateBuffer, 0));
+        blackhole.consume(LocationFrameCodec.updateEpochMillis(updateBuffer, 0));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        LocationCodecBenchmark sizes = new LocationCodecBenchmark();
+        sizes.setUp();
+        System.out.printf("Request frame: binary %d bytes, JSON %d bytes%n",
+                LocationFrameCodec.REQUEST_FRAME_SIZE, sizes.requestJson.length);
+        System.out.printf("Update frame:  binary %d bytes, JSON %d bytes%n",
+                LocationFrameCodec.UPDATE_FRAME_SIZE, sizes.updateJson.length);
+
+        new Runner(new OptionsBuilder()
+                .include(LocationCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
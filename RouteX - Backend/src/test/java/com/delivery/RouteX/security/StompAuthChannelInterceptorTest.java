@@ -0,0 +1,58 @@
+package com.delivery.RouteX.security;
+
+import com.delivery.RouteX.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.security.Principal;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StompAuthChannelInterceptorTest {
+
+    // SUBSCRIBE frames never reach the JWT path
+    private final StompAuthChannelInterceptor interceptor = new StompAuthChannelInterceptor(null, null);
+
+    @Test
+    void adminTopicsRejectAnonymousAndCustomerSubscribers() {
+        for (String destination : new String[]{"/topic/admin", "/topic/admin/fleet", "/topic/admin/digest"}) {
+            assertThatThrownBy(() -> subscribe(destination, null)).isInstanceOf(AccessDeniedException.class);
+            assertThatThrownBy(() -> subscribe(destination, as(User.Role.CUSTOMER)))
+                    .isInstanceOf(AccessDeniedException.class);
+            assertThatThrownBy(() -> subscribe(destination, as(User.Role.DRIVER)))
+                    .isInstanceOf(AccessDeniedException.class);
+        }
+    }
+
+    @Test
+    void adminTopicsAcceptStaff() {
+        for (String destination : new String[]{"/topic/admin", "/topic/admin/fleet", "/topic/admin/digest"}) {
+            assertThatCode(() -> subscribe(destination, as(User.Role.ADMIN))).doesNotThrowAnyException();
+            assertThatCode(() -> subscribe(destination, as(User.Role.DISPATCHER))).doesNotThrowAnyException();
+        }
+    }
+
+    @Test
+    void publicTopicsStayOpen() {
+        assertThatCode(() -> subscribe("/topic/orders/42", null)).doesNotThrowAnyException();
+        assertThatCode(() -> subscribe("/topic/administrators", null)).doesNotThrowAnyException();
+    }
+
+    private void subscribe(String destination, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(destination);
+        accessor.setUser(user);
+        accessor.setLeaveMutable(true);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        interceptor.preSend(message, null);
+    }
+
+    private static Principal as(User.Role role) {
+        return new StompAuthenticationToken(User.builder().id(1L).role(role).build());
+    }
+}
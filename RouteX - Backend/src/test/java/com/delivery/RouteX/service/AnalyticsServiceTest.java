@@ -0,0 +1,66 @@
+package com.delivery.RouteX.service;
+
+import com.delivery.RouteX.Repository.OrderHourlyRollupRepository;
+import com.delivery.RouteX.dto.analytics.OrderStatistics;
+import com.delivery.RouteX.dto.analytics.RevenueReport;
+import com.delivery.RouteX.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AnalyticsServiceTest {
+
+    private final List<LocalDateTime[]> queriedRanges = new CopyOnWriteArrayList<>();
+    private final AnalyticsService analyticsService = new AnalyticsService(rollups(), null, null, null);
+
+    @Test
+    void unalignedBoundsAreWidenedToWholeHours() {
+        RevenueReport report = analyticsService.getRevenueReport(
+                LocalDateTime.of(2026, 3, 1, 9, 40), LocalDateTime.of(2026, 3, 1, 17, 5));
+
+        assertThat(report.getStartDate()).isEqualTo(LocalDateTime.of(2026, 3, 1, 9, 0));
+        assertThat(report.getEndDate()).isEqualTo(LocalDateTime.of(2026, 3, 1, 18, 0));
+        assertThat(queriedRanges).isNotEmpty().allSatisfy(range -> assertThat(range)
+                .containsExactly(report.getStartDate(), report.getEndDate()));
+    }
+
+    @Test
+    void alignedBoundsAreKept() {
+        LocalDateTime start = LocalDateTime.of(2026, 3, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2026, 3, 8, 0, 0);
+
+        OrderStatistics stats = analyticsService.getOrderStatistics(start, end);
+
+        assertThat(stats.getStartDate()).isEqualTo(start);
+        assertThat(stats.getEndDate()).isEqualTo(end);
+        assertThat(queriedRanges).singleElement().satisfies(range -> assertThat(range).containsExactly(start, end));
+    }
+
+    @Test
+    void invertedRangeIsRejected() {
+        assertThatThrownBy(() -> analyticsService.getOrderStatistics(
+                LocalDateTime.of(2026, 3, 2, 0, 0), LocalDateTime.of(2026, 3, 1, 0, 0)))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private OrderHourlyRollupRepository rollups() {
+        return (OrderHourlyRollupRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{OrderHourlyRollupRepository.class}, (self, method, args) -> switch (method.getName()) {
+                    case "sumByStatus", "findBuckets" -> {
+                        queriedRanges.add(new LocalDateTime[]{
+                                (LocalDateTime) args[args.length - 2], (LocalDateTime) args[args.length - 1]});
+                        yield List.of();
+                    }
+                    case "hashCode" -> System.identityHashCode(self);
+                    case "equals" -> self == args[0];
+                    case "toString" -> "OrderHourlyRollupRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
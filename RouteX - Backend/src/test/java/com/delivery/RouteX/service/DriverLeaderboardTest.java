@@ -0,0 +1,92 @@
+package com.delivery.RouteX.service;
+
+import com.delivery.RouteX.Repository.DriverRepository;
+import com.delivery.RouteX.model.Driver;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DriverLeaderboardTest {
+
+    private final List<Object[]> rankingStats = new ArrayList<>();
+    private final DriverLeaderboard leaderboard = new DriverLeaderboard(driverRepository());
+
+    @Test
+    void ranksMatchTheOrderOfTopAcrossRatingSteps() {
+        Random random = new Random(42);
+        for (long driverId = 1; driverId <= 500; driverId++) {
+            // Few distinct ratings, so many drivers share a Fenwick step and the walk within a step matters
+            double rating = random.nextInt(21) * 0.25;
+            leaderboard.update(driverId, Driver.AvailabilityStatus.ONLINE, rating, random.nextInt(5));
+        }
+
+        List<DriverLeaderboard.Entry> top = leaderboard.top(Driver.AvailabilityStatus.ONLINE, 500);
+        assertThat(top).hasSize(500);
+        for (int i = 0; i < top.size(); i++) {
+            DriverLeaderboard.Rank rank = leaderboard.rankOf(top.get(i).driverId()).orElseThrow();
+            assertThat(rank.rank()).as("rank of driver %d", top.get(i).driverId()).isEqualTo(i + 1);
+            assertThat(rank.rankedDrivers()).isEqualTo(500);
+        }
+    }
+
+    @Test
+    void tiesBreakOnDeliveriesThenId() {
+        leaderboard.update(3L, Driver.AvailabilityStatus.ONLINE, 4.8, 10);
+        leaderboard.update(1L, Driver.AvailabilityStatus.ONLINE, 4.8, 10);
+        leaderboard.update(2L, Driver.AvailabilityStatus.ONLINE, 4.8, 12);
+        leaderboard.update(4L, Driver.AvailabilityStatus.ONLINE, 5.0, 0);
+
+        assertThat(leaderboard.top(Driver.AvailabilityStatus.ONLINE, 10))
+                .extracting(DriverLeaderboard.Entry::driverId)
+                .containsExactly(4L, 2L, 1L, 3L);
+        assertThat(leaderboard.rankOf(3L)).get().extracting(DriverLeaderboard.Rank::rank).isEqualTo(4);
+    }
+
+    @Test
+    void updatesMoveDriversBetweenStatusesAndPositions() {
+        leaderboard.update(1L, Driver.AvailabilityStatus.ONLINE, 4.0, 5);
+        leaderboard.update(2L, Driver.AvailabilityStatus.ONLINE, 4.5, 5);
+
+        leaderboard.update(1L, Driver.AvailabilityStatus.ONLINE, 4.9, 6);
+        assertThat(leaderboard.rankOf(1L)).get().extracting(DriverLeaderboard.Rank::rank).isEqualTo(1);
+
+        leaderboard.update(1L, Driver.AvailabilityStatus.BUSY, 4.9, 6);
+        assertThat(leaderboard.top(Driver.AvailabilityStatus.ONLINE, 10))
+                .extracting(DriverLeaderboard.Entry::driverId).containsExactly(2L);
+        assertThat(leaderboard.rankOf(2L)).get().satisfies(rank -> {
+            assertThat(rank.rank()).isEqualTo(1);
+            assertThat(rank.rankedDrivers()).isEqualTo(1);
+        });
+        assertThat(leaderboard.rankOf(1L)).get().extracting(DriverLeaderboard.Rank::rankedDrivers).isEqualTo(1);
+    }
+
+    @Test
+    void reconcileDropsDriversNoLongerInTheDatabase() {
+        leaderboard.update(1L, Driver.AvailabilityStatus.ONLINE, 4.0, 5);
+        leaderboard.update(2L, Driver.AvailabilityStatus.ONLINE, 4.5, 5);
+        rankingStats.add(new Object[]{2L, Driver.AvailabilityStatus.ONLINE, 3.0, 7});
+
+        leaderboard.reconcile();
+
+        assertThat(leaderboard.rankOf(1L)).isEmpty();
+        assertThat(leaderboard.top(Driver.AvailabilityStatus.ONLINE, 10)).singleElement()
+                .isEqualTo(new DriverLeaderboard.Entry(2L, Driver.AvailabilityStatus.ONLINE, 3.0, 7));
+        assertThat(leaderboard.rankOf(2L)).get().extracting(DriverLeaderboard.Rank::rankedDrivers).isEqualTo(1);
+    }
+
+    private DriverRepository driverRepository() {
+        return (DriverRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{DriverRepository.class}, (self, method, args) -> switch (method.getName()) {
+                    case "findRankingStats" -> List.copyOf(rankingStats);
+                    case "hashCode" -> System.identityHashCode(self);
+                    case "equals" -> self == args[0];
+                    case "toString" -> "DriverRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,251 @@
+package com.delivery.RouteX.service;
+
+import com.delivery.RouteX.Repository.EmailDeadLetterRepository;
+import com.delivery.RouteX.model.EmailDeadLetter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailServiceTest {
+
+    private static final Map<String, ?> ORDER = Map.of(
+            "firstName", "Ada",
+            "orderNumber", "RX-1",
+            "pickupAddress", "1 Pickup St",
+            "deliveryAddress", "2 Delivery Rd",
+            "trackingUrl", "https://routex.local/track/RX-1");
+
+    private final List<EmailDeadLetter> deadLetters = new CopyOnWriteArrayList<>();
+    private final LocalSmtpServer smtp = new LocalSmtpServer();
+    private EmailService emailService;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (emailService != null) {
+            emailService.stop();
+        }
+        smtp.close();
+    }
+
+    @Test
+    void queuedEmailsGoOutAsOneBatchOverOneConnection() throws Exception {
+        emailService = emailService(true, 100, 5, 10);
+        for (int i = 0; i < 3; i++) {
+            emailService.send("customer" + i + "@example.com", EmailTemplate.ORDER_CREATED, () -> ORDER);
+        }
+
+        emailService.start();
+        awaitUntil(() -> smtp.messages.size() == 3);
+
+        assertThat(smtp.connections.get()).isEqualTo(1);
+        assertThat(smtp.messages).allSatisfy(message ->
+                assertThat(message).contains("Subject: Your RouteX order RX-1 has been created"));
+        assertThat(deadLetters).isEmpty();
+    }
+
+    @Test
+    void failingServerIsRetriedThenDeadLettered() throws Exception {
+        smtp.rejectMail = true;
+        emailService = emailService(true, 100, 3, 10);
+        emailService.start();
+
+        emailService.send("customer@example.com", EmailTemplate.ORDER_CREATED, () -> ORDER);
+        awaitUntil(() -> !deadLetters.isEmpty());
+
+        assertThat(smtp.mailCommands.get()).isEqualTo(3);
+        EmailDeadLetter deadLetter = deadLetters.get(0);
+        assertThat(deadLetter.getRecipient()).isEqualTo("customer@example.com");
+        assertThat(deadLetter.getTemplate()).isEqualTo("ORDER_CREATED");
+        assertThat(deadLetter.getAttempts()).isEqualTo(3);
+        assertThat(deadLetter.getLastError()).contains("451");
+        assertThat(smtp.messages).isEmpty();
+    }
+
+    @Test
+    void pendingRetryIsDeadLetteredOnShutdown() throws Exception {
+        smtp.rejectMail = true;
+        emailService = emailService(true, 100, 5, 60_000);
+        emailService.start();
+
+        emailService.send("customer@example.com", EmailTemplate.ORDER_CREATED, () -> ORDER);
+        awaitUntil(() -> smtp.mailCommands.get() == 1);
+        emailService.stop();
+
+        assertThat(deadLetters).singleElement().satisfies(deadLetter -> {
+            assertThat(deadLetter.getAttempts()).isEqualTo(1);
+            assertThat(deadLetter.getLastError()).startsWith("Not retried before shutdown");
+        });
+    }
+
+    @Test
+    void fullQueueDeadLettersImmediately() {
+        emailService = emailService(true, 1, 5, 10);
+
+        emailService.send("first@example.com", EmailTemplate.ORDER_CREATED, () -> ORDER);
+        emailService.send("second@example.com", EmailTemplate.ORDER_CREATED, () -> ORDER);
+
+        assertThat(emailService.getQueueDepth()).isEqualTo(1);
+        assertThat(deadLetters).singleElement().satisfies(deadLetter -> {
+            assertThat(deadLetter.getRecipient()).isEqualTo("second@example.com");
+            assertThat(deadLetter.getLastError()).isEqualTo("Send queue full");
+        });
+    }
+
+    @Test
+    void disabledEmailNeverBuildsTemplateValues() {
+        emailService = emailService(false, 100, 5, 10);
+        AtomicInteger built = new AtomicInteger();
+
+        emailService.send("customer@example.com", EmailTemplate.ORDER_CREATED, () -> {
+            built.incrementAndGet();
+            return ORDER;
+        });
+
+        assertThat(built).hasValue(0);
+        assertThat(emailService.getQueueDepth()).isZero();
+    }
+
+    private EmailService emailService(boolean enabled, int queueCapacity, int maxAttempts, long retryBackoffMs) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost(InetAddress.getLoopbackAddress().getHostAddress());
+        mailSender.setPort(smtp.port());
+        Properties properties = new Properties();
+        properties.setProperty("mail.smtp.connectiontimeout", "5000");
+        properties.setProperty("mail.smtp.timeout", "5000");
+        mailSender.setJavaMailProperties(properties);
+
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of("mailSender", mailSender));
+        return new EmailService(beans.getBeanProvider(JavaMailSender.class), deadLetterRepository(),
+                new FakeNotificationTable().transactionManager(), new SimpleMeterRegistry(),
+                enabled, "no-reply@routex.local", queueCapacity, 50, maxAttempts, retryBackoffMs, retryBackoffMs * 4);
+    }
+
+    private EmailDeadLetterRepository deadLetterRepository() {
+        return (EmailDeadLetterRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{EmailDeadLetterRepository.class}, (self, method, args) -> switch (method.getName()) {
+                    case "save" -> {
+                        deadLetters.add((EmailDeadLetter) args[0]);
+                        yield args[0];
+                    }
+                    case "hashCode" -> System.identityHashCode(self);
+                    case "equals" -> self == args[0];
+                    case "toString" -> "EmailDeadLetterRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition reached in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Just enough of an SMTP server on a loopback port to accept or refuse mail
+     * Serves one connection at a time and keeps the DATA of every accepted message.
+     */
+    private static final class LocalSmtpServer implements AutoCloseable {
+
+        private final ServerSocket serverSocket;
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+        private final AtomicInteger connections = new AtomicInteger();
+        private final AtomicInteger mailCommands = new AtomicInteger();
+        private volatile boolean rejectMail;
+
+        private LocalSmtpServer() {
+            try {
+                serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            Thread acceptor = new Thread(this::acceptLoop, "local-smtp");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+
+        private void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    connections.incrementAndGet();
+                    serve(socket);
+                } catch (IOException e) {
+                    // Closed by the test, or the client hung up
+                }
+            }
+        }
+
+        private void serve(Socket socket) throws IOException {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII);
+            reply(out, "220 localhost ESMTP");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() < 4 ? line.toUpperCase() : line.substring(0, 4).toUpperCase();
+                switch (command) {
+                    case "EHLO", "HELO" -> reply(out, "250 localhost");
+                    case "MAIL" -> {
+                        mailCommands.incrementAndGet();
+                        reply(out, rejectMail ? "451 4.3.0 Mailbox temporarily unavailable" : "250 OK");
+                    }
+                    case "RCPT", "RSET", "NOOP" -> reply(out, "250 OK");
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        messages.add(readData(in));
+                        reply(out, "250 OK");
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        }
+
+        private static String readData(BufferedReader in) throws IOException {
+            StringBuilder data = new StringBuilder();
+            String line;
+            while ((line = in.readLine()) != null && !line.equals(".")) {
+                data.append(line).append("\r\n");
+            }
+            return data.toString();
+        }
+
+        private static void reply(PrintWriter out, String line) {
+            out.print(line + "\r\n");
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.delivery.RouteX.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.SQLExceptionSubclassTranslator;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory stand-in for the notifications table, reached through plain JDBC
+ * Understands NotificationWriter's multi-row INSERT ... ON CONFLICT (wal_key)
+ * DO NOTHING RETURNING id, wal_key. Rows written with autocommit off are only
+ * kept once commit() is called on their connection, so a write that joins a
+ * transaction which never commits again is lost, as it would be in the database.
+ */
+final class FakeNotificationTable {
+
+    // Bind parameters per row in NotificationWriter's INSERT
+    private static final int COLUMNS = 8;
+
+    record Row(long id, long userId, String title, String walKey) {
+    }
+
+    private final List<Row> committed = new ArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private volatile boolean reverseReturning;
+
+    private final DataSource dataSource = proxy(DataSource.class, (self, method, args) ->
+            method.getName().equals("getConnection") ? openConnection() : defaultValue(self, method, args));
+
+    JdbcTemplate jdbcTemplate() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        // The default translator looks up the product name through DatabaseMetaData
+        jdbcTemplate.setExceptionTranslator(new SQLExceptionSubclassTranslator());
+        return jdbcTemplate;
+    }
+
+    DataSourceTransactionManager transactionManager() {
+        return new DataSourceTransactionManager(dataSource);
+    }
+
+    synchronized List<Row> rows() {
+        return List.copyOf(committed);
+    }
+
+    synchronized void insertCommitted(long userId, String title, String walKey) {
+        committed.add(new Row(ids.incrementAndGet(), userId, title, walKey));
+    }
+
+    /**
+     * Make the next count INSERT statements fail with a transient connection error
+     */
+    void failNextInserts(int count) {
+        failuresLeft.set(count);
+    }
+
+    /**
+     * Return RETURNING rows in reverse VALUES order, which PostgreSQL is free to do
+     */
+    void reverseReturningOrder() {
+        reverseReturning = true;
+    }
+
+    private Connection openConnection() {
+        ConnectionState state = new ConnectionState();
+        return proxy(Connection.class, (self, method, args) -> switch (method.getName()) {
+            case "getAutoCommit" -> state.autoCommit;
+            case "setAutoCommit" -> {
+                state.autoCommit = (Boolean) args[0];
+                yield null;
+            }
+            case "commit" -> {
+                commit(state);
+                yield null;
+            }
+            case "rollback" -> {
+                state.pending.clear();
+                yield null;
+            }
+            case "close" -> {
+                state.pending.clear();
+                state.closed = true;
+                yield null;
+            }
+            case "isClosed" -> state.closed;
+            case "prepareStatement" -> prepare(state);
+            default -> defaultValue(self, method, args);
+        });
+    }
+
+    private PreparedStatement prepare(ConnectionState state) {
+        Map<Integer, Object> parameters = new HashMap<>();
+        return proxy(PreparedStatement.class, (self, method, args) -> switch (method.getName()) {
+            case "setLong", "setString", "setTimestamp" -> {
+                parameters.put((Integer) args[0], args[1]);
+                yield null;
+            }
+            case "setNull" -> {
+                parameters.put((Integer) args[0], null);
+                yield null;
+            }
+            case "executeQuery" -> execute(state, parameters);
+            default -> defaultValue(self, method, args);
+        });
+    }
+
+    private ResultSet execute(ConnectionState state, Map<Integer, Object> parameters) throws SQLTransientConnectionException {
+        if (failuresLeft.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+            throw new SQLTransientConnectionException("Connection refused", "08001");
+        }
+
+        List<Row> inserted = new ArrayList<>();
+        synchronized (this) {
+            for (int offset = 0; offset < parameters.size(); offset += COLUMNS) {
+                String walKey = (String) parameters.get(offset + 8);
+                if (walKey != null && (contains(committed, walKey) || contains(state.pending, walKey))) {
+                    continue;
+                }
+                Row row = new Row(ids.incrementAndGet(), (Long) parameters.get(offset + 1),
+                        (String) parameters.get(offset + 3), walKey);
+                inserted.add(row);
+                state.pending.add(row);
+            }
+        }
+        if (state.autoCommit) {
+            commit(state);
+        }
+        if (reverseReturning) {
+            Collections.reverse(inserted);
+        }
+        return resultSet(inserted);
+    }
+
+    private synchronized void commit(ConnectionState state) {
+        committed.addAll(state.pending);
+        state.pending.clear();
+    }
+
+    private static boolean contains(List<Row> rows, String walKey) {
+        return rows.stream().anyMatch(row -> walKey.equals(row.walKey()));
+    }
+
+    private static ResultSet resultSet(List<Row> rows) {
+        int[] cursor = {-1};
+        return proxy(ResultSet.class, (self, method, args) -> switch (method.getName()) {
+            case "next" -> ++cursor[0] < rows.size();
+            case "getLong" -> rows.get(cursor[0]).id();
+            case "getString" -> rows.get(cursor[0]).walKey();
+            default -> defaultValue(self, method, args);
+        });
+    }
+
+    private static final class ConnectionState {
+        private final List<Row> pending = new ArrayList<>();
+        private boolean autoCommit = true;
+        private boolean closed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(FakeNotificationTable.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object defaultValue(Object self, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return self == args[0];
+            case "hashCode":
+                return System.identityHashCode(self);
+            case "toString":
+                return method.getDeclaringClass().getSimpleName() + "@fake";
+            default:
+                break;
+        }
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
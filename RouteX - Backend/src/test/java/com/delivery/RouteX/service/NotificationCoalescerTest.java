@@ -0,0 +1,168 @@
+package com.delivery.RouteX.service;
+
+import com.delivery.RouteX.model.Notification;
+import com.delivery.RouteX.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotificationCoalescerTest {
+
+    private static final long LONG_WINDOW_MS = 60_000;
+
+    @TempDir
+    Path walDir;
+
+    private final FakeNotificationTable table = new FakeNotificationTable();
+    private NotificationWriter writer;
+
+    @AfterEach
+    void stopWriter() throws InterruptedException {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void burstInsideWindowBecomesOneRowWithLatestState() throws Exception {
+        NotificationCoalescer coalescer = coalescer(100);
+
+        coalescer.submit(List.of(notification("order-1", Notification.NotificationType.ORDER_PICKED_UP)));
+        coalescer.submit(List.of(notification("order-1", Notification.NotificationType.ORDER_IN_TRANSIT)));
+        coalescer.flushExpired();
+        assertThat(coalescer.getHeldCount()).isEqualTo(1);
+
+        Thread.sleep(150);
+        coalescer.flushExpired();
+
+        awaitUntil(() -> table.rows().size() == 1);
+        assertThat(coalescer.getHeldCount()).isZero();
+        assertThat(table.rows()).extracting(FakeNotificationTable.Row::title).containsExactly("ORDER_IN_TRANSIT");
+    }
+
+    @Test
+    void windowIsAnchoredAtFirstNotification() throws Exception {
+        NotificationCoalescer coalescer = coalescer(200);
+
+        coalescer.submit(List.of(notification("order-1", Notification.NotificationType.ORDER_ASSIGNED)));
+        Thread.sleep(120);
+        coalescer.submit(List.of(notification("order-1", Notification.NotificationType.ORDER_PICKED_UP)));
+        Thread.sleep(120);
+        coalescer.flushExpired();
+
+        awaitUntil(() -> table.rows().size() == 1);
+        assertThat(table.rows()).extracting(FakeNotificationTable.Row::title).containsExactly("ORDER_PICKED_UP");
+    }
+
+    @Test
+    void terminalUpdateIsReleasedImmediately() throws Exception {
+        NotificationCoalescer coalescer = coalescer(LONG_WINDOW_MS);
+
+        coalescer.submit(List.of(notification("order-1", Notification.NotificationType.ORDER_IN_TRANSIT)));
+        coalescer.submit(List.of(notification("order-1", Notification.NotificationType.ORDER_DELIVERED)));
+
+        awaitUntil(() -> table.rows().size() == 1);
+        assertThat(coalescer.getHeldCount()).isZero();
+        assertThat(table.rows()).extracting(FakeNotificationTable.Row::title).containsExactly("ORDER_DELIVERED");
+    }
+
+    @Test
+    void separateEntitiesAreHeldSeparately() {
+        NotificationCoalescer coalescer = coalescer(LONG_WINDOW_MS);
+
+        coalescer.submit(List.of(
+                notification("order-1", Notification.NotificationType.ORDER_ASSIGNED),
+                notification("order-2", Notification.NotificationType.ORDER_ASSIGNED)));
+
+        assertThat(coalescer.getHeldCount()).isEqualTo(2);
+    }
+
+    @Test
+    void flushAllWritesHeldNotificationsOnShutdown() throws Exception {
+        NotificationCoalescer coalescer = coalescer(LONG_WINDOW_MS);
+
+        coalescer.submit(List.of(
+                notification("order-1", Notification.NotificationType.ORDER_ASSIGNED),
+                notification("order-2", Notification.NotificationType.ORDER_PICKED_UP)));
+        coalescer.flushAll();
+
+        awaitUntil(() -> table.rows().size() == 2);
+        assertThat(coalescer.getHeldCount()).isZero();
+        assertThat(table.rows()).extracting(FakeNotificationTable.Row::title)
+                .containsExactlyInAnyOrder("ORDER_ASSIGNED", "ORDER_PICKED_UP");
+    }
+
+    @Test
+    void onlyCommittedNotificationsAreHeld() {
+        NotificationCoalescer coalescer = coalescer(LONG_WINDOW_MS);
+        TransactionTemplate transaction = new TransactionTemplate(table.transactionManager());
+
+        transaction.executeWithoutResult(status -> {
+            coalescer.submit(List.of(notification("order-1", Notification.NotificationType.ORDER_ASSIGNED)));
+            status.setRollbackOnly();
+        });
+        assertThat(coalescer.getHeldCount()).isZero();
+
+        transaction.executeWithoutResult(status ->
+                coalescer.submit(List.of(notification("order-1", Notification.NotificationType.ORDER_ASSIGNED))));
+        assertThat(coalescer.getHeldCount()).isEqualTo(1);
+    }
+
+    @Test
+    void releasedRowsThatOverflowAfterCommitAreSaved() {
+        // Writer not started, so its one-slot queue stays full
+        writer = writer(1);
+        NotificationCoalescer coalescer = new NotificationCoalescer(writer, new SimpleMeterRegistry(), LONG_WINDOW_MS, 1_000);
+
+        new TransactionTemplate(table.transactionManager()).executeWithoutResult(status -> coalescer.submit(List.of(
+                notification("order-1", Notification.NotificationType.ORDER_DELIVERED),
+                notification("order-2", Notification.NotificationType.ORDER_CANCELLED),
+                notification("order-3", Notification.NotificationType.ORDER_FAILED))));
+
+        assertThat(writer.getQueueDepth()).isEqualTo(1);
+        assertThat(table.rows()).extracting(FakeNotificationTable.Row::title)
+                .containsExactly("ORDER_CANCELLED", "ORDER_FAILED");
+    }
+
+    private NotificationCoalescer coalescer(long windowMs) {
+        writer = writer(100);
+        writer.start();
+        return new NotificationCoalescer(writer, new SimpleMeterRegistry(), windowMs, 1_000);
+    }
+
+    private NotificationWriter writer(int queueCapacity) {
+        return new NotificationWriter(table.jdbcTemplate(), event -> { }, table.transactionManager(),
+                JsonMapper.builder().build(), new SimpleMeterRegistry(), NotificationWriter.WriteMode.ASYNC,
+                queueCapacity, 50, walDir.toString(), 50, 10);
+    }
+
+    // Titled by type so tests can tell which state won
+    private static Notification notification(String orderId, Notification.NotificationType type) {
+        return Notification.builder()
+                .user(User.builder().id(7L).build())
+                .type(type)
+                .title(type.name())
+                .message("message")
+                .relatedEntityId(orderId)
+                .createdAt(LocalDateTime.of(2026, 10, 1, 12, 0))
+                .build();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition reached in time").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
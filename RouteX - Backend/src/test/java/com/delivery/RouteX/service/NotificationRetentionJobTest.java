@@ -0,0 +1,98 @@
+package com.delivery.RouteX.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotificationRetentionJobTest {
+
+    private final RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+
+    @Test
+    void partitionedTablePurgesReadRowsFromTheDefaultPartitionInChunks() {
+        FakePartitionManager partitions = new FakePartitionManager(true);
+        jdbcTemplate.chunkResults.addAll(List.of(2, 2, 1));
+
+        job(partitions, NotificationRetentionJob.RetentionMode.DELETE).run();
+
+        assertThat(partitions.retiredBefore).isEqualTo(LocalDate.now().minusDays(90));
+        assertThat(jdbcTemplate.updates).hasSize(3).allSatisfy(sql -> assertThat(sql)
+                .startsWith("DELETE FROM notifications_default WHERE id IN (")
+                .contains("SELECT id FROM notifications_default WHERE is_read = true AND created_at < ?"));
+    }
+
+    @Test
+    void plainTableIsPurgedDirectly() {
+        jdbcTemplate.chunkResults.add(0);
+
+        job(new FakePartitionManager(false), NotificationRetentionJob.RetentionMode.ARCHIVE).run();
+
+        assertThat(jdbcTemplate.updates).singleElement().satisfies(sql -> assertThat(sql)
+                .startsWith("WITH moved AS (DELETE FROM notifications WHERE id IN (")
+                .contains("INSERT INTO notifications_archive"));
+    }
+
+    private NotificationRetentionJob job(NotificationPartitionManager partitions, NotificationRetentionJob.RetentionMode mode) {
+        NotificationRetentionJob job = new NotificationRetentionJob(jdbcTemplate, partitions);
+        ReflectionTestUtils.setField(job, "enabled", true);
+        ReflectionTestUtils.setField(job, "retentionDays", 90);
+        ReflectionTestUtils.setField(job, "mode", mode);
+        ReflectionTestUtils.setField(job, "batchSize", 2);
+        ReflectionTestUtils.setField(job, "maxRowsPerSecond", 0);
+        return job;
+    }
+
+    /**
+     * Records statements instead of running them; each chunk affects the next queued row count
+     */
+    private static final class RecordingJdbcTemplate extends JdbcTemplate {
+
+        private final List<String> updates = new CopyOnWriteArrayList<>();
+        private final Deque<Integer> chunkResults = new ArrayDeque<>();
+
+        @Override
+        public void execute(String sql) {
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            updates.add(sql);
+            Integer affected = chunkResults.poll();
+            return affected != null ? affected : 0;
+        }
+    }
+
+    private static final class FakePartitionManager extends NotificationPartitionManager {
+
+        private final boolean partitioned;
+        private LocalDate retiredBefore;
+
+        private FakePartitionManager(boolean partitioned) {
+            super(null, new FakeNotificationTable().transactionManager(), 3);
+            this.partitioned = partitioned;
+        }
+
+        @Override
+        public boolean isPartitioned() {
+            return partitioned;
+        }
+
+        @Override
+        public void ensureFuturePartitions() {
+        }
+
+        @Override
+        public int retirePartitionsBefore(LocalDate cutoff, boolean archive) {
+            retiredBefore = cutoff;
+            return 0;
+        }
+    }
+}
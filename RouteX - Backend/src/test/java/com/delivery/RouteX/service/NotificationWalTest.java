@@ -0,0 +1,106 @@
+package com.delivery.RouteX.service;
+
+import com.delivery.RouteX.dto.notification.PendingNotification;
+import com.delivery.RouteX.model.Notification;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotificationWalTest {
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendedGroupsAreRecoveredAfterReopen() {
+        try (NotificationWal wal = new NotificationWal(dir, JSON)) {
+            assertThat(wal.append(List.of(row("a"), row("b")))).isEqualTo(1L);
+            assertThat(wal.append(List.of(row("c")))).isEqualTo(2L);
+        }
+
+        try (NotificationWal wal = new NotificationWal(dir, JSON)) {
+            List<NotificationWal.Record> records = wal.recover();
+            assertThat(records).extracting(NotificationWal.Record::getLsn).containsExactly(1L, 2L);
+            assertThat(records.get(0).getNotifications()).extracting(PendingNotification::getTitle)
+                    .containsExactly("a", "b");
+            assertThat(wal.recover()).isEmpty();
+        }
+    }
+
+    @Test
+    void checkpointedGroupsAreNotReplayed() {
+        try (NotificationWal wal = new NotificationWal(dir, JSON)) {
+            wal.append(List.of(row("a")));
+            wal.append(List.of(row("b")));
+            wal.checkpoint(1L);
+        }
+
+        try (NotificationWal wal = new NotificationWal(dir, JSON)) {
+            assertThat(wal.recover()).extracting(NotificationWal.Record::getLsn).containsExactly(2L);
+            assertThat(wal.append(List.of(row("c")))).isEqualTo(3L);
+        }
+    }
+
+    @Test
+    void checkpointThatCatchesUpTruncatesTheLog() throws Exception {
+        try (NotificationWal wal = new NotificationWal(dir, JSON)) {
+            wal.append(List.of(row("a")));
+            wal.checkpoint(1L);
+            assertThat(Files.size(dir.resolve("notifications.wal"))).isZero();
+            assertThat(wal.append(List.of(row("b")))).isEqualTo(2L);
+        }
+    }
+
+    @Test
+    void tornLastLineIsIgnored() throws Exception {
+        try (NotificationWal wal = new NotificationWal(dir, JSON)) {
+            wal.append(List.of(row("a")));
+        }
+        Files.writeString(dir.resolve("notifications.wal"), "{\"lsn\":2,\"notif",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (NotificationWal wal = new NotificationWal(dir, JSON)) {
+            assertThat(wal.recover()).extracting(NotificationWal.Record::getLsn).containsExactly(1L);
+            wal.append(List.of(row("b")));
+        }
+        try (NotificationWal wal = new NotificationWal(dir, JSON)) {
+            assertThat(wal.recover()).extracting(NotificationWal.Record::getLsn).containsExactly(1L, 2L);
+        }
+    }
+
+    @Test
+    void keysAreStablePerDirectory(@TempDir Path otherDir) {
+        String key;
+        try (NotificationWal wal = new NotificationWal(dir, JSON)) {
+            key = wal.keyOf(1L, 0);
+            assertThat(wal.keyOf(1L, 1)).isNotEqualTo(key);
+        }
+        try (NotificationWal wal = new NotificationWal(dir, JSON)) {
+            assertThat(wal.keyOf(1L, 0)).isEqualTo(key);
+        }
+        try (NotificationWal wal = new NotificationWal(otherDir, JSON)) {
+            assertThat(wal.keyOf(1L, 0)).isNotEqualTo(key);
+        }
+    }
+
+    private static PendingNotification row(String title) {
+        return PendingNotification.builder()
+                .userId(7L)
+                .type(Notification.NotificationType.SYSTEM_ALERT)
+                .title(title)
+                .message("message")
+                .createdAt(LocalDateTime.of(2026, 10, 1, 12, 0))
+                .build();
+    }
+}
@@ -0,0 +1,146 @@
+package com.delivery.RouteX.service;
+
+import com.delivery.RouteX.dto.notification.PendingNotification;
+import com.delivery.RouteX.event.NotificationsPersistedEvent;
+import com.delivery.RouteX.model.Notification;
+import com.delivery.RouteX.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotificationWriterTest {
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+
+    @TempDir
+    Path walDir;
+
+    private final FakeNotificationTable table = new FakeNotificationTable();
+
+    @Test
+    void overflowFromCommittedTransactionIsSaved() {
+        NotificationWriter writer = writer(NotificationWriter.WriteMode.ASYNC, 1, 10, 10);
+
+        // Not started: the first row fills the queue, the rest overflow inside afterCommit
+        new TransactionTemplate(table.transactionManager()).executeWithoutResult(status ->
+                writer.write(List.of(notification("a"), notification("b"), notification("c"))));
+
+        assertThat(writer.getQueueDepth()).isEqualTo(1);
+        assertThat(table.rows()).extracting(FakeNotificationTable.Row::title).containsExactly("b", "c");
+    }
+
+    @Test
+    void checkpointAdvancesOnceFailedBatchIsRetried() throws Exception {
+        NotificationWriter writer = writer(NotificationWriter.WriteMode.ASYNC_WAL, 100, 50, 10);
+        table.failNextInserts(3);
+        writer.start();
+
+        writer.write(List.of(notification("a")));
+        awaitUntil(() -> table.rows().size() == 1);
+        writer.write(List.of(notification("b")));
+        awaitUntil(() -> table.rows().size() == 2);
+        writer.stop();
+
+        assertThat(table.rows()).extracting(FakeNotificationTable.Row::title).containsExactly("a", "b");
+        try (NotificationWal wal = new NotificationWal(walDir, JSON)) {
+            assertThat(wal.recover()).isEmpty();
+        }
+    }
+
+    @Test
+    void replaySkipsRowsAlreadyInserted() throws Exception {
+        String insertedKey;
+        try (NotificationWal wal = new NotificationWal(walDir, JSON)) {
+            long lsn = wal.append(List.of(pending("a"), pending("b")));
+            insertedKey = wal.keyOf(lsn, 0);
+        }
+        // Crash after inserting the first row, before the checkpoint
+        table.insertCommitted(7L, "a", insertedKey);
+
+        NotificationWriter writer = writer(NotificationWriter.WriteMode.ASYNC_WAL, 100, 50, 10);
+        writer.start();
+        awaitUntil(() -> table.rows().size() == 2);
+        writer.stop();
+
+        assertThat(table.rows()).extracting(FakeNotificationTable.Row::title).containsExactly("a", "b");
+        try (NotificationWal wal = new NotificationWal(walDir, JSON)) {
+            assertThat(wal.recover()).isEmpty();
+        }
+    }
+
+    @Test
+    void batchIsDeadLetteredAfterRetryRounds() throws Exception {
+        NotificationWriter writer = writer(NotificationWriter.WriteMode.ASYNC_WAL, 100, 20, 2);
+        table.failNextInserts(Integer.MAX_VALUE);
+        writer.start();
+
+        writer.write(List.of(notification("a")));
+        Path deadLetters = walDir.resolve("dead-letters.jsonl");
+        awaitUntil(() -> Files.exists(deadLetters));
+        writer.stop();
+
+        assertThat(table.rows()).isEmpty();
+        assertThat(Files.readString(deadLetters)).contains("\"title\":\"a\"");
+        try (NotificationWal wal = new NotificationWal(walDir, JSON)) {
+            assertThat(wal.recover()).isEmpty();
+        }
+    }
+
+    @Test
+    void idsFollowRowsWhateverOrderTheyAreReturnedIn() {
+        List<PendingNotification> persisted = new CopyOnWriteArrayList<>();
+        NotificationWriter writer = new NotificationWriter(table.jdbcTemplate(),
+                event -> persisted.addAll(((NotificationsPersistedEvent) event).getNotifications()),
+                table.transactionManager(), JSON, new SimpleMeterRegistry(), NotificationWriter.WriteMode.SYNC,
+                100, 50, walDir.toString(), 10, 10);
+        table.reverseReturningOrder();
+
+        writer.write(List.of(notification("a"), notification("b"), notification("c")));
+
+        assertThat(persisted).extracting(PendingNotification::getTitle).containsExactly("a", "b", "c");
+        for (PendingNotification notification : persisted) {
+            assertThat(table.rows()).filteredOn(row -> row.id() == notification.getId())
+                    .extracting(FakeNotificationTable.Row::title)
+                    .containsExactly(notification.getTitle());
+        }
+    }
+
+    private NotificationWriter writer(NotificationWriter.WriteMode mode, int queueCapacity,
+                                      long retryIntervalMs, int maxRetryRounds) {
+        return new NotificationWriter(table.jdbcTemplate(), event -> { }, table.transactionManager(), JSON,
+                new SimpleMeterRegistry(), mode, queueCapacity, 50, walDir.toString(), retryIntervalMs, maxRetryRounds);
+    }
+
+    private static Notification notification(String title) {
+        return Notification.builder()
+                .user(User.builder().id(7L).build())
+                .type(Notification.NotificationType.SYSTEM_ALERT)
+                .title(title)
+                .message("message")
+                .createdAt(LocalDateTime.of(2026, 10, 1, 12, 0))
+                .build();
+    }
+
+    private static PendingNotification pending(String title) {
+        return PendingNotification.from(notification(title));
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition reached in time").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
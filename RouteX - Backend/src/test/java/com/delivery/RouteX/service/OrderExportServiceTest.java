@@ -0,0 +1,30 @@
+package com.delivery.RouteX.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderExportServiceTest {
+
+    @Test
+    void formulaCellsAreWrittenAsText() {
+        assertThat(cell("=HYPERLINK(\"http://evil\")")).isEqualTo("\"'=HYPERLINK(\"\"http://evil\"\")\"");
+        assertThat(cell("+SUM(A1)")).isEqualTo("'+SUM(A1)");
+        assertThat(cell("-2+3")).isEqualTo("'-2+3");
+        assertThat(cell("@cmd")).isEqualTo("'@cmd");
+        assertThat(cell("\tTAB")).isEqualTo("'\tTAB");
+    }
+
+    @Test
+    void plainCellsAreUnchanged() {
+        assertThat(cell("SUMMER10")).isEqualTo("SUMMER10");
+        assertThat(cell("ORD-2026-001")).isEqualTo("ORD-2026-001");
+        assertThat(cell("")).isEmpty();
+        assertThat(cell(null)).isEmpty();
+        assertThat(cell("a,b")).isEqualTo("\"a,b\"");
+    }
+
+    private static String cell(String value) {
+        return OrderExportService.appendText(new StringBuilder(), value).toString();
+    }
+}
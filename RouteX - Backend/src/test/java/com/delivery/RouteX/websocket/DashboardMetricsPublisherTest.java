@@ -0,0 +1,146 @@
+package com.delivery.RouteX.websocket;
+
+import com.delivery.RouteX.dto.analytics.DashboardMetrics;
+import com.delivery.RouteX.dto.websocket.DashboardMetricsMessage;
+import com.delivery.RouteX.service.AnalyticsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DashboardMetricsPublisherTest {
+
+    private final AtomicLong pendingOrders = new AtomicLong();
+    private final DashboardMetricsPublisher publisher = new DashboardMetricsPublisher(
+            new FakeAnalytics(pendingOrders),
+            new SimpMessagingTemplate((message, timeout) -> true),
+            new TopicSubscriptionRegistry(event -> { }),
+            60_000, 15_000);
+    private final CountDownLatch unblock = new CountDownLatch(1);
+
+    @AfterEach
+    void release() {
+        unblock.countDown();
+    }
+
+    @Test
+    void snapshotPrecedesDeltas() throws Exception {
+        FakeClient client = connect(false);
+
+        pendingOrders.set(3);
+        publisher.tick();
+
+        assertThat(client.frames).hasSize(2);
+        assertThat(client.frames.get(0)).contains("snapshot");
+        assertThat(client.frames.get(1)).contains("delta").contains("pendingOrders");
+    }
+
+    @Test
+    void stuckClientDoesNotHoldThePublisherLock() throws Exception {
+        FakeClient slow = connect(true);
+
+        pendingOrders.set(3);
+        CompletableFuture<Void> tick = CompletableFuture.runAsync(publisher::tick);
+        awaitUntil(() -> slow.writing);
+
+        // Both take the publisher lock; neither may wait on the stuck write
+        long started = System.nanoTime();
+        DashboardMetricsMessage snapshot = CompletableFuture.supplyAsync(publisher::snapshot).get(1, TimeUnit.SECONDS);
+        FakeClient other = connect(false);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(1_000);
+        assertThat(snapshot.getMetrics()).containsEntry("pendingOrders", 3L);
+        assertThat(other.frames).hasSize(1);
+
+        unblock.countDown();
+        tick.get(5, TimeUnit.SECONDS);
+        assertThat(slow.frames).hasSize(2);
+    }
+
+    private FakeClient connect(boolean slow) throws Exception {
+        SseEmitter emitter = publisher.subscribe();
+        FakeClient client = new FakeClient(slow ? unblock : null);
+        client.attach(emitter);
+        return client;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition reached in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static final class FakeAnalytics extends AnalyticsService {
+
+        private final AtomicLong pendingOrders;
+
+        private FakeAnalytics(AtomicLong pendingOrders) {
+            super(null, null, null, null);
+            this.pendingOrders = pendingOrders;
+        }
+
+        @Override
+        public DashboardMetrics getDashboardMetrics() {
+            return DashboardMetrics.builder().pendingOrders(pendingOrders.get()).build();
+        }
+    }
+
+    /**
+     * Stands in for the servlet response behind an emitter
+     * A slow client blocks every write after the initial snapshot until released.
+     */
+    private static final class FakeClient {
+
+        private final List<String> frames = new CopyOnWriteArrayList<>();
+        private final CountDownLatch unblock;
+        private volatile boolean writing;
+
+        private FakeClient(CountDownLatch unblock) {
+            this.unblock = unblock;
+        }
+
+        void attach(SseEmitter emitter) throws Exception {
+            Class<?> handlerType = Class.forName(ResponseBodyEmitter.class.getName() + "$Handler");
+            Object handler = Proxy.newProxyInstance(handlerType.getClassLoader(), new Class<?>[]{handlerType},
+                    (self, method, args) -> {
+                        if ("send".equals(method.getName())) {
+                            if (unblock != null && !frames.isEmpty()) {
+                                writing = true;
+                                unblock.await();
+                            }
+                            frames.add(text(args[0]));
+                        }
+                        return null;
+                    });
+            Method initialize = ResponseBodyEmitter.class.getDeclaredMethod("initialize", handlerType);
+            initialize.setAccessible(true);
+            initialize.invoke(emitter, handler);
+        }
+
+        private static String text(Object sent) {
+            if (!(sent instanceof Set<?> parts)) {
+                return String.valueOf(sent);
+            }
+            StringBuilder frame = new StringBuilder();
+            for (Object part : parts) {
+                frame.append(((ResponseBodyEmitter.DataWithMediaType) part).getData());
+            }
+            return frame.toString();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.delivery.RouteX.websocket;
+
+import com.delivery.RouteX.Repository.OrderRepository;
+import com.delivery.RouteX.event.OrderStatusChangedEvent;
+import com.delivery.RouteX.model.Order;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DriverOrderIndexTest {
+
+    private static final long DRIVER = 7L;
+
+    private final List<Object[]> snapshot = new ArrayList<>();
+    private Runnable duringQuery = () -> { };
+    private final DriverOrderIndex index = new DriverOrderIndex(repository());
+
+    @Test
+    void rebuildLoadsActiveAssignments() {
+        snapshot.add(new Object[]{DRIVER, 1L});
+        snapshot.add(new Object[]{DRIVER, 2L});
+        snapshot.add(new Object[]{8L, 3L});
+
+        index.rebuild();
+
+        assertThat(index.getActiveOrderIds(DRIVER)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.getActiveOrderIds(8L)).containsExactly(3L);
+    }
+
+    @Test
+    void rebuildDropsDriversWithoutActiveOrders() {
+        index.onOrderStatusChanged(event(1L, Order.OrderStatus.ASSIGNED));
+
+        index.rebuild();
+
+        assertThat(index.getActiveOrderIds(DRIVER)).isEmpty();
+    }
+
+    @Test
+    void orderDeliveredDuringRebuildIsNotRestored() {
+        index.onOrderStatusChanged(event(1L, Order.OrderStatus.IN_TRANSIT));
+        snapshot.add(new Object[]{DRIVER, 1L});
+        snapshot.add(new Object[]{DRIVER, 2L});
+        // Committed after the snapshot was read, before the rebuild applies it
+        duringQuery = () -> index.onOrderStatusChanged(event(1L, Order.OrderStatus.DELIVERED));
+
+        index.rebuild();
+
+        assertThat(index.getActiveOrderIds(DRIVER)).containsExactly(2L);
+    }
+
+    @Test
+    void orderAssignedDuringRebuildIsKept() {
+        duringQuery = () -> index.onOrderStatusChanged(event(1L, Order.OrderStatus.ASSIGNED));
+
+        index.rebuild();
+
+        assertThat(index.getActiveOrderIds(DRIVER)).containsExactly(1L);
+    }
+
+    @Test
+    void eventsAfterRebuildApplyNormally() {
+        snapshot.add(new Object[]{DRIVER, 1L});
+        duringQuery = () -> index.onOrderStatusChanged(event(1L, Order.OrderStatus.PICKED_UP));
+        index.rebuild();
+
+        index.onOrderStatusChanged(event(1L, Order.OrderStatus.DELIVERED));
+
+        assertThat(index.getActiveOrderIds(DRIVER)).isEmpty();
+    }
+
+    private OrderRepository repository() {
+        return (OrderRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{OrderRepository.class}, (self, method, args) -> {
+                    if (!method.getName().equals("findActiveDriverAssignments")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    List<Object[]> rows = List.copyOf(snapshot);
+                    duringQuery.run();
+                    return rows;
+                });
+    }
+
+    private static OrderStatusChangedEvent event(long orderId, Order.OrderStatus status) {
+        return OrderStatusChangedEvent.builder().orderId(orderId).driverId(DRIVER).status(status).build();
+    }
+}
@@ -0,0 +1,51 @@
+package com.delivery.RouteX.websocket;
+
+import com.delivery.RouteX.event.DriverAvailabilityChangedEvent;
+import com.delivery.RouteX.exception.BadRequestException;
+import com.delivery.RouteX.model.Driver;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FleetStateServiceTest {
+
+    private static final long STALE_AFTER_MS = 100;
+
+    private final FleetStateService fleetState = new FleetStateService(null, 4, STALE_AFTER_MS);
+
+    @Test
+    void negativeSequenceIsRejected() {
+        fleetState.record(1L, 52.1, 4.1);
+
+        assertThatThrownBy(() -> fleetState.deltasSince(fleetState.getEpoch(), -1))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void offlineDriverLeavesTheSnapshot() {
+        fleetState.record(1L, 52.1, 4.1);
+        fleetState.record(2L, 52.2, 4.2);
+
+        fleetState.onDriverAvailabilityChanged(availability(1L, Driver.AvailabilityStatus.OFFLINE));
+        fleetState.onDriverAvailabilityChanged(availability(2L, Driver.AvailabilityStatus.BUSY));
+
+        assertThat(fleetState.snapshot().getDrivers()).extracting("driverId").containsExactly(2L);
+    }
+
+    @Test
+    void staleDriversAreEvicted() throws InterruptedException {
+        fleetState.record(1L, 52.1, 4.1);
+        Thread.sleep(STALE_AFTER_MS * 2);
+        fleetState.record(2L, 52.2, 4.2);
+
+        fleetState.evictStale();
+
+        assertThat(fleetState.getDriverCount()).isEqualTo(1);
+        assertThat(fleetState.snapshot().getDrivers()).extracting("driverId").containsExactly(2L);
+    }
+
+    private static DriverAvailabilityChangedEvent availability(Long driverId, Driver.AvailabilityStatus status) {
+        return DriverAvailabilityChangedEvent.builder().driverId(driverId).status(status).build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.delivery.RouteX.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class LocationFrameCodecTest {
+
+    // Fixed-point resolution is 1e-7 degrees
+    private static final double TOLERANCE = 1e-7;
+
+    @Test
+    void requestFrameRoundTrips() {
+        ByteBuffer buffer = ByteBuffer.allocate(LocationFrameCodec.REQUEST_FRAME_SIZE);
+
+        LocationFrameCodec.encodeRequest(buffer, 0, 6.9270786, -79.8612430);
+
+        assertThat(LocationFrameCodec.requestLatitude(buffer, 0)).isCloseTo(6.9270786, within(TOLERANCE));
+        assertThat(LocationFrameCodec.requestLongitude(buffer, 0)).isCloseTo(-79.8612430, within(TOLERANCE));
+    }
+
+    @Test
+    void updateFramesRoundTripAtOffsets() {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * LocationFrameCodec.UPDATE_FRAME_SIZE);
+
+        LocationFrameCodec.encodeUpdate(buffer, 0, 184_223L, 3_417L, 90.0, 180.0, 1L);
+        LocationFrameCodec.encodeUpdate(buffer, LocationFrameCodec.UPDATE_FRAME_SIZE, 0L, 42L, -90.0, -180.0, 2L);
+
+        int second = LocationFrameCodec.UPDATE_FRAME_SIZE;
+        assertThat(LocationFrameCodec.updateOrderId(buffer, 0)).isEqualTo(184_223L);
+        assertThat(LocationFrameCodec.updateDriverId(buffer, 0)).isEqualTo(3_417L);
+        assertThat(LocationFrameCodec.updateLatitude(buffer, 0)).isCloseTo(90.0, within(TOLERANCE));
+        assertThat(LocationFrameCodec.updateLongitude(buffer, 0)).isCloseTo(180.0, within(TOLERANCE));
+        assertThat(LocationFrameCodec.updateEpochMillis(buffer, 0)).isEqualTo(1L);
+        assertThat(LocationFrameCodec.updateOrderId(buffer, second)).isZero();
+        assertThat(LocationFrameCodec.updateDriverId(buffer, second)).isEqualTo(42L);
+        assertThat(LocationFrameCodec.updateLatitude(buffer, second)).isCloseTo(-90.0, within(TOLERANCE));
+        assertThat(LocationFrameCodec.updateLongitude(buffer, second)).isCloseTo(-180.0, within(TOLERANCE));
+        assertThat(LocationFrameCodec.updateEpochMillis(buffer, second)).isEqualTo(2L);
+    }
+
+    @Test
+    void fieldsAreLittleEndian() {
+        ByteBuffer buffer = ByteBuffer.allocate(LocationFrameCodec.UPDATE_FRAME_SIZE);
+
+        LocationFrameCodec.encodeUpdate(buffer, 0, 0L, 0L, 0.0000001, 0.0, 0x0102L);
+
+        assertThat(buffer.get(16)).isEqualTo((byte) 1);
+        assertThat(buffer.get(19)).isZero();
+        assertThat(buffer.get(24)).isEqualTo((byte) 0x02);
+        assertThat(buffer.get(25)).isEqualTo((byte) 0x01);
+    }
+
+    @Test
+    void callerBufferStateIsLeftAlone() {
+        ByteBuffer buffer = ByteBuffer.allocate(64).order(ByteOrder.BIG_ENDIAN);
+        buffer.position(5).limit(48);
+
+        LocationFrameCodec.encodeUpdate(buffer, 8, 1L, 2L, 3.0, 4.0, 5L);
+        LocationFrameCodec.updateLatitude(buffer, 8);
+
+        assertThat(buffer.order()).isEqualTo(ByteOrder.BIG_ENDIAN);
+        assertThat(buffer.position()).isEqualTo(5);
+        assertThat(buffer.limit()).isEqualTo(48);
+    }
+
+    @Test
+    void directBuffersWork() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(LocationFrameCodec.UPDATE_FRAME_SIZE);
+
+        LocationFrameCodec.encodeUpdate(buffer, 0, 1L, 2L, 3.0, 4.0, 5L);
+
+        assertThat(LocationFrameCodec.updateDriverId(buffer, 0)).isEqualTo(2L);
+        assertThat(LocationFrameCodec.updateLongitude(buffer, 0)).isCloseTo(4.0, within(TOLERANCE));
+    }
+
+    @Test
+    void truncatedFramesAreRejected() {
+        ByteBuffer request = ByteBuffer.allocate(LocationFrameCodec.REQUEST_FRAME_SIZE - 1);
+        ByteBuffer update = ByteBuffer.allocate(LocationFrameCodec.UPDATE_FRAME_SIZE - 1);
+
+        assertThatThrownBy(() -> LocationFrameCodec.requestLongitude(request, 0))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> LocationFrameCodec.updateEpochMillis(update, 0))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> LocationFrameCodec.encodeUpdate(update, 0, 1L, 2L, 3.0, 4.0, 5L))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void onlyExactRequestFrameLengthIsAccepted() {
+        assertThat(LocationFrameCodec.isRequestFrame(LocationFrameCodec.REQUEST_FRAME_SIZE)).isTrue();
+        assertThat(LocationFrameCodec.isRequestFrame(LocationFrameCodec.REQUEST_FRAME_SIZE - 1)).isFalse();
+        assertThat(LocationFrameCodec.isRequestFrame(LocationFrameCodec.REQUEST_FRAME_SIZE + 1)).isFalse();
+    }
+}
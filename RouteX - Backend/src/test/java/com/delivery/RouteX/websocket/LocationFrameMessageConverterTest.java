@@ -0,0 +1,73 @@
+package com.delivery.RouteX.websocket;
+
+import com.delivery.RouteX.dto.driver.UpdateLocationRequest;
+import com.delivery.RouteX.dto.websocket.LocationUpdateMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class LocationFrameMessageConverterTest {
+
+    private final LocationFrameMessageConverter converter = new LocationFrameMessageConverter();
+
+    @Test
+    void requestFrameIsDecoded() {
+        byte[] frame = new byte[LocationFrameCodec.REQUEST_FRAME_SIZE];
+        LocationFrameCodec.encodeRequest(ByteBuffer.wrap(frame), 0, 6.9270786, 79.861243);
+
+        UpdateLocationRequest request = (UpdateLocationRequest) converter.fromMessage(binary(frame), UpdateLocationRequest.class);
+
+        assertThat(request.getLatitude()).isCloseTo(6.9270786, within(1e-7));
+        assertThat(request.getLongitude()).isCloseTo(79.861243, within(1e-7));
+    }
+
+    @Test
+    void truncatedAndOversizedRequestFramesAreRejected() {
+        byte[] truncated = new byte[LocationFrameCodec.REQUEST_FRAME_SIZE - 1];
+        byte[] oversized = new byte[LocationFrameCodec.REQUEST_FRAME_SIZE + 1];
+
+        assertThatThrownBy(() -> converter.fromMessage(binary(truncated), UpdateLocationRequest.class))
+                .isInstanceOf(MessageConversionException.class);
+        assertThatThrownBy(() -> converter.fromMessage(binary(oversized), UpdateLocationRequest.class))
+                .isInstanceOf(MessageConversionException.class);
+    }
+
+    @Test
+    void updateIsEncodedAsOneFrame() {
+        LocationUpdateMessage update = LocationUpdateMessage.builder()
+                .orderId(7L)
+                .driverId(3L)
+                .latitude(-33.8688)
+                .longitude(151.2093)
+                .timestamp(LocalDateTime.of(2026, 10, 1, 12, 0))
+                .build();
+
+        Message<?> message = converter.toMessage(update, new MessageHeaders(
+                Map.of(MessageHeaders.CONTENT_TYPE, LocationFrameCodec.MIME_TYPE)));
+
+        ByteBuffer frame = ByteBuffer.wrap((byte[]) message.getPayload());
+        assertThat(frame.capacity()).isEqualTo(LocationFrameCodec.UPDATE_FRAME_SIZE);
+        assertThat(LocationFrameCodec.updateOrderId(frame, 0)).isEqualTo(7L);
+        assertThat(LocationFrameCodec.updateDriverId(frame, 0)).isEqualTo(3L);
+        assertThat(LocationFrameCodec.updateLatitude(frame, 0)).isCloseTo(-33.8688, within(1e-7));
+        assertThat(LocationFrameCodec.updateLongitude(frame, 0)).isCloseTo(151.2093, within(1e-7));
+        assertThat(LocationFrameCodec.updateEpochMillis(frame, 0))
+                .isEqualTo(LocationFrameMessageConverter.toEpochMillis(update));
+    }
+
+    private static Message<byte[]> binary(byte[] payload) {
+        return MessageBuilder.withPayload(payload)
+                .setHeader(MessageHeaders.CONTENT_TYPE, LocationFrameCodec.MIME_TYPE)
+                .build();
+    }
+}
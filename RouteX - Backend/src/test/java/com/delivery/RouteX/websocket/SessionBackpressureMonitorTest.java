@@ -0,0 +1,147 @@
+package com.delivery.RouteX.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionBackpressureMonitorTest {
+
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+    private final List<String> closed = new CopyOnWriteArrayList<>();
+    private final CountDownLatch workerBusy = new CountDownLatch(1);
+    private final CountDownLatch releaseWorker = new CountDownLatch(1);
+
+    private ThreadPoolTaskExecutor executor;
+
+    @AfterEach
+    void shutdown() {
+        releaseWorker.countDown();
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void nonLocationFramesAreDeliveredWhenOutboundQueueIsFull() throws Exception {
+        SessionBackpressureMonitor monitor = monitor(50, "s1");
+        ExecutorSubscribableChannel channel = saturatedChannel(monitor, "s1");
+
+        for (int i = 0; i < 20; i++) {
+            channel.send(frame("s1", "/topic/orders/" + i));
+            channel.send(frame("s1", ConflatingLocationPublisher.TRACKING_TOPIC_PREFIX + i));
+        }
+        releaseWorker.countDown();
+        executor.shutdown();
+        assertThat(executor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(delivered).contains("/blocker", "/queued")
+                .filteredOn(destination -> destination.startsWith("/topic/orders/"))
+                .hasSize(20);
+        assertThat(delivered).filteredOn(destination -> destination.startsWith(ConflatingLocationPublisher.TRACKING_TOPIC_PREFIX))
+                .isEmpty();
+        assertThat(closed).isEmpty();
+        assertThat(monitor.getTotalQueued()).isZero();
+    }
+
+    @Test
+    void deepestSessionIsDisconnectedWhenOutboundQueueIsFull() throws Exception {
+        SessionBackpressureMonitor monitor = monitor(1, "slow", "other");
+        ExecutorSubscribableChannel channel = saturatedChannel(monitor, "slow");
+
+        channel.send(frame("other", "/topic/orders/1"));
+        channel.send(frame("slow", "/topic/orders/2"));
+        releaseWorker.countDown();
+        executor.shutdown();
+        assertThat(executor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(closed).containsExactly("slow");
+        assertThat(delivered).contains("/blocker", "/queued", "/topic/orders/1").doesNotContain("/topic/orders/2");
+        assertThat(monitor.getTotalQueued()).isZero();
+    }
+
+    private SessionBackpressureMonitor monitor(int conflateQueueDepth, String... sessionIds) throws Exception {
+        SessionBackpressureMonitor monitor =
+                new SessionBackpressureMonitor(new SimpleMeterRegistry(), conflateQueueDepth, 1_000);
+        WebSocketHandler decorated = monitor.decorate(proxy(WebSocketHandler.class, null));
+        for (String sessionId : sessionIds) {
+            decorated.afterConnectionEstablished(proxy(WebSocketSession.class, sessionId));
+        }
+        return monitor;
+    }
+
+    /**
+     * One worker, parked on the first frame, and one queued frame: every further send is rejected
+     */
+    private ExecutorSubscribableChannel saturatedChannel(SessionBackpressureMonitor monitor, String sessionId)
+            throws InterruptedException {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setRejectedExecutionHandler(monitor);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+
+        ExecutorSubscribableChannel channel = new ExecutorSubscribableChannel(executor);
+        channel.addInterceptor(monitor);
+        channel.subscribe(message -> {
+            String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+            if ("/blocker".equals(destination)) {
+                workerBusy.countDown();
+                awaitRelease();
+            }
+            delivered.add(destination);
+        });
+
+        channel.send(frame(sessionId, "/blocker"));
+        assertThat(workerBusy.await(5, TimeUnit.SECONDS)).isTrue();
+        channel.send(frame(sessionId, "/queued"));
+        return channel;
+    }
+
+    private void awaitRelease() {
+        try {
+            releaseWorker.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Message<byte[]> frame(String sessionId, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(Class<T> type, String sessionId) {
+        return (T) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, (self, method, args) ->
+                switch (method.getName()) {
+                    case "getId" -> sessionId;
+                    case "close" -> {
+                        closed.add(sessionId);
+                        yield null;
+                    }
+                    case "hashCode" -> System.identityHashCode(self);
+                    case "equals" -> self == args[0];
+                    default -> method.getReturnType() == boolean.class ? false : null;
+                });
+    }
+}
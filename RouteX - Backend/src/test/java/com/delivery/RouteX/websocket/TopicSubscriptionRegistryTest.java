@@ -0,0 +1,100 @@
+package com.delivery.RouteX.websocket;
+
+import com.delivery.RouteX.event.DestinationInterestChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopicSubscriptionRegistryTest {
+
+    private static final String TOPIC = "/topic/orders/1";
+
+    private final List<DestinationInterestChangedEvent> events = new CopyOnWriteArrayList<>();
+    private final TopicSubscriptionRegistry registry =
+            new TopicSubscriptionRegistry(event -> events.add((DestinationInterestChangedEvent) event));
+
+    @Test
+    void interestIsPublishedOnFirstSubscribeAndLastUnsubscribe() {
+        registry.onSubscribe(subscribe("s1", "sub-1", TOPIC));
+        registry.onSubscribe(subscribe("s2", "sub-1", TOPIC));
+        registry.onUnsubscribe(unsubscribe("s1", "sub-1"));
+        registry.onUnsubscribe(unsubscribe("s2", "sub-1"));
+
+        assertThat(events).extracting(DestinationInterestChangedEvent::isSubscribed).containsExactly(true, false);
+        assertThat(registry.hasLocalSubscribers(TOPIC)).isFalse();
+    }
+
+    @Test
+    void unknownUnsubscribePublishesNothing() {
+        registry.onUnsubscribe(unsubscribe("s1", "sub-1"));
+
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    void subscribeRacingLastUnsubscribeIsNotLost() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 2_000; round++) {
+                registry.onSubscribe(subscribe("leaving", "sub-" + round, TOPIC));
+                String subscriptionId = "sub-" + round;
+                CountDownLatch start = new CountDownLatch(1);
+                Future<?> leaving = pool.submit(() -> {
+                    start.await();
+                    registry.onUnsubscribe(unsubscribe("leaving", subscriptionId));
+                    return null;
+                });
+                Future<?> joining = pool.submit(() -> {
+                    start.await();
+                    registry.onSubscribe(subscribe("joining", subscriptionId, TOPIC));
+                    return null;
+                });
+                start.countDown();
+                leaving.get(5, TimeUnit.SECONDS);
+                joining.get(5, TimeUnit.SECONDS);
+
+                assertThat(registry.hasLocalSubscribers(TOPIC)).as("round %d", round).isTrue();
+                registry.onUnsubscribe(unsubscribe("joining", subscriptionId));
+                assertThat(registry.hasLocalSubscribers(TOPIC)).isFalse();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Strictly alternating, so the cluster view never ends up inverted
+        for (int i = 0; i < events.size(); i++) {
+            assertThat(events.get(i).isSubscribed()).isEqualTo(i % 2 == 0);
+        }
+    }
+
+    private static SessionSubscribeEvent subscribe(String sessionId, String subscriptionId, String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(destination);
+        return new SessionSubscribeEvent(new Object(), frame(accessor, sessionId, subscriptionId));
+    }
+
+    private static SessionUnsubscribeEvent unsubscribe(String sessionId, String subscriptionId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.UNSUBSCRIBE);
+        return new SessionUnsubscribeEvent(new Object(), frame(accessor, sessionId, subscriptionId));
+    }
+
+    private static Message<byte[]> frame(StompHeaderAccessor accessor, String sessionId, String subscriptionId) {
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,163 @@
+package com.delivery.RouteX.websocket;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrackingStreamServiceTest {
+
+    private static final long ORDER = 1L;
+
+    private final TrackingStreamService service = new TrackingStreamService(
+            JsonMapper.builder().build(), 60_000, 15_000, 50, 600_000, 3, 4);
+    private final CountDownLatch unblock = new CountDownLatch(1);
+
+    @AfterEach
+    void shutdown() {
+        unblock.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void slowSubscriberDoesNotDelayPublisherOrOthers() throws Exception {
+        FakeClient slow = connect(true);
+        FakeClient fast = connect(false);
+
+        long started = System.nanoTime();
+        service.publish(ORDER, "status", "picked-up");
+        service.publish(ORDER, "status", "in-transit");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(1_000);
+
+        awaitUntil(() -> fast.frames.size() == 3);
+        assertThat(fast.frames.get(1)).contains("picked-up");
+        assertThat(fast.frames.get(2)).contains("in-transit");
+        assertThat(slow.frames).hasSize(1);
+
+        unblock.countDown();
+        awaitUntil(() -> slow.frames.size() == 3);
+        assertThat(slow.frames.get(2)).contains("in-transit");
+    }
+
+    @Test
+    void subscriberThatFallsTooFarBehindIsClosed() throws Exception {
+        FakeClient slow = connect(true);
+        FakeClient fast = connect(false);
+
+        for (int i = 0; i < 6; i++) {
+            service.publish(ORDER, "location", "position-" + i);
+            // The fast client keeps up; only the slow one accumulates a backlog
+            int expected = i + 2;
+            awaitUntil(() -> fast.frames.size() == expected);
+        }
+
+        awaitUntil(() -> service.getConnectionCount() == 1);
+        assertThat(fast.completed).isFalse();
+
+        // The stuck write finishes (in production: fails on the socket timeout), then the emitter closes
+        unblock.countDown();
+        awaitUntil(() -> slow.completed);
+        assertThat(slow.frames.size()).isLessThan(fast.frames.size());
+    }
+
+    @Test
+    void subscriberIsOnlyRegisteredAfterFirstWriteSucceeds() {
+        FailingEmitter emitter = new FailingEmitter();
+
+        service.subscribe(ORDER, null, () -> "snapshot", emitter);
+
+        assertThat(emitter.error).isInstanceOf(IOException.class);
+        assertThat(service.getConnectionCount()).isZero();
+    }
+
+    private FakeClient connect(boolean slow) throws Exception {
+        SseEmitter emitter = service.subscribe(ORDER, null, () -> "snapshot");
+        FakeClient client = new FakeClient(slow ? unblock : null);
+        client.attach(emitter);
+        return client;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition reached in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static final class FailingEmitter extends SseEmitter {
+
+        private Throwable error;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            throw new IOException("Broken pipe");
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            error = ex;
+        }
+    }
+
+    /**
+     * Stands in for the servlet response behind an emitter
+     * A slow client blocks every write after the initial snapshot until released.
+     */
+    private static final class FakeClient {
+
+        private final List<String> frames = new CopyOnWriteArrayList<>();
+        private final CountDownLatch unblock;
+        private volatile boolean completed;
+
+        private FakeClient(CountDownLatch unblock) {
+            this.unblock = unblock;
+        }
+
+        void attach(SseEmitter emitter) throws Exception {
+            Class<?> handlerType = Class.forName(ResponseBodyEmitter.class.getName() + "$Handler");
+            Object handler = Proxy.newProxyInstance(handlerType.getClassLoader(), new Class<?>[]{handlerType},
+                    (self, method, args) -> {
+                        switch (method.getName()) {
+                            case "send" -> {
+                                if (unblock != null && !frames.isEmpty()) {
+                                    unblock.await();
+                                }
+                                frames.add(text(args[0]));
+                            }
+                            case "complete", "completeWithError" -> completed = true;
+                            default -> {
+                            }
+                        }
+                        return null;
+                    });
+            Method initialize = ResponseBodyEmitter.class.getDeclaredMethod("initialize", handlerType);
+            initialize.setAccessible(true);
+            initialize.invoke(emitter, handler);
+        }
+
+        private static String text(Object sent) {
+            if (!(sent instanceof Set<?> parts)) {
+                return String.valueOf(sent);
+            }
+            StringBuilder frame = new StringBuilder();
+            for (Object part : parts) {
+                frame.append(((ResponseBodyEmitter.DataWithMediaType) part).getData());
+            }
+            return frame.toString();
+        }
+    }
+}
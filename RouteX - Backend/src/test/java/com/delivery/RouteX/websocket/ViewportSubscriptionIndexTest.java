@@ -0,0 +1,102 @@
+package com.delivery.RouteX.websocket;
+
+import com.delivery.RouteX.dto.websocket.LocationUpdateMessage;
+import com.delivery.RouteX.dto.websocket.ViewportDeltaMessage;
+import com.delivery.RouteX.dto.websocket.ViewportRequest;
+import com.delivery.RouteX.event.DriverAvailabilityChangedEvent;
+import com.delivery.RouteX.model.Driver;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ViewportSubscriptionIndexTest {
+
+    private static final long STALE_AFTER_MS = 60_000;
+
+    private final List<ViewportDeltaMessage> deltas = new CopyOnWriteArrayList<>();
+    private final ViewportSubscriptionIndex index = new ViewportSubscriptionIndex(
+            new SimpMessagingTemplate((message, timeout) -> deltas.add((ViewportDeltaMessage) message.getPayload())),
+            0.05, 4096, STALE_AFTER_MS);
+
+    @Test
+    void offlineDriverIsRemovedFromViewports() {
+        index.updateViewport("s1", new ViewportRequest(52.0, 4.0, 52.5, 4.5));
+        index.onDriverLocation(location(1L, 52.1, 4.1, LocalDateTime.now()));
+        index.flush();
+
+        index.onDriverAvailabilityChanged(availability(1L, Driver.AvailabilityStatus.OFFLINE));
+        index.flush();
+
+        assertThat(deltas).hasSize(2);
+        assertThat(deltas.get(1).getRemoved()).containsExactly(1L);
+        assertThat(index.getDriverCount()).isZero();
+    }
+
+    @Test
+    void busyDriverStaysOnViewports() {
+        index.onDriverLocation(location(1L, 52.1, 4.1, LocalDateTime.now()));
+
+        index.onDriverAvailabilityChanged(availability(1L, Driver.AvailabilityStatus.BUSY));
+
+        assertThat(index.getDriverCount()).isEqualTo(1);
+    }
+
+    @Test
+    void staleDriversAreEvicted() {
+        index.updateViewport("s1", new ViewportRequest(52.0, 4.0, 52.5, 4.5));
+        index.onDriverLocation(location(1L, 52.1, 4.1, LocalDateTime.now().minusMinutes(5)));
+        index.onDriverLocation(location(2L, 52.2, 4.2, LocalDateTime.now()));
+        index.flush();
+
+        index.evictStale();
+        index.flush();
+
+        assertThat(index.getDriverCount()).isEqualTo(1);
+        assertThat(deltas.get(1).getRemoved()).containsExactly(1L);
+        assertThat(deltas.get(1).getUpdates()).isEmpty();
+    }
+
+    @Test
+    void evictedDriverReturnsWithNextPing() {
+        index.updateViewport("s1", new ViewportRequest(52.0, 4.0, 52.5, 4.5));
+        index.onDriverLocation(location(1L, 52.1, 4.1, LocalDateTime.now().minusMinutes(5)));
+        index.evictStale();
+        index.flush();
+        deltas.clear();
+
+        index.onDriverLocation(location(1L, 52.1, 4.1, LocalDateTime.now()));
+        index.flush();
+
+        assertThat(deltas).hasSize(1);
+        assertThat(deltas.get(0).getUpdates()).extracting(LocationUpdateMessage::getDriverId).containsExactly(1L);
+    }
+
+    @Test
+    void viewportOpenedAfterEvictionDoesNotShowDriver() {
+        index.onDriverLocation(location(1L, 52.1, 4.1, LocalDateTime.now().minusMinutes(5)));
+        index.evictStale();
+
+        index.updateViewport("s1", new ViewportRequest(52.0, 4.0, 52.5, 4.5));
+        index.flush();
+
+        assertThat(deltas).isEmpty();
+    }
+
+    private static LocationUpdateMessage location(Long driverId, double latitude, double longitude, LocalDateTime at) {
+        return LocationUpdateMessage.builder()
+                .driverId(driverId)
+                .latitude(latitude)
+                .longitude(longitude)
+                .timestamp(at)
+                .build();
+    }
+
+    private static DriverAvailabilityChangedEvent availability(Long driverId, Driver.AvailabilityStatus status) {
+        return DriverAvailabilityChangedEvent.builder().driverId(driverId).status(status).build();
+    }
+}
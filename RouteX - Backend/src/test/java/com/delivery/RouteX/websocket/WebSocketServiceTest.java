@@ -0,0 +1,78 @@
+package com.delivery.RouteX.websocket;
+
+import com.delivery.RouteX.dto.websocket.AdminDigestMessage;
+import com.delivery.RouteX.event.OrderStatusChangedEvent;
+import com.delivery.RouteX.model.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebSocketServiceTest {
+
+    private final List<Message<?>> sent = new CopyOnWriteArrayList<>();
+    private final SimpMessagingTemplate messagingTemplate = new SimpMessagingTemplate((message, timeout) -> sent.add(message));
+    private final TrackingStreamService trackingStreams = new TrackingStreamService(
+            JsonMapper.builder().build(), 60_000, 15_000, 50, 600_000, 3, 1);
+    private final AdminDigestPublisher digest = new AdminDigestPublisher(messagingTemplate, 100, false);
+    private final WebSocketService webSocketService = new WebSocketService(
+            messagingTemplate, trackingStreams, null, null, null, digest);
+
+    @AfterEach
+    void shutdown() {
+        trackingStreams.shutdown();
+    }
+
+    @Test
+    void orderOutcomesReachTheAdminDigest() {
+        webSocketService.onOrderStatusChanged(event(Order.OrderStatus.PENDING, null));
+        webSocketService.onOrderStatusChanged(event(Order.OrderStatus.PICKED_UP, Order.OrderStatus.ASSIGNED));
+        webSocketService.onOrderStatusChanged(event(Order.OrderStatus.FAILED, Order.OrderStatus.IN_TRANSIT));
+        webSocketService.onOrderStatusChanged(event(Order.OrderStatus.CANCELLED, Order.OrderStatus.ASSIGNED));
+        sent.clear();
+
+        digest.flush();
+
+        assertThat(sent).singleElement().satisfies(message -> {
+            assertThat(SimpMessageHeaderAccessor.getDestination(message.getHeaders()))
+                    .isEqualTo(AdminDigestPublisher.DIGEST_TOPIC);
+            AdminDigestMessage payload = (AdminDigestMessage) message.getPayload();
+            assertThat(payload.getTotal()).isEqualTo(3);
+            assertThat(payload.getMessages()).containsExactly(
+                    "New order RX-7 is awaiting driver assignment",
+                    "Delivery failed for order RX-7 (driver 3)",
+                    "Order RX-7 was cancelled while ASSIGNED");
+        });
+    }
+
+    @Test
+    void plainAlertsOnTheAdminTopicOnlyWhenLegacyTopicIsOn() {
+        webSocketService.onOrderStatusChanged(event(Order.OrderStatus.FAILED, Order.OrderStatus.IN_TRANSIT));
+        assertThat(sent).extracting(message -> SimpMessageHeaderAccessor.getDestination(message.getHeaders()))
+                .doesNotContain(AdminDigestPublisher.ADMIN_TOPIC);
+
+        new AdminDigestPublisher(messagingTemplate, 100, true).add("Delivery failed for order RX-7");
+        assertThat(sent.get(sent.size() - 1).getHeaders())
+                .containsEntry(SimpMessageHeaderAccessor.DESTINATION_HEADER, AdminDigestPublisher.ADMIN_TOPIC);
+    }
+
+    private static OrderStatusChangedEvent event(Order.OrderStatus status, Order.OrderStatus previousStatus) {
+        return OrderStatusChangedEvent.builder()
+                .orderId(7L)
+                .orderNumber("RX-7")
+                .customerId(2L)
+                .driverId(3L)
+                .previousStatus(previousStatus)
+                .status(status)
+                .occurredAt(LocalDateTime.now())
+                .build();
+    }
+}